@@ -0,0 +1,37 @@
+package cecs277.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks and saves the results as JMH JSON, so two runs can be compared to spot regressions.
+ *
+ * Usage: BenchmarkRunner [include-regex] [result-file]
+ * By default every benchmark in this package runs, and results go to results/jmh-{timestamp}.json.
+ */
+public class BenchmarkRunner {
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+		String resultFile = args.length > 1 ? args[1] : "results/jmh-"
+		 + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+
+		File parent = new File(resultFile).getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new RunnerException("Could not create result directory " + parent);
+		}
+
+		Options options = new OptionsBuilder()
+		 .include(include)
+		 .resultFormat(ResultFormatType.JSON)
+		 .result(resultFile)
+		 .build();
+		new Runner(options).run();
+	}
+}
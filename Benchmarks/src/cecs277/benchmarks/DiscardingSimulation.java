@@ -0,0 +1,30 @@
+package cecs277.benchmarks;
+
+import cecs277.Simulation;
+import cecs277.events.EventHandle;
+import cecs277.events.SimulationEvent;
+
+import java.util.Random;
+
+/**
+ * A Simulation that drops every scheduled event instead of queueing it. Used by the microbenchmarks so that the code
+ * under test can be invoked millions of times without the event queue growing; the last event is kept so the JIT
+ * cannot prove the scheduling work dead.
+ */
+class DiscardingSimulation extends Simulation {
+	private SimulationEvent mLastEvent;
+
+	DiscardingSimulation(long seed) {
+		super(new Random(seed));
+	}
+
+	@Override
+	public EventHandle scheduleEvent(SimulationEvent ev) {
+		mLastEvent = ev;
+		return new EventHandle(ev);
+	}
+
+	SimulationEvent getLastEvent() {
+		return mLastEvent;
+	}
+}
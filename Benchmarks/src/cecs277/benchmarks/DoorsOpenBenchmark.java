@@ -0,0 +1,55 @@
+package cecs277.benchmarks;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+import cecs277.events.SimulationEvent;
+import cecs277.passengers.VisitorPassenger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the DOORS_OPEN path: an idle elevator opens its doors on the lobby, where a queue of
+ * passengers is waiting for it. The scenario is rebuilt before every invocation because boarding consumes
+ * it; the setup is not timed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DoorsOpenBenchmark {
+	@Param({"10", "100", "300"})
+	public int floors;
+
+	@Param({"10", "100"})
+	public int waiting;
+
+	private DiscardingSimulation mSimulation;
+	private Elevator mElevator;
+	private Random mRandom = new Random(277);
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		mSimulation = new DiscardingSimulation(277);
+		Building building = new Building(floors, 1, mSimulation);
+		Floor lobby = building.getFloor(1);
+		mElevator = building.getElevator(1);
+
+		for (int i = 0; i < waiting; i++) {
+			lobby.addWaitingPassenger(new VisitorPassenger(mSimulation.nextPassengerId(), mRandom.nextInt(floors - 1) + 2, 3600));
+		}
+		mElevator.setCurrentDirection(Elevator.Direction.NOT_MOVING);
+		lobby.elevatorDecelerating(mElevator);
+	}
+
+	@Benchmark
+	public SimulationEvent doorsOpen() {
+		mElevator.setState(Elevator.ElevatorState.DOORS_OPEN);
+		mElevator.tick();
+		return mSimulation.getLastEvent();
+	}
+}
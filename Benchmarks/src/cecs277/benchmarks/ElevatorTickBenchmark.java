@@ -0,0 +1,57 @@
+package cecs277.benchmarks;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+import cecs277.events.SimulationEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single Elevator.tick() for each ElevatorState, with the elevator moving up from the middle floor of an
+ * empty building. Scheduled events are discarded, so only the state logic and its observer notifications are timed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ElevatorTickBenchmark {
+	@Param
+	public Elevator.ElevatorState state;
+
+	@Param({"10", "100", "300"})
+	public int floors;
+
+	private DiscardingSimulation mSimulation;
+	private Elevator mElevator;
+	private Floor mStartFloor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		mSimulation = new DiscardingSimulation(277);
+		Building building = new Building(floors, 1, mSimulation);
+		mElevator = building.getElevator(1);
+		mStartFloor = building.getFloor(floors / 2);
+		mStartFloor.addObserver(mElevator);
+	}
+
+	@Benchmark
+	public SimulationEvent tick() {
+		mElevator.setCurrentFloor(mStartFloor);
+		mElevator.setCurrentDirection(Elevator.Direction.MOVING_UP);
+		mElevator.setState(state);
+		mElevator.tick();
+
+		// Undo the observer changes of the states that (un)subscribe from their floor, so every call does the same work.
+		if (state == Elevator.ElevatorState.IDLE_STATE) {
+			mStartFloor.removeObserver(mElevator);
+		}
+		else if (state == Elevator.ElevatorState.ACCELERATING) {
+			mStartFloor.addObserver(mElevator);
+		}
+		return mSimulation.getLastEvent();
+	}
+}
@@ -0,0 +1,93 @@
+package cecs277.benchmarks;
+
+import cecs277.Simulation;
+import cecs277.events.CalendarEventQueue;
+import cecs277.events.EventQueue;
+import cecs277.events.HeapEventQueue;
+import cecs277.events.SimulationEvent;
+import cecs277.snapshot.SnapshotOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Simulation poll/execute loop on its own. The queue is filled with events that do nothing but reschedule
+ * themselves, mimicking the simulator's mix of events a few seconds ahead and a long tail hours out. The events
+ * counter reports how many events the loop executes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EventLoopBenchmark {
+	private static final long SEED = 277;
+	private static final int DELAY_TABLE_SIZE = 4096;
+	private static final long SLICE = 60;
+
+	@Param({"16", "1024", "65536"})
+	public int queueDepth;
+
+	@Param({"heap", "calendar"})
+	public String queue;
+
+	private Simulation mSimulation;
+	private long mExecuted;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long events;
+	}
+
+	/**
+	 * An event that schedules a copy of itself a pseudo-random delay into the future.
+	 */
+	private static class ReschedulingEvent extends SimulationEvent {
+		private long[] mDelays;
+		private int mIndex;
+
+		ReschedulingEvent(long scheduledTime, long[] delays, int index) {
+			super(scheduledTime);
+			mDelays = delays;
+			mIndex = index;
+		}
+
+		@Override
+		public void execute(Simulation sim) {
+			int next = (mIndex + 1) % mDelays.length;
+			sim.scheduleEvent(new ReschedulingEvent(sim.currentTime() + mDelays[next], mDelays, next));
+		}
+
+		@Override
+		public void writeSnapshot(SnapshotOutput out, long now) {
+			throw new UnsupportedOperationException("Cannot snapshot a benchmark event");
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random r = new Random(SEED);
+		long[] delays = new long[DELAY_TABLE_SIZE];
+		for (int i = 0; i < delays.length; i++) {
+			// 90% elevator-like state changes 0-3s ahead, 10% passengers reappearing up to 2 hours later.
+			delays[i] = r.nextInt(10) < 9 ? r.nextInt(4) : r.nextInt(7200) + 1;
+		}
+
+		EventQueue events = queue.equals("heap") ? new HeapEventQueue() : new CalendarEventQueue();
+		mSimulation = new Simulation(new Random(SEED), events);
+		for (int i = 0; i < queueDepth; i++) {
+			mSimulation.scheduleEvent(new ReschedulingEvent(r.nextInt((int)SLICE), delays, i % delays.length));
+		}
+	}
+
+	@Benchmark
+	public long runSlice(Counters counters) {
+		long executed = mSimulation.run(mSimulation.currentTime() + SLICE).getEventsExecuted();
+		counters.events += executed - mExecuted;
+		mExecuted = executed;
+		return executed;
+	}
+}
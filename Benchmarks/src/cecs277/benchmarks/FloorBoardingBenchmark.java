@@ -0,0 +1,50 @@
+package cecs277.benchmarks;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+import cecs277.passengers.Passenger;
+import cecs277.passengers.VisitorPassenger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Floor.addWaitingPassenger on the lobby with a given number of passengers already queued, including the
+ * direction request it raises. The passenger is taken off the floor again so the queue length stays fixed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FloorBoardingBenchmark {
+	@Param({"0", "100", "1000"})
+	public int waiting;
+
+	private Floor mLobby;
+	private Passenger mPassenger;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		DiscardingSimulation simulation = new DiscardingSimulation(277);
+		Building building = new Building(10, 1, simulation);
+		mLobby = building.getFloor(1);
+		for (int i = 0; i < waiting; i++) {
+			mLobby.addWaitingPassenger(new VisitorPassenger(simulation.nextPassengerId(), i % 9 + 2, 3600));
+		}
+		mLobby.clearDirection(Elevator.Direction.MOVING_UP);
+		mPassenger = new VisitorPassenger(simulation.nextPassengerId(), 5, 3600);
+	}
+
+	@Benchmark
+	public int addWaitingPassenger() {
+		mLobby.addWaitingPassenger(mPassenger);
+		int queued = mLobby.getWaitingCount();
+
+		mLobby.removeWaitingPassenger(mPassenger);
+		mLobby.clearDirection(Elevator.Direction.MOVING_UP);
+		return queued;
+	}
+}
@@ -0,0 +1,42 @@
+package cecs277.benchmarks;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+import cecs277.events.EventPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end macrobenchmark: runs a fresh headless simulation of one hour. Each "operation" is one simulated second,
+ * so the reported throughput is simulated seconds per wall-clock second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SimulationThroughputBenchmark {
+	private static final int HORIZON = 3600;
+	private static final long SEED = 277;
+
+	@Param({"10", "50", "200"})
+	public int floors;
+
+	@Param({"1", "4", "16"})
+	public int elevators;
+
+	@Param({"OFF", "ON"})
+	public EventPool.Mode recycling;
+
+	@Benchmark
+	@OperationsPerInvocation(HORIZON)
+	public SimulationResult simulateOneHour() {
+		Simulation sim = new Simulation(new SimulationConfig(floors, elevators, SEED, HORIZON));
+		sim.setEventRecycling(recycling);
+		sim.setPassengerRecycling(recycling == EventPool.Mode.ON);
+		return sim.run();
+	}
+}
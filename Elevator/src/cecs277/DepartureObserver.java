@@ -0,0 +1,10 @@
+package cecs277;
+
+import cecs277.passengers.Passenger;
+
+/**
+ * Notified when a passenger leaves a simulation's building through floor 1.
+ */
+public interface DepartureObserver {
+	void passengerDeparted(Simulation sim, Passenger passenger);
+}
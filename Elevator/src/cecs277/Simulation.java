@@ -1,23 +1,139 @@
 package cecs277;
 
+import cecs277.arrivals.ArrivalGenerator;
+import cecs277.arrivals.ArrivalProcess;
+import cecs277.arrivals.UniformArrivals;
 import cecs277.buildings.Building;
+import cecs277.buildings.BuildingRenderer;
+import cecs277.events.ArrivalBatchEvent;
+import cecs277.events.CalendarEventQueue;
+import cecs277.events.ElevatorStateEvent;
+import cecs277.events.EventHandle;
+import cecs277.events.EventPool;
+import cecs277.events.EventQueue;
+import cecs277.events.PassengerNextDestinationEvent;
 import cecs277.events.SimulationEvent;
 import cecs277.events.SpawnPassengerEvent;
+import cecs277.metrics.SimulationMetrics;
+import cecs277.passengers.Passenger;
+import cecs277.passengers.PassengerPool;
+import cecs277.realtime.RealTimeScheduler;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.telemetry.TelemetryPublisher;
+import cecs277.trace.EventLogWriter;
+import cecs277.trace.Tracer;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
 public class Simulation {
 	private Random mRandom;
-	private PriorityQueue<SimulationEvent> mEvents = new PriorityQueue<>();
+	private EventQueue mEvents;
 	private long mCurrentTime;
+	private Tracer mTracer = new Tracer();
+	private EventLogWriter mEventLog;
+	private SimulationMetrics mMetrics = new SimulationMetrics();
+	private ArrivalProcess mArrivals = new UniformArrivals(1, 30);
+	// This simulation's own generator, if its arrivals come in batches.
+	private ArrivalGenerator mArrivalGenerator;
+	private DepartureObserver mDepartureObserver;
+	private TelemetryPublisher mTelemetry;
+	private EventPool<ElevatorStateEvent> mElevatorStateEvents = ElevatorStateEvent.newPool();
+	private EventPool<PassengerNextDestinationEvent> mPassengerNextDestinationEvents =
+	 PassengerNextDestinationEvent.newPool();
+	private EventPool<SpawnPassengerEvent> mSpawnPassengerEvents = SpawnPassengerEvent.newPool();
+	private PassengerPool mPassengerPool = new PassengerPool();
+	private boolean mTravelCoalescing = true;
+	
+	// Only set for headless simulations constructed from a SimulationConfig.
+	private SimulationConfig mConfig;
+	private Building mBuilding;
+	private long mEventsExecuted;
+	private long mEventsDropped;
+	private int mPassengersSpawned;
+	private int mPassengersDeparted;
+	private int mLastPassengerId;
 	
 	/**
 	 * Seeds the Simulation with a given random number generator.
 	 */
 	public Simulation(Random random) {
+		this(random, new CalendarEventQueue());
+	}
+	
+	/**
+	 * Seeds the Simulation with a given random number generator, and stores pending events in the given queue.
+	 */
+	public Simulation(Random random, EventQueue events) {
 		mRandom = random;
+		mEvents = events;
+	}
+	
+	/**
+	 * Constructs a headless Simulation from the given configuration. The building is constructed immediately and the
+	 * first passenger spawn is scheduled at time 0. A headless simulation writes nothing unless it is given a Tracer;
+	 * drive it with run().
+	 */
+	public Simulation(SimulationConfig config) {
+		this(config, new CalendarEventQueue());
+	}
+	
+	/**
+	 * Constructs a headless Simulation from the given configuration that stores pending events in the given queue.
+	 */
+	public Simulation(SimulationConfig config, EventQueue events) {
+		this(new SimulationRandom(config.getSeed()), events);
+		mConfig = config;
+		mArrivals = config.getArrivals();
+		mBuilding = new Building(config.getFloorCount(), config.getElevatorCount(), this, config.getDispatcher(),
+		 config.getCarCapacity(), config.getSecondsPerFloor());
+		if (config.getBatchedArrivals() != null) {
+			mArrivalGenerator = config.getBatchedArrivals().newGenerator();
+			scheduleEvent(new ArrivalBatchEvent(0, mBuilding));
+		}
+		else {
+			scheduleEvent(SpawnPassengerEvent.obtain(this, 0, mBuilding));
+		}
+	}
+	
+	/**
+	 * Constructs a headless Simulation in the state read from a snapshot, written by writeSnapshot. The configuration
+	 * must have the snapshot's floor and elevator counts; its cars, dispatcher, arrivals and horizon are used from here
+	 * on, and its seed is ignored in favour of the snapshot's generator state. Metrics start from the snapshot's time.
+	 */
+	public Simulation(SimulationConfig config, SnapshotInput in) {
+		this(new SimulationRandom(config.getSeed()), new CalendarEventQueue());
+		mConfig = config;
+		mArrivals = config.getArrivals();
+		if (config.getBatchedArrivals() != null) {
+			mArrivalGenerator = config.getBatchedArrivals().newGenerator();
+		}
+		int floors = in.readVarint();
+		int elevators = in.readVarint();
+		if (floors != config.getFloorCount() || elevators != config.getElevatorCount()) {
+			throw new IllegalArgumentException("The snapshot has " + floors + " floors and " + elevators
+			 + " elevators, the configuration has " + config.getFloorCount() + " and " + config.getElevatorCount());
+		}
+		mCurrentTime = in.readVarLong();
+		mEventsExecuted = in.readVarLong();
+		mPassengersSpawned = in.readVarint();
+		mPassengersDeparted = in.readVarint();
+		mLastPassengerId = in.readVarint();
+		((SimulationRandom) mRandom).setState(in.readLong(), in.readBoolean(), in.readDouble());
+		
+		mBuilding = new Building(floors, elevators, this, config.getDispatcher(), config.getCarCapacity(),
+		 config.getSecondsPerFloor());
+		// Drop the first IDLE_STATE events the new elevators scheduled; the snapshot has the real ones.
+		mEvents = new CalendarEventQueue();
+		mBuilding.readSnapshot(in);
+		for (int n = in.readVarint(); n > 0; n--) {
+			scheduleEvent(SimulationEvent.readSnapshot(in, this));
+		}
+		mMetrics.restartAt(mCurrentTime);
 	}
 	
 	/**
@@ -35,27 +151,351 @@ public class Simulation {
 	}
 	
 	/**
-	 * Adds the given event to a priority queue sorted on the scheduled time of execution.
+	 * Gets the process that spaces out passenger arrivals, or null if this simulation's arrivals come in batches.
+	 */
+	public ArrivalProcess getArrivals() {
+		return mArrivals;
+	}
+	
+	/**
+	 * Gets the generator of this simulation's batched arrivals, or null if they come one at a time.
+	 */
+	public ArrivalGenerator getArrivalGenerator() {
+		return mArrivalGenerator;
+	}
+	
+	/**
+	 * Adds the given event to the event queue, sorted on the scheduled time of execution. Events scheduled for the
+	 * same time execute in the order they were scheduled. Returns a handle that can cancel the event until it comes up.
 	 */
-	public void scheduleEvent(SimulationEvent ev) {
+	public EventHandle scheduleEvent(SimulationEvent ev) {
+		if (ev.isRecycled()) {
+			throw new IllegalStateException("Cannot schedule a recycled event: " + ev.getClass().getSimpleName());
+		}
 		mEvents.add(ev);
+		return new EventHandle(ev);
+	}
+	
+	/**
+	 * Sets whether executed events are returned to their pools and reused. Only events obtained after the change are
+	 * affected. In DEBUG mode events are recycled but never reused, so scheduling or executing a stale reference
+	 * throws an exception.
+	 */
+	public void setEventRecycling(EventPool.Mode mode) {
+		mElevatorStateEvents.setMode(mode);
+		mPassengerNextDestinationEvents.setMode(mode);
+		mSpawnPassengerEvents.setMode(mode);
+	}
+	
+	/**
+	 * Sets whether passengers who leave the building are reused for new arrivals. Only turn it on if nothing keeps
+	 * passengers after they leave.
+	 */
+	public void setPassengerRecycling(boolean recycling) {
+		mPassengerPool.setRecycling(recycling);
+	}
+	
+	/**
+	 * Gets the pool that new passengers are obtained from.
+	 */
+	public PassengerPool getPassengerPool() {
+		return mPassengerPool;
+	}
+	
+	// Event pools, used by the events' obtain() methods.
+	public EventPool<ElevatorStateEvent> getElevatorStateEvents() {
+		return mElevatorStateEvents;
+	}
+	
+	public EventPool<PassengerNextDestinationEvent> getPassengerNextDestinationEvents() {
+		return mPassengerNextDestinationEvents;
+	}
+	
+	public EventPool<SpawnPassengerEvent> getSpawnPassengerEvents() {
+		return mSpawnPassengerEvents;
+	}
+	
+	/**
+	 * Gets the number of events waiting to be executed.
+	 */
+	public int getPendingEventCount() {
+		return mEvents.size();
+	}
+	
+	/**
+	 * Gets the number of events executed so far.
+	 */
+	public long getEventsExecuted() {
+		return mEventsExecuted;
+	}
+	
+	/**
+	 * Gets the number of cancelled and superseded events dropped from the queue so far, without executing.
+	 */
+	public long getEventsDropped() {
+		return mEventsDropped;
+	}
+	
+	/**
+	 * Gets the tracer that events and passengers write their messages to. By default every category is off.
+	 */
+	public Tracer getTracer() {
+		return mTracer;
+	}
+	
+	public void setTracer(Tracer tracer) {
+		mTracer = tracer;
+	}
+	
+	/**
+	 * Sets whether a moving elevator schedules one MOVING event for each leg of its trip, which only executes on the
+	 * floor where the elevator must next decide to stop, instead of one per floor. On by default. A hall call ahead of
+	 * the elevator moves that event back to the call's floor. Events falling in the same second may run in a
+	 * different order either way, so results can differ between the two through such ties. The floors passed in
+	 * between are not executed, traced or logged, so coalescing is suspended while EVENT tracing is on or an event log
+	 * is attached.
+	 */
+	public void setTravelCoalescing(boolean coalescing) {
+		mTravelCoalescing = coalescing;
+	}
+	
+	/**
+	 * Returns true if a leg of travel starting now should be coalesced into one event.
+	 */
+	public boolean isTravelCoalesced() {
+		return mTravelCoalescing && mEventLog == null && !mTracer.isEnabled(Tracer.Category.EVENT, Tracer.Level.INFO);
+	}
+	
+	/**
+	 * Sets the binary log that every executed event is recorded to, or null to stop recording. The caller closes the
+	 * log when the run is over.
+	 */
+	public void setEventLog(EventLogWriter log) {
+		mEventLog = log;
+	}
+	
+	/**
+	 * Sets the publisher that periodically snapshots this simulation for a TelemetryServer, or null for none. The
+	 * publisher takes its first snapshot at once, so only call this while nothing else is running the simulation.
+	 */
+	public void setTelemetry(TelemetryPublisher telemetry) {
+		mTelemetry = telemetry;
+		if (telemetry != null) {
+			telemetry.publish(this);
+		}
+	}
+	
+	/**
+	 * Gets the trip and elevator timings collected so far. Use the copy in a SimulationResult for final numbers.
+	 */
+	public SimulationMetrics getMetrics() {
+		return mMetrics;
+	}
+	
+	/**
+	 * Gets the building of a headless simulation, or null if the simulation was started with startSimulation.
+	 */
+	public Building getBuilding() {
+		return mBuilding;
+	}
+	
+	/**
+	 * Allocates the id of a new passenger. Ids start at 1 and are unique within this simulation, so simulations on
+	 * different threads never share a counter.
+	 */
+	public int nextPassengerId() {
+		return ++mLastPassengerId;
+	}
+	
+	/**
+	 * Called when a new passenger enters the building.
+	 */
+	public void passengerSpawned() {
+		mPassengersSpawned++;
+	}
+	
+	/**
+	 * Called when a passenger leaves the building through floor 1. The passenger may be recycled, so the caller must not
+	 * use it afterwards.
+	 */
+	public void passengerDeparted(Passenger passenger) {
+		mPassengersDeparted++;
+		if (mDepartureObserver != null) {
+			mDepartureObserver.passengerDeparted(this, passenger);
+		}
+		mPassengerPool.release(passenger);
+	}
+	
+	/**
+	 * Sets the observer told about each passenger that leaves the building, or null for none. Called on the thread
+	 * running the simulation.
+	 */
+	public void setDepartureObserver(DepartureObserver observer) {
+		mDepartureObserver = observer;
+	}
+	
+	/**
+	 * Writes the complete state of a headless simulation: the clock and counters, the random number generator, the
+	 * building with its floors, elevators and passengers, and the pending events in execution order. Metrics, the
+	 * tracer and the event log are not part of it. The simulation must use a SimulationRandom, as every simulation
+	 * constructed from a SimulationConfig does.
+	 */
+	public void writeSnapshot(SnapshotOutput out) {
+		if (mBuilding == null) {
+			throw new IllegalStateException("Only a Simulation constructed from a SimulationConfig can be snapshotted");
+		}
+		if (!(mRandom instanceof SimulationRandom)) {
+			throw new IllegalStateException("Cannot snapshot the state of a " + mRandom.getClass().getName());
+		}
+		SimulationRandom random = (SimulationRandom) mRandom;
+		out.writeVarint(mBuilding.getFloorCount());
+		out.writeVarint(mBuilding.getElevatorCount());
+		out.writeVarLong(mCurrentTime);
+		out.writeVarLong(mEventsExecuted);
+		out.writeVarint(mPassengersSpawned);
+		out.writeVarint(mPassengersDeparted);
+		out.writeVarint(mLastPassengerId);
+		out.writeLong(random.getState());
+		out.writeBoolean(random.hasCachedGaussian());
+		out.writeDouble(random.getCachedGaussian());
+		
+		mBuilding.writeSnapshot(out);
+		
+		List<SimulationEvent> pending = new ArrayList<>(mEvents.size());
+		mEvents.forEach(ev -> {
+			if (!ev.isCancelled()) {
+				pending.add(ev);
+			}
+		});
+		Collections.sort(pending);
+		out.writeVarint(pending.size());
+		for (SimulationEvent ev : pending) {
+			ev.writeSnapshot(out, mCurrentTime);
+		}
+	}
+	
+	/**
+	 * Runs a headless simulation to the horizon given in its configuration, then closes its arrival generator, which
+	 * releases a trace's reader.
+	 */
+	public SimulationResult run() {
+		if (mConfig == null) {
+			throw new IllegalStateException("run() requires a Simulation constructed from a SimulationConfig");
+		}
+		SimulationResult result = run(mConfig.getHorizon());
+		if (mArrivalGenerator != null) {
+			mArrivalGenerator.close();
+		}
+		return result;
+	}
+	
+	/**
+	 * Executes every event scheduled at or before the given time, then advances the clock to that time. Can be called
+	 * repeatedly with increasing times to run a headless simulation in slices. Executed events are traced in the
+	 * EVENT category.
+	 */
+	public SimulationResult run(long until) {
+		advanceTo(until);
+		return new SimulationResult(mConfig, mCurrentTime, mEventsExecuted, mPassengersSpawned, mPassengersDeparted,
+		 mEvents.size(), new SimulationMetrics(mMetrics, mCurrentTime));
+	}
+	
+	/**
+	 * Executes every event scheduled at or before the given time, then advances the clock to that time, like run(until)
+	 * but without building a result.
+	 */
+	public void advanceTo(long until) {
+		if (until < mCurrentTime) {
+			throw new IllegalArgumentException("Cannot run to " + until + "s, the simulation is already at "
+			 + mCurrentTime + "s");
+		}
+		
+		while (!mEvents.isEmpty() && mEvents.peek().getScheduledTime() <= until) {
+			executeNextEvent();
+		}
+		mCurrentTime = until;
+		if (mTelemetry != null) {
+			mTelemetry.clockAdvanced(this);
+		}
+	}
+	
+	/**
+	 * Gets the scheduled time of the next event, or -1 if no events are pending.
+	 */
+	public long getNextEventTime() {
+		SimulationEvent next = mEvents.peek();
+		return next == null ? -1 : next.getScheduledTime();
+	}
+	
+	/**
+	 * Takes the next event from the queue and executes and traces it, advancing the clock to its time. A cancelled
+	 * event is dropped instead, without touching the clock.
+	 */
+	private void executeNextEvent() {
+		SimulationEvent nextEvent = mEvents.poll();
+		// A recycled event still in the queue goes on to executeEvent, which reports it.
+		if (!nextEvent.isRecycled() && nextEvent.isCancelled()) {
+			nextEvent.dequeued();
+			nextEvent.recycle();
+			mEventsDropped++;
+			return;
+		}
+		mCurrentTime = nextEvent.getScheduledTime();
+		nextEvent.dequeued();
+		executeEvent(nextEvent);
+		mTracer.trace(Tracer.Category.EVENT, Tracer.Level.INFO, nextEvent);
+		nextEvent.recycle();
+	}
+	
+	private void executeEvent(SimulationEvent ev) {
+		if (ev.isRecycled()) {
+			throw new IllegalStateException("A recycled event is still in the event queue: "
+			 + ev.getClass().getSimpleName());
+		}
+		ev.execute(this);
+		if (mEventLog != null) {
+			ev.record(mEventLog);
+		}
+		mEventsExecuted++;
+		if (mTelemetry != null) {
+			mTelemetry.eventExecuted(this);
+		}
 	}
 	
 	public void startSimulation(Scanner input) {
+		// Events are printed by a background thread, so printing keeps up with the simulation.
+		mTracer = new Tracer(System.out, Tracer.DEFAULT_CAPACITY, Tracer.Overflow.BLOCK);
+		
+		// Set this boolean to true to draw the building in place on an ANSI terminal, redrawing only the rows that
+		// changed, instead of printing events and the whole building after each slice.
+		boolean renderIncrementally = false;
+		if (!renderIncrementally) {
+			mTracer.enableAll(Tracer.Level.INFO);
+		}
+		
 		System.out.println("Enter number of floors: ");
 		int floors = input.nextInt();
 		System.out.println("Enter number of elevators: ");
 		int elevCount = input.nextInt();
 		Building b = new Building(floors, elevCount, this);
-		SpawnPassengerEvent ev = new SpawnPassengerEvent(0, b);
+		// Kept for getBuilding(), which telemetry and snapshots read the building through.
+		mBuilding = b;
+		SpawnPassengerEvent ev = SpawnPassengerEvent.obtain(this, 0, b);
 		scheduleEvent(ev);
 		
 		long nextSimLength = -1;
 		
 		// Set this boolean to true to make the simulation run at "real time".
 		boolean simulateRealTime = false;
-		// Change the scale below to less than 1 to speed up the "real time".
-		double realTimeScale = 1.0;
+		// Simulated seconds per real second; raise it to speed up the "real time". The scheduler's speed can also be
+		// changed from another thread while it runs.
+		double realTimeSpeed = 1.0;
+		RealTimeScheduler scheduler = simulateRealTime ? new RealTimeScheduler(this, realTimeSpeed) : null;
+		BuildingRenderer renderer = renderIncrementally ? new BuildingRenderer(b, System.out, 30) : null;
+		if (scheduler != null && renderer != null) {
+			// Animate the building as the scheduler thread runs it; the renderer drops frames beyond its rate.
+			scheduler.setStepListener(renderer::render);
+		}
 		
 		// DONE: the simulation currently stops at 200s. Instead, ask the user how long they want to simulate.
 		System.out.println("Enter time in seconds to simulate: ");
@@ -63,40 +503,48 @@ public class Simulation {
 
 		while(nextSimLength != -1) {
 			long nextStopTime = mCurrentTime + nextSimLength;
-			// If the next event in the queue occurs after the requested sim time, then just fast forward to the requested sim time.
-			if (mEvents.peek().getScheduledTime() >= nextStopTime) {
-				mCurrentTime = nextStopTime;
+			if (scheduler != null) {
+				// The scheduler thread runs the events, each at its wall-clock time.
+				scheduler.runTo(nextStopTime);
+				try {
+					scheduler.awaitIdle();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
 			}
-
-			// As long as there are events that happen between "now" and the requested sim time, process those events and
-			// advance the current time along the way.
-			while (!mEvents.isEmpty() && mEvents.peek().getScheduledTime() <= nextStopTime) {
-				SimulationEvent nextEvent = mEvents.poll();
-
-				long diffTime = nextEvent.getScheduledTime() - mCurrentTime;
-				if (simulateRealTime && diffTime > 0) {
-					try {
-						Thread.sleep((long) (realTimeScale * diffTime * 1000));
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
+			else {
+				// If the next event in the queue occurs after the requested sim time, then just fast forward to the requested sim time.
+				if (mEvents.peek().getScheduledTime() >= nextStopTime) {
+					mCurrentTime = nextStopTime;
 				}
 
-				mCurrentTime += diffTime;
-				nextEvent.execute(this);
-				System.out.println(nextEvent);
+				// As long as there are events that happen between "now" and the requested sim time, process those events and
+				// advance the current time along the way.
+				while (!mEvents.isEmpty() && mEvents.peek().getScheduledTime() <= nextStopTime) {
+					executeNextEvent();
+				}
 			}
 
 			// DONE: print the Building after simulating the requested time.
 
-			System.out.println("Building");
-			b.toString();
+			if (renderer != null) {
+				renderer.renderNow();
+			}
+			else if (mTracer.isEnabled(Tracer.Category.BUILDING, Tracer.Level.INFO)) {
+				mTracer.trace(Tracer.Category.BUILDING, Tracer.Level.INFO, "Building\n" + b);
+			}
 
 			//i didnt want to check with an if statement each iteration
 			//if you prefer that way or have a better way we can change it
+			mTracer.flush();
 			System.out.println("Enter time in seconds to simulate: ");
 			nextSimLength = input.nextInt();
 		}
+		if (scheduler != null) {
+			scheduler.close();
+		}
+		mTracer.close();
 		/*
 		 DONE: the simulation stops after one round of simulation. Write a loop that continues to ask the user
 		 how many seconds to simulate, simulates that many seconds, and stops only if they choose -1 seconds.
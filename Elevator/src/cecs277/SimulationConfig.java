@@ -0,0 +1,157 @@
+package cecs277;
+
+import cecs277.arrivals.ArrivalProcess;
+import cecs277.arrivals.BatchedArrivalProcess;
+import cecs277.arrivals.UniformArrivals;
+import cecs277.dispatchers.Dispatcher;
+import cecs277.dispatchers.FirstIdleDispatcher;
+import cecs277.elevators.Elevator;
+
+/**
+ * The parameters of a headless simulation run: the size of the building and its elevators, the random seed, how many
+ * seconds to simulate, how hall calls are dispatched, and how often passengers arrive. Passengers come either one at
+ * a time from an ArrivalProcess or in windows from a BatchedArrivalProcess.
+ */
+public class SimulationConfig {
+	private int mFloorCount;
+	private int mElevatorCount;
+	private long mSeed;
+	private long mHorizon;
+	private Dispatcher mDispatcher;
+	// Exactly one of these is set.
+	private ArrivalProcess mArrivals;
+	private BatchedArrivalProcess mBatchedArrivals;
+	private int mCarCapacity = Elevator.DEFAULT_CAPACITY;
+	private long mSecondsPerFloor = Elevator.DEFAULT_SECONDS_PER_FLOOR;
+
+	public SimulationConfig(int floorCount, int elevatorCount, long seed, long horizon) {
+		this(floorCount, elevatorCount, seed, horizon, new FirstIdleDispatcher());
+	}
+
+	public SimulationConfig(int floorCount, int elevatorCount, long seed, long horizon, Dispatcher dispatcher) {
+		this(floorCount, elevatorCount, seed, horizon, dispatcher, new UniformArrivals(1, 30));
+	}
+
+	public SimulationConfig(int floorCount, int elevatorCount, long seed, long horizon, Dispatcher dispatcher,
+	 ArrivalProcess arrivals) {
+		this(floorCount, elevatorCount, seed, horizon, dispatcher, arrivals, null);
+	}
+
+	public SimulationConfig(int floorCount, int elevatorCount, long seed, long horizon, Dispatcher dispatcher,
+	 BatchedArrivalProcess arrivals) {
+		this(floorCount, elevatorCount, seed, horizon, dispatcher, null, arrivals);
+	}
+
+	private SimulationConfig(int floorCount, int elevatorCount, long seed, long horizon, Dispatcher dispatcher,
+	 ArrivalProcess arrivals, BatchedArrivalProcess batchedArrivals) {
+		if (floorCount < 2) {
+			throw new IllegalArgumentException("A building needs at least 2 floors, got " + floorCount);
+		}
+		if (elevatorCount < 1) {
+			throw new IllegalArgumentException("A building needs at least 1 elevator, got " + elevatorCount);
+		}
+		if (horizon < 0) {
+			throw new IllegalArgumentException("Horizon must not be negative, got " + horizon);
+		}
+		mFloorCount = floorCount;
+		mElevatorCount = elevatorCount;
+		mSeed = seed;
+		mHorizon = horizon;
+		mDispatcher = dispatcher;
+		mArrivals = arrivals;
+		mBatchedArrivals = batchedArrivals;
+	}
+
+	// Simple accessors.
+	public int getFloorCount() {
+		return mFloorCount;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	public long getSeed() {
+		return mSeed;
+	}
+
+	/**
+	 * Gets the simulated time (in seconds) that run() will advance to.
+	 */
+	public long getHorizon() {
+		return mHorizon;
+	}
+
+	public Dispatcher getDispatcher() {
+		return mDispatcher;
+	}
+
+	/**
+	 * Gets the process that spaces out passenger arrivals one at a time, or null if arrivals come in batches.
+	 */
+	public ArrivalProcess getArrivals() {
+		return mArrivals;
+	}
+
+	/**
+	 * Gets the process that generates arrivals in batches, or null if they come one at a time.
+	 */
+	public BatchedArrivalProcess getBatchedArrivals() {
+		return mBatchedArrivals;
+	}
+
+	/**
+	 * Gets how many passengers each elevator holds.
+	 */
+	public int getCarCapacity() {
+		return mCarCapacity;
+	}
+
+	/**
+	 * Gets how many seconds each elevator takes to move one floor.
+	 */
+	public long getSecondsPerFloor() {
+		return mSecondsPerFloor;
+	}
+
+	/**
+	 * Returns a copy of this configuration with a different seed.
+	 */
+	public SimulationConfig withSeed(long seed) {
+		return new SimulationConfig(mFloorCount, mElevatorCount, seed, mHorizon, mDispatcher, mArrivals,
+		 mBatchedArrivals).withCars(mCarCapacity, mSecondsPerFloor);
+	}
+
+	/**
+	 * Returns a copy of this configuration with a different number of elevators.
+	 */
+	public SimulationConfig withElevators(int elevatorCount) {
+		return new SimulationConfig(mFloorCount, elevatorCount, mSeed, mHorizon, mDispatcher, mArrivals,
+		 mBatchedArrivals).withCars(mCarCapacity, mSecondsPerFloor);
+	}
+
+	/**
+	 * Returns a copy of this configuration whose elevators hold the given number of passengers, and move one floor in
+	 * the given number of seconds.
+	 */
+	public SimulationConfig withCars(int capacity, long secondsPerFloor) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("An elevator must hold at least 1 passenger, got " + capacity);
+		}
+		if (secondsPerFloor < 1) {
+			throw new IllegalArgumentException("An elevator needs at least 1 second a floor, got " + secondsPerFloor);
+		}
+		SimulationConfig copy = new SimulationConfig(mFloorCount, mElevatorCount, mSeed, mHorizon, mDispatcher,
+		 mArrivals, mBatchedArrivals);
+		copy.mCarCapacity = capacity;
+		copy.mSecondsPerFloor = secondsPerFloor;
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return mFloorCount + " floors, " + mElevatorCount + " elevators of " + mCarCapacity + " at " + mSecondsPerFloor
+		 + "s a floor, seed " + mSeed + ", horizon " + mHorizon + "s, "
+		 + mDispatcher + " dispatch, " + (mArrivals != null ? mArrivals : mBatchedArrivals) + " arrivals";
+	}
+}
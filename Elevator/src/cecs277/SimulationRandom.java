@@ -0,0 +1,86 @@
+package cecs277;
+
+import java.util.Random;
+
+/**
+ * A Random that produces exactly the same numbers as java.util.Random with the same seed, but whose state can be read
+ * and restored, so a simulation snapshot can continue the same random sequence. java.util.Random keeps its state
+ * private; this class runs the same 48-bit linear congruential generator and the same cached Gaussian itself.
+ *
+ * Unlike java.util.Random it is not thread-safe. A simulation only ever uses its generator from one thread.
+ */
+@SuppressWarnings("serial")
+public class SimulationRandom extends Random {
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	// Not initialized here: Random's constructor calls setSeed before this class's field initializers would run.
+	private long mSeed;
+	private boolean mHaveNextGaussian;
+	private double mNextGaussian;
+
+	public SimulationRandom(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		mSeed = (seed ^ MULTIPLIER) & MASK;
+		mHaveNextGaussian = false;
+	}
+
+	@Override
+	protected int next(int bits) {
+		mSeed = (mSeed * MULTIPLIER + ADDEND) & MASK;
+		return (int) (mSeed >>> (48 - bits));
+	}
+
+	/**
+	 * The polar method, exactly as java.util.Random implements it: each pass makes two values and caches the second.
+	 */
+	@Override
+	public double nextGaussian() {
+		if (mHaveNextGaussian) {
+			mHaveNextGaussian = false;
+			return mNextGaussian;
+		}
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+		double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		mNextGaussian = v2 * multiplier;
+		mHaveNextGaussian = true;
+		return v1 * multiplier;
+	}
+
+	/**
+	 * Gets the generator's internal 48-bit state. Unlike a seed, it is not scrambled again when restored.
+	 */
+	public long getState() {
+		return mSeed;
+	}
+
+	/**
+	 * Returns true if a second Gaussian value is cached for the next call to nextGaussian().
+	 */
+	public boolean hasCachedGaussian() {
+		return mHaveNextGaussian;
+	}
+
+	public double getCachedGaussian() {
+		return mNextGaussian;
+	}
+
+	/**
+	 * Restores a state read with getState(), hasCachedGaussian() and getCachedGaussian().
+	 */
+	public void setState(long state, boolean hasCachedGaussian, double cachedGaussian) {
+		mSeed = state & MASK;
+		mHaveNextGaussian = hasCachedGaussian;
+		mNextGaussian = cachedGaussian;
+	}
+}
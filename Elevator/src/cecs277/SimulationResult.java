@@ -0,0 +1,76 @@
+package cecs277;
+
+import cecs277.metrics.SimulationMetrics;
+
+/**
+ * A summary of a headless simulation run, returned by Simulation.run().
+ */
+public class SimulationResult {
+	private SimulationConfig mConfig;
+	private long mSimulatedTime;
+	private long mEventsExecuted;
+	private int mPassengersSpawned;
+	private int mPassengersDeparted;
+	private int mPendingEvents;
+	private SimulationMetrics mMetrics;
+
+	public SimulationResult(SimulationConfig config, long simulatedTime, long eventsExecuted, int passengersSpawned,
+	 int passengersDeparted, int pendingEvents, SimulationMetrics metrics) {
+		mConfig = config;
+		mSimulatedTime = simulatedTime;
+		mEventsExecuted = eventsExecuted;
+		mPassengersSpawned = passengersSpawned;
+		mPassengersDeparted = passengersDeparted;
+		mPendingEvents = pendingEvents;
+		mMetrics = metrics;
+	}
+
+	/**
+	 * Gets the configuration of the run, or null if the Simulation was not constructed from a SimulationConfig.
+	 */
+	public SimulationConfig getConfig() {
+		return mConfig;
+	}
+
+	/**
+	 * Gets the simulation clock at the end of the run.
+	 */
+	public long getSimulatedTime() {
+		return mSimulatedTime;
+	}
+
+	public long getEventsExecuted() {
+		return mEventsExecuted;
+	}
+
+	public int getPassengersSpawned() {
+		return mPassengersSpawned;
+	}
+
+	/**
+	 * Gets the number of passengers that reached floor 1 for the last time and left the building.
+	 */
+	public int getPassengersDeparted() {
+		return mPassengersDeparted;
+	}
+
+	/**
+	 * Gets the number of events still scheduled after the end of the run.
+	 */
+	public int getPendingEvents() {
+		return mPendingEvents;
+	}
+
+	/**
+	 * Gets the trip and elevator timings of the run, up to the end of the run.
+	 */
+	public SimulationMetrics getMetrics() {
+		return mMetrics;
+	}
+
+	@Override
+	public String toString() {
+		return (mConfig == null ? "" : mConfig + ": ") + mSimulatedTime + "s simulated, " + mEventsExecuted
+		 + " events, " + mPassengersSpawned + " passengers spawned, " + mPassengersDeparted + " departed";
+	}
+}
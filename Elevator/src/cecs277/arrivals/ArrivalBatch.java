@@ -0,0 +1,61 @@
+package cecs277.arrivals;
+
+import java.util.Arrays;
+
+/**
+ * A list of generated arrivals, in time order. Each is a group of passengers who appear on one floor at the same
+ * second, all heading to the same floor. The arrays grow as needed and are reused after clear().
+ */
+public class ArrivalBatch {
+	private long[] mTimes = new long[64];
+	private int[] mOrigins = new int[64];
+	private int[] mDestinations = new int[64];
+	private int[] mGroupSizes = new int[64];
+	private int mSize;
+	
+	public void add(long time, int origin, int destination, int groupSize) {
+		if (mSize > 0 && time < mTimes[mSize - 1]) {
+			throw new IllegalArgumentException("Arrival at " + time + "s is before the previous one at "
+			 + mTimes[mSize - 1] + "s");
+		}
+		if (groupSize < 1) {
+			throw new IllegalArgumentException("A group needs at least one passenger, got " + groupSize);
+		}
+		if (mSize == mTimes.length) {
+			int capacity = mSize * 2;
+			mTimes = Arrays.copyOf(mTimes, capacity);
+			mOrigins = Arrays.copyOf(mOrigins, capacity);
+			mDestinations = Arrays.copyOf(mDestinations, capacity);
+			mGroupSizes = Arrays.copyOf(mGroupSizes, capacity);
+		}
+		mTimes[mSize] = time;
+		mOrigins[mSize] = origin;
+		mDestinations[mSize] = destination;
+		mGroupSizes[mSize] = groupSize;
+		mSize++;
+	}
+	
+	public void clear() {
+		mSize = 0;
+	}
+	
+	public int size() {
+		return mSize;
+	}
+	
+	public long getTime(int arrival) {
+		return mTimes[arrival];
+	}
+	
+	public int getOrigin(int arrival) {
+		return mOrigins[arrival];
+	}
+	
+	public int getDestination(int arrival) {
+		return mDestinations[arrival];
+	}
+	
+	public int getGroupSize(int arrival) {
+		return mGroupSizes[arrival];
+	}
+}
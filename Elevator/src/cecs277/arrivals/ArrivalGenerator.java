@@ -0,0 +1,29 @@
+package cecs277.arrivals;
+
+import java.util.Random;
+
+/**
+ * Generates the arrivals of one simulation, a window at a time, for its ArrivalBatchEvent. A generator is obtained
+ * from the simulation's BatchedArrivalProcess when the simulation is constructed, and draws only from the Random it is
+ * given.
+ */
+public interface ArrivalGenerator {
+	/**
+	 * Appends the arrivals from the given time (inclusive) to the given time (exclusive), in time order, to the batch.
+	 * The building has the given number of floors. Windows are asked for in time order.
+	 */
+	void generate(Random random, long from, long to, int floorCount, ArrivalBatch batch);
+	
+	/**
+	 * Gets the number of seconds of arrivals to generate at a time.
+	 */
+	default long getBatchLength() {
+		return 300;
+	}
+	
+	/**
+	 * Releases anything the generator holds open. Called by Simulation.run() once the simulation reaches its horizon.
+	 */
+	default void close() {
+	}
+}
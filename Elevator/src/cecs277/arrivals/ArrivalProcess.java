@@ -0,0 +1,17 @@
+package cecs277.arrivals;
+
+import java.util.Random;
+
+/**
+ * Decides how long after one passenger enters the building the next one arrives. The SpawnPassengerEvent asks its
+ * simulation's ArrivalProcess for each interval.
+ *
+ * Arrival processes keep no state of their own, and draw only from the Random they are given. One instance can be
+ * shared by any number of simulations.
+ */
+public interface ArrivalProcess {
+	/**
+	 * Gets the number of seconds (at least 1) from a spawn at the given time to the next one.
+	 */
+	long nextInterval(Random random, long now);
+}
@@ -0,0 +1,36 @@
+package cecs277.arrivals;
+
+import java.io.IOException;
+
+/**
+ * Streams recorded arrivals, oldest first: call next() to move to each in turn, then read it with the getters. Errors
+ * reading the underlying file are thrown as UncheckedIOException, and malformed records as IllegalArgumentException.
+ */
+public interface ArrivalRecordReader extends AutoCloseable {
+	/**
+	 * Moves to the next arrival. Returns false at the end of the records.
+	 */
+	boolean next();
+	
+	/**
+	 * Gets the second the current arrival happened at.
+	 */
+	long getTime();
+	
+	int getOrigin();
+	
+	int getDestination();
+	
+	/**
+	 * Gets the number of passengers who arrived together, at least 1.
+	 */
+	int getGroupSize();
+	
+	/**
+	 * Describes where the current arrival was read from, for error messages.
+	 */
+	String getLocation();
+	
+	@Override
+	void close() throws IOException;
+}
@@ -0,0 +1,18 @@
+package cecs277.arrivals;
+
+/**
+ * Arrivals that are generated a whole stretch at a time, each with its own origin and destination floors and group
+ * size. A simulation with a batched arrival process spawns passengers from an ArrivalBatchEvent, which generates one
+ * window of arrivals at a time and executes once for each second that has arrivals, instead of scheduling one
+ * SpawnPassengerEvent per passenger.
+ *
+ * Like an ArrivalProcess, a batched process keeps no state of its own, and one instance can be shared by any number of
+ * simulations. Each simulation asks it for a generator of its own, which may keep state from one window to the next.
+ */
+public interface BatchedArrivalProcess {
+	/**
+	 * Starts generating the arrivals of one simulation. A process that needs no state between windows can be its own
+	 * generator.
+	 */
+	ArrivalGenerator newGenerator();
+}
@@ -0,0 +1,207 @@
+package cecs277.arrivals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams arrivals from a CSV file with one arrival per line: time,origin,destination and optionally a group size,
+ * which defaults to 1. Times are in seconds, and a fractional part is dropped. Blank lines and lines starting with #
+ * are skipped, as is a header on the first line.
+ *
+ * The file is read through a FileChannel into one fixed buffer, and the lines are parsed straight from its bytes, so
+ * a file of any size is read in constant memory and without allocating per line. A line must fit in the buffer.
+ */
+public class CsvArrivalReader implements ArrivalRecordReader {
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	private static final int MAX_FIELDS = 4;
+	
+	private final Path mPath;
+	private final FileChannel mChannel;
+	// Holds the unread bytes between its position and limit.
+	private final ByteBuffer mBuffer;
+	private final long[] mFields = new long[MAX_FIELDS];
+	private boolean mEndOfFile;
+	private long mLine;
+	
+	private long mTime;
+	private int mOrigin;
+	private int mDestination;
+	private int mGroupSize;
+	
+	public CsvArrivalReader(Path path) throws IOException {
+		this(path, DEFAULT_BUFFER_SIZE);
+	}
+	
+	public CsvArrivalReader(Path path, int bufferSize) throws IOException {
+		mPath = path;
+		mChannel = FileChannel.open(path, StandardOpenOption.READ);
+		mBuffer = ByteBuffer.allocateDirect(bufferSize);
+		mBuffer.flip();
+	}
+	
+	@Override
+	public boolean next() {
+		try {
+			while (true) {
+				int end = indexOfNewline();
+				if (end < 0) {
+					if (fill()) {
+						continue;
+					}
+					if (!mBuffer.hasRemaining()) {
+						return false;
+					}
+					// The last line has no newline.
+					end = mBuffer.limit();
+				}
+				mLine++;
+				int start = mBuffer.position();
+				mBuffer.position(Math.min(end + 1, mBuffer.limit()));
+				if (parseLine(start, end)) {
+					return true;
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private int indexOfNewline() {
+		for (int i = mBuffer.position(), limit = mBuffer.limit(); i < limit; i++) {
+			if (mBuffer.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Reads more of the file after the unread bytes. Returns false at the end of the file.
+	 */
+	private boolean fill() throws IOException {
+		if (mEndOfFile) {
+			return false;
+		}
+		if (mBuffer.remaining() == mBuffer.capacity()) {
+			throw new IOException(mPath + ":" + (mLine + 1) + ": line is longer than " + mBuffer.capacity()
+			 + " bytes");
+		}
+		mBuffer.compact();
+		int read = mChannel.read(mBuffer);
+		mBuffer.flip();
+		if (read < 0) {
+			mEndOfFile = true;
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Parses the line in [start, end) of the buffer. Returns false if it has no arrival.
+	 */
+	private boolean parseLine(int start, int end) {
+		while (end > start && isSpace(mBuffer.get(end - 1))) {
+			end--;
+		}
+		while (start < end && isSpace(mBuffer.get(start))) {
+			start++;
+		}
+		if (start == end || mBuffer.get(start) == '#') {
+			return false;
+		}
+		
+		int fields = 0;
+		int i = start;
+		while (true) {
+			if (fields == MAX_FIELDS) {
+				throw malformed("expected at most " + MAX_FIELDS + " fields");
+			}
+			while (i < end && mBuffer.get(i) == ' ') {
+				i++;
+			}
+			long value = 0;
+			int digits = 0;
+			for (byte b; i < end && (b = mBuffer.get(i)) >= '0' && b <= '9'; i++, digits++) {
+				if (value > (Long.MAX_VALUE - 9) / 10) {
+					throw malformed("number too large in field " + (fields + 1));
+				}
+				value = value * 10 + (b - '0');
+			}
+			if (fields == 0 && i < end && mBuffer.get(i) == '.') {
+				for (i++; i < end && mBuffer.get(i) >= '0' && mBuffer.get(i) <= '9'; i++) {
+				}
+			}
+			while (i < end && mBuffer.get(i) == ' ') {
+				i++;
+			}
+			if (digits == 0 || (i < end && mBuffer.get(i) != ',')) {
+				if (mLine == 1) {
+					// A header.
+					return false;
+				}
+				throw malformed("field " + (fields + 1) + " is not a whole number");
+			}
+			mFields[fields++] = value;
+			if (i == end) {
+				break;
+			}
+			i++;
+		}
+		if (fields < 3) {
+			throw malformed("expected time,origin,destination[,groupSize]");
+		}
+		
+		if (mFields[1] > Integer.MAX_VALUE || mFields[2] > Integer.MAX_VALUE
+		 || (fields > 3 && (mFields[3] < 1 || mFields[3] > Integer.MAX_VALUE))) {
+			throw malformed("floor or group size out of range");
+		}
+		mTime = mFields[0];
+		mOrigin = (int) mFields[1];
+		mDestination = (int) mFields[2];
+		mGroupSize = fields > 3 ? (int) mFields[3] : 1;
+		return true;
+	}
+	
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+	
+	private IllegalArgumentException malformed(String message) {
+		return new IllegalArgumentException(getLocation() + ": " + message);
+	}
+	
+	@Override
+	public long getTime() {
+		return mTime;
+	}
+	
+	@Override
+	public int getOrigin() {
+		return mOrigin;
+	}
+	
+	@Override
+	public int getDestination() {
+		return mDestination;
+	}
+	
+	@Override
+	public int getGroupSize() {
+		return mGroupSize;
+	}
+	
+	@Override
+	public String getLocation() {
+		return mPath + ":" + mLine;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+}
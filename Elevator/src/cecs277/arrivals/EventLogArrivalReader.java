@@ -0,0 +1,68 @@
+package cecs277.arrivals;
+
+import cecs277.trace.EventLogReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Streams the passengers spawned in a binary event log, so a recorded run's arrivals can be replayed against another
+ * building or dispatcher. Each spawned passenger is one arrival of one passenger, on the floor they were spawned on and
+ * heading to their first destination; a worker's later visits are not in the log.
+ */
+public class EventLogArrivalReader implements ArrivalRecordReader {
+	private final Path mPath;
+	private final EventLogReader mReader;
+	
+	public EventLogArrivalReader(Path path) throws IOException {
+		mPath = path;
+		mReader = new EventLogReader(path);
+	}
+	
+	/**
+	 * Gets the number of floors of the building the log was recorded in.
+	 */
+	public int getFloorCount() {
+		return mReader.getFloorCount();
+	}
+	
+	@Override
+	public boolean next() {
+		while (mReader.next()) {
+			if (mReader.getType() == EventLogReader.RecordType.PASSENGER_SPAWNED) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public long getTime() {
+		return mReader.getTime();
+	}
+	
+	@Override
+	public int getOrigin() {
+		return mReader.getFloor();
+	}
+	
+	@Override
+	public int getDestination() {
+		return mReader.getDestination();
+	}
+	
+	@Override
+	public int getGroupSize() {
+		return 1;
+	}
+	
+	@Override
+	public String getLocation() {
+		return mPath + " record " + mReader.getRecordCount();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		mReader.close();
+	}
+}
@@ -0,0 +1,98 @@
+package cecs277.arrivals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The relative frequency of each trip between two floors of a building. A trip is drawn with a binary search over the
+ * cumulative weights of the trips that can happen, and comes back as one int; originOf and destinationOf take it
+ * apart.
+ */
+public class OriginDestinationMatrix {
+	private final int mFloorCount;
+	// The trips with a positive weight, as (origin - 1) * floors + destination - 1, and their cumulative weights.
+	private final int[] mTrips;
+	private final double[] mCumulative;
+	
+	/**
+	 * Constructs a matrix from weights[origin - 1][destination - 1], which must be square, not negative, and not all
+	 * zero. Trips from a floor to itself are ignored.
+	 */
+	public OriginDestinationMatrix(double[][] weights) {
+		mFloorCount = weights.length;
+		if (mFloorCount < 2) {
+			throw new IllegalArgumentException("Trips need at least 2 floors, got " + mFloorCount);
+		}
+		int[] trips = new int[mFloorCount * mFloorCount];
+		double[] cumulative = new double[trips.length];
+		int n = 0;
+		double total = 0;
+		for (int o = 0; o < mFloorCount; o++) {
+			if (weights[o].length != mFloorCount) {
+				throw new IllegalArgumentException("Expected " + mFloorCount + " weights from floor " + (o + 1)
+				 + ", got " + weights[o].length);
+			}
+			for (int d = 0; d < mFloorCount; d++) {
+				double w = weights[o][d];
+				if (!(w >= 0) || Double.isInfinite(w)) {
+					throw new IllegalArgumentException("The weight of floor " + (o + 1) + " to " + (d + 1)
+					 + " must be finite and not negative, got " + w);
+				}
+				if (o != d && w > 0) {
+					total += w;
+					trips[n] = o * mFloorCount + d;
+					cumulative[n] = total;
+					n++;
+				}
+			}
+		}
+		if (n == 0) {
+			throw new IllegalArgumentException("At least one trip must have a positive weight");
+		}
+		mTrips = Arrays.copyOf(trips, n);
+		mCumulative = Arrays.copyOf(cumulative, n);
+	}
+	
+	/**
+	 * Constructs the usual mix of the three kinds of traffic, in the given proportions: incoming trips from the lobby
+	 * to every other floor, outgoing trips from every other floor to the lobby, and interfloor trips between two other
+	 * floors, each kind spread evenly over its trips.
+	 */
+	public static OriginDestinationMatrix mix(int floors, double incoming, double outgoing, double interfloor) {
+		double[][] weights = new double[floors][floors];
+		int upper = floors - 1;
+		for (int f = 1; f < floors; f++) {
+			weights[0][f] = incoming / upper;
+			weights[f][0] = outgoing / upper;
+			for (int g = 1; g < floors; g++) {
+				if (g != f) {
+					weights[f][g] = interfloor / (upper * (upper - 1));
+				}
+			}
+		}
+		return new OriginDestinationMatrix(weights);
+	}
+	
+	public int getFloorCount() {
+		return mFloorCount;
+	}
+	
+	/**
+	 * Draws a trip at random, by weight.
+	 */
+	public int nextTrip(Random random) {
+		double target = random.nextDouble() * mCumulative[mCumulative.length - 1];
+		int i = Arrays.binarySearch(mCumulative, target);
+		// Not found gives -(insertion point) - 1: the first trip whose cumulative weight is above the target.
+		i = i < 0 ? -i - 1 : i + 1;
+		return mTrips[Math.min(i, mTrips.length - 1)];
+	}
+	
+	public int originOf(int trip) {
+		return trip / mFloorCount + 1;
+	}
+	
+	public int destinationOf(int trip) {
+		return trip % mFloorCount + 1;
+	}
+}
@@ -0,0 +1,33 @@
+package cecs277.arrivals;
+
+import java.util.Random;
+
+/**
+ * Arrivals at a constant average rate, independent of each other: the intervals are exponentially distributed, rounded
+ * up to whole seconds.
+ */
+public class PoissonArrivals implements ArrivalProcess {
+	private double mMeanInterval;
+
+	/**
+	 * Constructs a process with the given mean number of seconds between arrivals.
+	 */
+	public PoissonArrivals(double meanInterval) {
+		if (!(meanInterval > 0)) {
+			throw new IllegalArgumentException("Mean interval must be positive, got " + meanInterval);
+		}
+		mMeanInterval = meanInterval;
+	}
+
+	@Override
+	public long nextInterval(Random random, long now) {
+		// 1 - nextDouble() is in (0, 1], so the log is finite.
+		double interval = -Math.log(1 - random.nextDouble()) * mMeanInterval;
+		return Math.max(1, (long) Math.ceil(interval));
+	}
+
+	@Override
+	public String toString() {
+		return "poisson mean " + mMeanInterval + "s";
+	}
+}
@@ -0,0 +1,95 @@
+package cecs277.arrivals;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.dispatchers.FirstIdleDispatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Replays recorded arrivals, such as a building's call logs, instead of generating them. A TraceArrivals only knows how
+ * to open the trace: each simulation that uses it opens a reader of its own and replays it in a TraceReplay, so one
+ * instance can be shared by parallel replications, sweeps and fleet searches like any other arrival process.
+ */
+public class TraceArrivals implements BatchedArrivalProcess {
+	public static final long DEFAULT_READ_AHEAD = 60;
+	
+	/**
+	 * Opens a new reader of a trace, positioned before its first record.
+	 */
+	public interface Source {
+		ArrivalRecordReader open() throws IOException;
+	}
+	
+	private final Source mSource;
+	private final String mName;
+	private final long mReadAhead;
+	
+	/**
+	 * Replays the records of readers opened from the given source, reading ahead the given number of seconds of
+	 * arrivals at a time.
+	 */
+	public TraceArrivals(Source source, String name, long readAhead) {
+		if (readAhead < 1) {
+			throw new IllegalArgumentException("Read-ahead must be at least 1s, got " + readAhead);
+		}
+		mSource = source;
+		mName = name;
+		mReadAhead = readAhead;
+	}
+	
+	/**
+	 * Replays a CSV trace of time,origin,destination[,groupSize] lines; see CsvArrivalReader.
+	 */
+	public static TraceArrivals csv(Path path) {
+		return new TraceArrivals(() -> new CsvArrivalReader(path), "trace " + path.getFileName(), DEFAULT_READ_AHEAD);
+	}
+	
+	/**
+	 * Replays the passengers spawned in a binary event log; see EventLogArrivalReader.
+	 */
+	public static TraceArrivals eventLog(Path path) {
+		return new TraceArrivals(() -> new EventLogArrivalReader(path), "trace " + path.getFileName(),
+		 DEFAULT_READ_AHEAD);
+	}
+	
+	/**
+	 * Opens the trace for one simulation. An error opening it is thrown as an UncheckedIOException.
+	 */
+	@Override
+	public TraceReplay newGenerator() {
+		try {
+			return new TraceReplay(mSource.open(), mReadAhead);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return mName;
+	}
+	
+	/**
+	 * Replays a CSV or event log trace into a headless building and prints the result.
+	 * Arguments: trace.csv|trace.log floors elevators horizon
+	 */
+	public static void main(String[] args) {
+		if (args.length < 4) {
+			System.out.println("Usage: TraceArrivals trace.csv|trace.log floors elevators horizon");
+			return;
+		}
+		Path path = Path.of(args[0]);
+		TraceArrivals trace = args[0].endsWith(".csv") ? csv(path) : eventLog(path);
+		SimulationConfig config = new SimulationConfig(Integer.parseInt(args[1]), Integer.parseInt(args[2]), 277,
+		 Long.parseLong(args[3]), new FirstIdleDispatcher(), trace);
+		long start = System.nanoTime();
+		Simulation sim = new Simulation(config);
+		System.out.println(sim.run());
+		System.out.printf("Replayed %d arrivals in %.1fs%n", ((TraceReplay) sim.getArrivalGenerator())
+		 .getReplayedCount(), (System.nanoTime() - start) / 1e9);
+	}
+}
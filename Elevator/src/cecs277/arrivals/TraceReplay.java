@@ -0,0 +1,130 @@
+package cecs277.arrivals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * One simulation's replay of a trace, reading its own copy of the records as the simulation reaches them. Each batch
+ * reads ahead only to the end of its window, so a trace of any length replays in the memory of one window's arrivals.
+ * Records must be in time order.
+ *
+ * A replay for a simulation restored from a snapshot starts from the beginning of the trace: records before the first
+ * window it is asked for are skipped. The reader is closed at the end of the records, or when the simulation closes the
+ * replay.
+ */
+public class TraceReplay implements ArrivalGenerator, AutoCloseable {
+	private final ArrivalRecordReader mReader;
+	private final long mReadAhead;
+	// True if the reader is on a record that belongs to a later window.
+	private boolean mHeld;
+	private boolean mEnded;
+	private boolean mClosed;
+	private long mGeneratedTo = Long.MIN_VALUE;
+	private long mLastTime = Long.MIN_VALUE;
+	private long mReplayed;
+	private long mSkipped;
+	
+	/**
+	 * Replays the given reader's records, reading ahead the given number of seconds of arrivals at a time.
+	 */
+	public TraceReplay(ArrivalRecordReader reader, long readAhead) {
+		if (readAhead < 1) {
+			throw new IllegalArgumentException("Read-ahead must be at least 1s, got " + readAhead);
+		}
+		mReader = reader;
+		mReadAhead = readAhead;
+	}
+	
+	@Override
+	public long getBatchLength() {
+		return mReadAhead;
+	}
+	
+	@Override
+	public void generate(Random random, long from, long to, int floorCount, ArrivalBatch batch) {
+		if (from < mGeneratedTo) {
+			throw new IllegalStateException("The trace has already been replayed to " + mGeneratedTo + "s; it cannot "
+			 + "go back to " + from + "s");
+		}
+		if (mClosed && !mEnded) {
+			throw new IllegalStateException("The trace was closed at " + mGeneratedTo + "s, before its end");
+		}
+		mGeneratedTo = to;
+		while (mHeld || (!mEnded && advance())) {
+			long time = mReader.getTime();
+			if (time >= to) {
+				mHeld = true;
+				return;
+			}
+			mHeld = false;
+			if (time < from) {
+				mSkipped++;
+				continue;
+			}
+			int origin = mReader.getOrigin();
+			int destination = mReader.getDestination();
+			if (origin < 1 || origin > floorCount || destination < 1 || destination > floorCount
+			 || origin == destination) {
+				throw new IllegalArgumentException(mReader.getLocation() + ": cannot travel from floor " + origin
+				 + " to " + destination + " in a building of " + floorCount + " floors");
+			}
+			batch.add(time, origin, destination, mReader.getGroupSize());
+			mReplayed++;
+		}
+	}
+	
+	// Moves the reader to its next record, checking the records are in order. Closes the reader after the last.
+	private boolean advance() {
+		if (!mReader.next()) {
+			mEnded = true;
+			close();
+			return false;
+		}
+		long time = mReader.getTime();
+		if (time < mLastTime) {
+			throw new IllegalArgumentException(mReader.getLocation() + ": arrival at " + time + "s is before the "
+			 + "previous one at " + mLastTime + "s");
+		}
+		mLastTime = time;
+		return true;
+	}
+	
+	/**
+	 * Gets the number of records replayed so far.
+	 */
+	public long getReplayedCount() {
+		return mReplayed;
+	}
+	
+	/**
+	 * Gets the number of records skipped because they were before the first window the simulation asked for.
+	 */
+	public long getSkippedCount() {
+		return mSkipped;
+	}
+	
+	/**
+	 * Returns true once every record has been read.
+	 */
+	public boolean isEnded() {
+		return mEnded && !mHeld;
+	}
+	
+	/**
+	 * Closes the reader. A closed replay cannot generate any more arrivals, unless it had already read every record.
+	 */
+	@Override
+	public void close() {
+		if (mClosed) {
+			return;
+		}
+		mClosed = true;
+		try {
+			mReader.close();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package cecs277.arrivals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Arrivals whose rate and trips follow the time of day: a non-homogeneous Poisson process. The day is divided into
+ * periods, each starting at a time of day with an arrival rate and a matrix of trips. The rate changes linearly from
+ * one period's rate to the next one's, and wraps around from the last period to the first; each period's trips are
+ * used until the next period starts. Simulation time 0 is midnight, and every day repeats the profile.
+ *
+ * Passengers arrive in groups, all travelling together, whose sizes are drawn from given weights; the rate counts
+ * passengers, not groups. Arrivals are generated by thinning: candidates come at the peak rate, and each is kept with
+ * the probability of the rate at its time over the peak.
+ *
+ * A profile needs no state between windows, so every simulation shares it as its own generator.
+ */
+public class TrafficProfile implements BatchedArrivalProcess, ArrivalGenerator {
+	public static final long DAY = 86_400;
+	
+	private final String mName;
+	// Start times, in seconds of the day, and rates, in passengers per hour, of the periods.
+	private final long[] mStarts;
+	private final double[] mRates;
+	private final OriginDestinationMatrix[] mTrips;
+	private final double[] mGroupCumulative;
+	private final double mMeanGroupSize;
+	private final double mPeakRate;
+	
+	/**
+	 * One period of a profile.
+	 */
+	public static class Period {
+		private final long mStart;
+		private final double mPassengersPerHour;
+		private final OriginDestinationMatrix mTrips;
+		
+		/**
+		 * Constructs a period that starts at the given second of the day, with the given rate at its start, and with
+		 * the given trips throughout.
+		 */
+		public Period(long start, double passengersPerHour, OriginDestinationMatrix trips) {
+			if (start < 0 || start >= DAY) {
+				throw new IllegalArgumentException("A period must start within the day, got " + start + "s");
+			}
+			if (!(passengersPerHour >= 0) || Double.isInfinite(passengersPerHour)) {
+				throw new IllegalArgumentException("The rate must be finite and not negative, got "
+				 + passengersPerHour);
+			}
+			mStart = start;
+			mPassengersPerHour = passengersPerHour;
+			mTrips = trips;
+		}
+	}
+	
+	/**
+	 * Constructs a profile from periods in order of their start times, the first starting at midnight.
+	 * groupSizeWeights[k] is the relative frequency of groups of k + 1 passengers.
+	 */
+	public TrafficProfile(String name, List<Period> periods, double[] groupSizeWeights) {
+		int n = periods.size();
+		if (n == 0 || periods.get(0).mStart != 0) {
+			throw new IllegalArgumentException("The first period must start at midnight");
+		}
+		mName = name;
+		mStarts = new long[n];
+		mRates = new double[n];
+		mTrips = new OriginDestinationMatrix[n];
+		double peak = 0;
+		for (int i = 0; i < n; i++) {
+			Period p = periods.get(i);
+			if (i > 0 && p.mStart <= mStarts[i - 1]) {
+				throw new IllegalArgumentException("Periods must start in order, but " + p.mStart + "s follows "
+				 + mStarts[i - 1] + "s");
+			}
+			if (p.mTrips.getFloorCount() != periods.get(0).mTrips.getFloorCount()) {
+				throw new IllegalArgumentException("Every period's trips must be for the same number of floors");
+			}
+			mStarts[i] = p.mStart;
+			mRates[i] = p.mPassengersPerHour;
+			mTrips[i] = p.mTrips;
+			peak = Math.max(peak, p.mPassengersPerHour);
+		}
+		if (!(peak > 0)) {
+			throw new IllegalArgumentException("At least one period needs a positive rate");
+		}
+		mPeakRate = peak;
+		
+		if (groupSizeWeights.length == 0) {
+			throw new IllegalArgumentException("Need at least one group size weight");
+		}
+		mGroupCumulative = new double[groupSizeWeights.length];
+		double total = 0, mean = 0;
+		for (int k = 0; k < groupSizeWeights.length; k++) {
+			if (!(groupSizeWeights[k] >= 0)) {
+				throw new IllegalArgumentException("Group size weights must not be negative, got "
+				 + groupSizeWeights[k]);
+			}
+			total += groupSizeWeights[k];
+			mean += groupSizeWeights[k] * (k + 1);
+			mGroupCumulative[k] = total;
+		}
+		if (!(total > 0)) {
+			throw new IllegalArgumentException("At least one group size needs a positive weight");
+		}
+		mMeanGroupSize = mean / total;
+	}
+	
+	/**
+	 * Constructs the traffic of an office building with the given number of floors, whose busiest hours bring the
+	 * given number of passengers per hour: an up-peak from 8:00 to 9:30, two-way traffic over lunch, a down-peak from
+	 * 17:00 to 18:30, and interfloor traffic through the day. Most passengers come alone, some in groups of up to 4.
+	 */
+	public static TrafficProfile office(int floors, double peakPassengersPerHour) {
+		OriginDestinationMatrix night = OriginDestinationMatrix.mix(floors, 0.3, 0.5, 0.2);
+		OriginDestinationMatrix upPeak = OriginDestinationMatrix.mix(floors, 0.85, 0.05, 0.10);
+		OriginDestinationMatrix daytime = OriginDestinationMatrix.mix(floors, 0.35, 0.25, 0.40);
+		OriginDestinationMatrix lunch = OriginDestinationMatrix.mix(floors, 0.45, 0.45, 0.10);
+		OriginDestinationMatrix downPeak = OriginDestinationMatrix.mix(floors, 0.05, 0.85, 0.10);
+		double peak = peakPassengersPerHour;
+		List<Period> periods = new ArrayList<>();
+		periods.add(new Period(hours(0), 0.01 * peak, night));
+		periods.add(new Period(hours(6.5), 0.05 * peak, upPeak));
+		periods.add(new Period(hours(8), peak, upPeak));
+		periods.add(new Period(hours(9.5), 0.25 * peak, daytime));
+		periods.add(new Period(hours(11.75), 0.3 * peak, lunch));
+		periods.add(new Period(hours(12.5), 0.7 * peak, lunch));
+		periods.add(new Period(hours(13.5), 0.25 * peak, daytime));
+		periods.add(new Period(hours(16.5), 0.3 * peak, downPeak));
+		periods.add(new Period(hours(17), peak, downPeak));
+		periods.add(new Period(hours(18.5), 0.1 * peak, night));
+		periods.add(new Period(hours(20), 0.01 * peak, night));
+		return new TrafficProfile("office peak " + peakPassengersPerHour + "/h", periods,
+		 new double[] {0.75, 0.17, 0.06, 0.02});
+	}
+	
+	private static long hours(double hours) {
+		return (long) (hours * 3600);
+	}
+	
+	/**
+	 * Gets the arrival rate, in passengers per hour, at the given simulation time.
+	 */
+	public double getRate(long time) {
+		return rateAt(time);
+	}
+	
+	public double getPeakRate() {
+		return mPeakRate;
+	}
+	
+	public double getMeanGroupSize() {
+		return mMeanGroupSize;
+	}
+	
+	public int getFloorCount() {
+		return mTrips[0].getFloorCount();
+	}
+	
+	@Override
+	public ArrivalGenerator newGenerator() {
+		return this;
+	}
+	
+	@Override
+	public void generate(Random random, long from, long to, int floorCount, ArrivalBatch batch) {
+		if (floorCount != getFloorCount()) {
+			throw new IllegalArgumentException("The profile is for " + getFloorCount() + " floors, the building has "
+			 + floorCount);
+		}
+		// Groups arrive at the passenger rate over the mean group size. Arrivals are memoryless, so a window can
+		// start afresh where the last one ended.
+		double meanGap = 3600 * mMeanGroupSize / mPeakRate;
+		double t = from;
+		while (true) {
+			t += exponential(random, meanGap);
+			if (t >= to) {
+				return;
+			}
+			if (random.nextDouble() * mPeakRate >= rateAt(t)) {
+				continue;
+			}
+			OriginDestinationMatrix trips = mTrips[periodAt(t)];
+			int trip = trips.nextTrip(random);
+			batch.add((long) t, trips.originOf(trip), trips.destinationOf(trip), nextGroupSize(random));
+		}
+	}
+	
+	private static double exponential(Random random, double mean) {
+		// 1 - nextDouble() is in (0, 1], so the log is finite.
+		return -Math.log(1 - random.nextDouble()) * mean;
+	}
+	
+	private int nextGroupSize(Random random) {
+		if (mGroupCumulative.length == 1) {
+			return 1;
+		}
+		double target = random.nextDouble() * mGroupCumulative[mGroupCumulative.length - 1];
+		int k = 0;
+		while (k < mGroupCumulative.length - 1 && target >= mGroupCumulative[k]) {
+			k++;
+		}
+		return k + 1;
+	}
+	
+	// The period that the given time of any day falls in.
+	private int periodAt(double time) {
+		double second = time % DAY;
+		int i = Arrays.binarySearch(mStarts, (long) second);
+		return i >= 0 ? i : -i - 2;
+	}
+	
+	private double rateAt(double time) {
+		double second = time % DAY;
+		int i = periodAt(second);
+		long start = mStarts[i];
+		long end = i + 1 < mStarts.length ? mStarts[i + 1] : DAY;
+		double next = mRates[(i + 1) % mRates.length];
+		return mRates[i] + (next - mRates[i]) * (second - start) / (end - start);
+	}
+	
+	@Override
+	public String toString() {
+		return mName;
+	}
+}
@@ -0,0 +1,29 @@
+package cecs277.arrivals;
+
+import java.util.Random;
+
+/**
+ * Spaces arrivals by a whole number of seconds drawn uniformly from a range. The original simulation used 1 to 30.
+ */
+public class UniformArrivals implements ArrivalProcess {
+	private int mMinInterval;
+	private int mMaxInterval;
+
+	public UniformArrivals(int minInterval, int maxInterval) {
+		if (minInterval < 1 || maxInterval < minInterval) {
+			throw new IllegalArgumentException("Need 1 <= min <= max, got " + minInterval + " to " + maxInterval);
+		}
+		mMinInterval = minInterval;
+		mMaxInterval = maxInterval;
+	}
+
+	@Override
+	public long nextInterval(Random random, long now) {
+		return random.nextInt(mMaxInterval - mMinInterval + 1) + mMinInterval;
+	}
+
+	@Override
+	public String toString() {
+		return "uniform " + mMinInterval + "-" + mMaxInterval + "s";
+	}
+}
@@ -2,8 +2,12 @@ package cecs277.buildings;
 
 import cecs277.passengers.Passenger;
 import cecs277.Simulation;
+import cecs277.dispatchers.Dispatcher;
+import cecs277.dispatchers.FirstIdleDispatcher;
 import cecs277.elevators.Elevator;
 import cecs277.elevators.ElevatorObserver;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
 
 import java.util.*;
 
@@ -11,10 +15,31 @@ public class Building implements ElevatorObserver, FloorObserver {
 	private List<Elevator> mElevators = new ArrayList<>();
 	private List<Floor> mFloors = new ArrayList<>();
 	private Simulation mSimulation;
-	private Queue<Integer> mWaitingFloors = new ArrayDeque<>();
+	// Hall calls that no elevator was free to take when they were made.
+	private HallCallSet mPendingCalls;
+	private Dispatcher mDispatcher;
+	private BuildingChangeObserver mChangeObserver;
 	
 	public Building(int floors, int elevatorCount, Simulation sim) {
+		this(floors, elevatorCount, sim, new FirstIdleDispatcher());
+	}
+	
+	/**
+	 * Constructs a building whose hall calls are assigned to elevators by the given dispatcher.
+	 */
+	public Building(int floors, int elevatorCount, Simulation sim, Dispatcher dispatcher) {
+		this(floors, elevatorCount, sim, dispatcher, Elevator.DEFAULT_CAPACITY, Elevator.DEFAULT_SECONDS_PER_FLOOR);
+	}
+	
+	/**
+	 * Constructs a building whose elevators all hold the given number of passengers and move one floor in the given
+	 * number of seconds.
+	 */
+	public Building(int floors, int elevatorCount, Simulation sim, Dispatcher dispatcher, int carCapacity,
+	 long secondsPerFloor) {
 		mSimulation = sim;
+		mDispatcher = dispatcher;
+		mPendingCalls = new HallCallSet(floors);
 		
 		// Construct the floors, and observe each one.
 		for (int i = 0; i < floors; i++) {
@@ -23,13 +48,11 @@ public class Building implements ElevatorObserver, FloorObserver {
 			mFloors.add(f);
 		}
 		
-		// Construct the elevators, and observe each one.
+		// Construct the elevators, and observe each one. Floors do not observe elevators; an elevator notifies the
+		// floor it is arriving at directly.
 		for (int i = 0; i < elevatorCount; i++) {
-			Elevator elevator = new Elevator(i + 1, this);
+			Elevator elevator = new Elevator(i + 1, this, carCapacity, secondsPerFloor);
 			elevator.addObserver(this);
-			for (Floor f : mFloors) {
-				elevator.addObserver(f);
-			}
 			mElevators.add(elevator);
 		}
 	}
@@ -39,41 +62,46 @@ public class Building implements ElevatorObserver, FloorObserver {
 	public String toString(){
 		StringBuilder visualRepresentation = new StringBuilder();
 		for (int i = getFloorCount(); i > 0; i--){
+			appendFloorRow(visualRepresentation, i);
+			visualRepresentation.append("\n");
+		}
 
+		for (int i = 0; i < mElevators.size(); i++){
+			visualRepresentation.append(mElevators.get(i)).append("\n");
+		}
+		return visualRepresentation.toString();
+	}
+	
+	/**
+	 * Appends the row that toString() draws for the given floor: its number, an X in the column of each elevator on it,
+	 * and the destinations of the passengers waiting there.
+	 */
+	void appendFloorRow(StringBuilder visualRepresentation, int i) {
 //            adds a padding so the floor numbers line up visually
-			if (i < 10){
-				visualRepresentation.append("  ").append(i).append(":  |");
-			}
-			else if(i < 100){
-				visualRepresentation.append(" ").append(i).append(":  |");
-			}
-			else{
-				visualRepresentation.append(i).append(":  |");
-			}
+		if (i < 10){
+			visualRepresentation.append("  ").append(i).append(":  |");
+		}
+		else if(i < 100){
+			visualRepresentation.append(" ").append(i).append(":  |");
+		}
+		else{
+			visualRepresentation.append(i).append(":  |");
+		}
 
-			for(int j = 0; j < mElevators.size(); j++){
-				if(mElevators.get(j).getCurrentFloor().getNumber() == i){
-					visualRepresentation.append(" X |");
-				}
-				else{
-					visualRepresentation.append("   |");
-				}
+		for(int j = 0; j < mElevators.size(); j++){
+			if(mElevators.get(j).getCurrentFloor().getNumber() == i){
+				visualRepresentation.append(" X |");
 			}
-
-			visualRepresentation.append(" ");
-
-			for (Passenger p : mFloors.get(i - 1).getWaitingPassengers()) {
-				visualRepresentation.append(" ").append(p.getDestination());
+			else{
+				visualRepresentation.append("   |");
 			}
-
-			visualRepresentation.append("\n");
 		}
 
-		for (int i = 0; i < mElevators.size(); i++){
-			visualRepresentation.append(mElevators.get(i)).append("\n");
+		visualRepresentation.append(" ");
+
+		for (Passenger p : mFloors.get(i - 1).getWaitingPassengers()) {
+			visualRepresentation.append(" ").append(p.getDestination());
 		}
-		System.out.println(visualRepresentation.toString());
-		return visualRepresentation.toString();
 	}
 	
 	public int getFloorCount() {
@@ -84,12 +112,83 @@ public class Building implements ElevatorObserver, FloorObserver {
 		return mFloors.get(floor - 1);
 	}
 	
+	public int getElevatorCount() {
+		return mElevators.size();
+	}
+	
+	public Elevator getElevator(int elevator) {
+		return mElevators.get(elevator - 1);
+	}
+	
 	public Simulation getSimulation() {
 		return mSimulation;
 	}
 
-	public Queue<Integer> getmWaitingFloors(){
-		return mWaitingFloors;
+	public HallCallSet getPendingCalls() {
+		return mPendingCalls;
+	}
+	
+	/**
+	 * Sets the observer told when a floor or elevator changes, or null for none.
+	 */
+	public void setChangeObserver(BuildingChangeObserver observer) {
+		mChangeObserver = observer;
+	}
+	
+	/**
+	 * Called by a floor when the passengers waiting on it change.
+	 */
+	public void floorChanged(Floor floor) {
+		if (mChangeObserver != null) {
+			mChangeObserver.floorChanged(floor);
+		}
+	}
+	
+	/**
+	 * Called by an elevator when its state, direction, floor or riders may have changed.
+	 */
+	public void elevatorChanged(Elevator elevator) {
+		if (mChangeObserver != null) {
+			mChangeObserver.elevatorChanged(elevator);
+		}
+	}
+	
+	public Dispatcher getDispatcher() {
+		return mDispatcher;
+	}
+	
+	/**
+	 * Writes every floor, every elevator, and the pending calls oldest first.
+	 */
+	public void writeSnapshot(SnapshotOutput out) {
+		for (Floor f : mFloors) {
+			f.writeSnapshot(out);
+		}
+		for (Elevator e : mElevators) {
+			e.writeSnapshot(out);
+		}
+		out.writeVarint(mPendingCalls.size());
+		for (int s = mPendingCalls.oldest(); s != -1; s = mPendingCalls.next(s)) {
+			out.writeVarint(s);
+			out.writeVarLong(mPendingCalls.registeredTimeOf(s));
+		}
+	}
+	
+	/**
+	 * Restores what writeSnapshot wrote, into a newly constructed building with the same number of floors and
+	 * elevators.
+	 */
+	public void readSnapshot(SnapshotInput in) {
+		for (Floor f : mFloors) {
+			f.readSnapshot(in);
+		}
+		for (Elevator e : mElevators) {
+			e.readSnapshot(in);
+		}
+		for (int n = in.readVarint(); n > 0; n--) {
+			int slot = in.readVarint();
+			mPendingCalls.add(mPendingCalls.floorOf(slot), mPendingCalls.directionOf(slot), in.readVarLong());
+		}
 	}
 	
 	@Override
@@ -104,43 +203,23 @@ public class Building implements ElevatorObserver, FloorObserver {
 	
 	@Override
 	public void elevatorWentIdle(Elevator elevator) {
-		// DONE: if mWaitingFloors is not empty, remove the first entry from the queue and dispatch the elevator to that floor.
-		//added the !
-		if (!mWaitingFloors.isEmpty()){
-			elevator.dispatchTo(mFloors.get(mWaitingFloors.remove() - 1));
-		}
+		mDispatcher.elevatorWentIdle(this, elevator);
 	}
 	
 	@Override
 	public void elevatorArriving(Floor sender, Elevator elevator) {
-//		if (!mWaitingFloors.contains(sender.getNumber())){
-//			mWaitingFloors.add(sender.getNumber());
-//		}
-//		System.out.println("\nElevator Arriving " + sender.getNumber() + " mWaitingFloors " + mWaitingFloors.toString() + "\n");
-
-		// DONE: add the floor mWaitingFloors if it is not already in the queue.
+		// The floor is about to clear the button for the elevator's direction, so the call has been served.
+		if (elevator.getCurrentDirection() != Elevator.Direction.NOT_MOVING) {
+			mPendingCalls.remove(sender.getNumber(), elevator.getCurrentDirection());
+		}
 	}
 	
 	@Override
 	public void directionRequested(Floor floor, Elevator.Direction direction) {
-		boolean elevatorDispatched = false;
-
-
-		//DONE i wonder if we should break after dispatching one elevator or if it should be a race between elevators lol
-		for(Elevator e: mElevators){
-			if (e.isIdle()){
-				e.dispatchTo(floor);
-				elevatorDispatched = true;
-				break;
-			}
+		// Elevators already on their way past the floor stop there without being dispatched.
+		for (Elevator e : mElevators) {
+			e.hallCallPressed(floor, direction);
 		}
-
-		if (!elevatorDispatched) {
-			mWaitingFloors.add(floor.getNumber());
-		}
-//		System.out.println("\nDirection Requested " + direction + " Floor " + floor.getNumber() + " mWaitingFloors " + mWaitingFloors.toString() + "\n");
-
-		// DONE: go through each elevator. If an elevator is idle, dispatch it to the given floor.
-		// DONE: if no elevators are idle, then add the floor number to the mWaitingFloors queue.
+		mDispatcher.directionRequested(this, floor, direction);
 	}
 }
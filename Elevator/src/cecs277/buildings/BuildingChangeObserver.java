@@ -0,0 +1,19 @@
+package cecs277.buildings;
+
+import cecs277.elevators.Elevator;
+
+/**
+ * Told whenever something a view of the building shows may have changed, so the view can redraw only what changed.
+ * Called on the thread running the simulation, possibly several times for one change.
+ */
+public interface BuildingChangeObserver {
+	/**
+	 * Called when the passengers waiting on the given floor change.
+	 */
+	void floorChanged(Floor floor);
+	
+	/**
+	 * Called when the given elevator's state, direction, floor or riders may have changed.
+	 */
+	void elevatorChanged(Elevator elevator);
+}
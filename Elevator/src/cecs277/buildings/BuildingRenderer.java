@@ -0,0 +1,160 @@
+package cecs277.buildings;
+
+import cecs277.elevators.Elevator;
+
+import java.io.PrintStream;
+import java.util.BitSet;
+
+/**
+ * Draws a building on an ANSI terminal in the layout of Building.toString(), and keeps the drawing up to date by
+ * redrawing only the rows that changed: the building tells the renderer which floors and elevators changed, and each
+ * frame moves the cursor to those rows and rewrites them in place. A frame costs time in proportion to what changed
+ * since the last one rather than to the size of the building, and the screen does not flicker.
+ *
+ * Frames are capped at a maximum rate; changes made between frames are drawn together by the next one. Call the
+ * renderer only on the thread running the simulation.
+ */
+public class BuildingRenderer implements BuildingChangeObserver {
+	private static final String ESCAPE = "\033[";
+	
+	private final Building mBuilding;
+	private final PrintStream mOut;
+	private final long mFrameInterval;
+	private final BitSet mDirtyFloors = new BitSet();
+	private final BitSet mDirtyElevators = new BitSet();
+	// The floor each elevator was last drawn on, whose row must be redrawn when the elevator leaves it.
+	private final int[] mDrawnFloors;
+	private final StringBuilder mFrame = new StringBuilder();
+	private boolean mRedrawAll = true;
+	private long mLastFrameTime;
+	private long mFrames;
+	private long mRowsDrawn;
+	
+	/**
+	 * Constructs a renderer that draws the given building to the given terminal at most maxFramesPerSecond times a
+	 * second, and starts observing the building's changes. The first frame clears the screen and draws everything.
+	 */
+	public BuildingRenderer(Building building, PrintStream out, double maxFramesPerSecond) {
+		if (!(maxFramesPerSecond > 0)) {
+			throw new IllegalArgumentException("The frame rate must be positive, got " + maxFramesPerSecond);
+		}
+		mBuilding = building;
+		mOut = out;
+		mFrameInterval = (long) (1e9 / maxFramesPerSecond);
+		mDrawnFloors = new int[building.getElevatorCount() + 1];
+		mLastFrameTime = System.nanoTime() - mFrameInterval;
+		building.setChangeObserver(this);
+	}
+	
+	@Override
+	public void floorChanged(Floor floor) {
+		mDirtyFloors.set(floor.getNumber());
+	}
+	
+	@Override
+	public void elevatorChanged(Elevator elevator) {
+		mDirtyElevators.set(elevator.getNumber());
+	}
+	
+	/**
+	 * Draws a frame if anything changed and the frame rate allows one now. Returns true if a frame was drawn.
+	 */
+	public boolean render() {
+		findMovedElevators();
+		if (!mRedrawAll && mDirtyFloors.isEmpty() && mDirtyElevators.isEmpty()) {
+			return false;
+		}
+		if (System.nanoTime() - mLastFrameTime < mFrameInterval) {
+			return false;
+		}
+		renderNow();
+		return true;
+	}
+	
+	/**
+	 * Draws what changed at once, ignoring the frame rate, and leaves the cursor on the line below the building.
+	 */
+	public void renderNow() {
+		int floors = mBuilding.getFloorCount();
+		int elevators = mBuilding.getElevatorCount();
+		mFrame.setLength(0);
+		
+		if (mRedrawAll) {
+			mFrame.append(ESCAPE).append("H").append(ESCAPE).append("2J");
+			mDirtyFloors.set(1, floors + 1);
+			mDirtyElevators.set(1, elevators + 1);
+		}
+		
+		findMovedElevators();
+		// An elevator that moved changes the row it left and the row it reached.
+		for (int e = mDirtyElevators.nextSetBit(0); e >= 0; e = mDirtyElevators.nextSetBit(e + 1)) {
+			int floor = mBuilding.getElevator(e).getCurrentFloor().getNumber();
+			if (floor != mDrawnFloors[e]) {
+				if (mDrawnFloors[e] != 0) {
+					mDirtyFloors.set(mDrawnFloors[e]);
+				}
+				mDirtyFloors.set(floor);
+				mDrawnFloors[e] = floor;
+			}
+		}
+		
+		// The top floor is on the first line, and the elevators are listed below the ground floor.
+		for (int f = mDirtyFloors.nextSetBit(0); f >= 0; f = mDirtyFloors.nextSetBit(f + 1)) {
+			moveTo(floors - f + 1);
+			mBuilding.appendFloorRow(mFrame, f);
+			mFrame.append(ESCAPE).append('K');
+			mRowsDrawn++;
+		}
+		for (int e = mDirtyElevators.nextSetBit(0); e >= 0; e = mDirtyElevators.nextSetBit(e + 1)) {
+			moveTo(floors + e);
+			mFrame.append(mBuilding.getElevator(e)).append(ESCAPE).append('K');
+			mRowsDrawn++;
+		}
+		moveTo(floors + elevators + 1);
+		mFrame.append(ESCAPE).append('J');
+		
+		mOut.print(mFrame);
+		mOut.flush();
+		mDirtyFloors.clear();
+		mDirtyElevators.clear();
+		mRedrawAll = false;
+		mLastFrameTime = System.nanoTime();
+		mFrames++;
+	}
+	
+	/**
+	 * Marks the elevators that moved to another floor in the middle of a coalesced trip, which does not report the
+	 * floors it passes.
+	 */
+	private void findMovedElevators() {
+		for (int e = 1; e <= mBuilding.getElevatorCount(); e++) {
+			Elevator elevator = mBuilding.getElevator(e);
+			if (elevator.getCurrentState() == Elevator.ElevatorState.MOVING
+			 && elevator.getCurrentFloor().getNumber() != mDrawnFloors[e]) {
+				mDirtyElevators.set(e);
+			}
+		}
+	}
+	
+	/**
+	 * Makes the next frame clear the screen and draw everything, for when something else has written to the terminal.
+	 */
+	public void invalidate() {
+		mRedrawAll = true;
+	}
+	
+	public long getFrameCount() {
+		return mFrames;
+	}
+	
+	/**
+	 * Gets the number of rows drawn by every frame so far.
+	 */
+	public long getRowsDrawn() {
+		return mRowsDrawn;
+	}
+	
+	private void moveTo(int line) {
+		mFrame.append(ESCAPE).append(line).append(";1H");
+	}
+}
@@ -3,13 +3,20 @@ package cecs277.buildings;
 import cecs277.elevators.ElevatorObserver;
 import cecs277.passengers.Passenger;
 import cecs277.elevators.Elevator;
+import cecs277.passengers.PassengerQueue;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
 
 import java.util.*;
 
 public class Floor implements ElevatorObserver {
 	private Building mBuilding;
-	private List<Passenger> mPassengers = new ArrayList<>();
-	private ArrayList<FloorObserver> mObservers = new ArrayList<>();
+	// Waiting passengers, split by the direction they want to travel. Both queues number their passengers from
+	// mNextArrival, so they can be merged back into arrival order.
+	private PassengerQueue mWaitingUp = new PassengerQueue();
+	private PassengerQueue mWaitingDown = new PassengerQueue();
+	private long mNextArrival;
+	private LinkedHashSet<FloorObserver> mObservers = new LinkedHashSet<>();
 	private int mNumber;
 	
 	// Done: declare a field(s) to help keep track of which direction buttons are currently pressed.
@@ -75,19 +82,23 @@ public class Floor implements ElevatorObserver {
 	
 	/**
 	 * Adds a given Passenger as a waiting passenger on this floor, and presses the passenger's direction button.
+	 * Waiting passengers are not registered as observers of the floor; elevators find them through the floor's
+	 * waiting queues when their doors open.
 	 */
 	public void addWaitingPassenger(Passenger p) {
-		mPassengers.add(p);
-		addObserver(p);
 		p.setState(Passenger.PassengerState.WAITING_ON_FLOOR);
+		p.startedWaiting(mBuilding.getSimulation().currentTime());
 		int pDestination = p.getDestination();
 
 		if (pDestination > getNumber()){
+			mWaitingUp.add(p, mNextArrival++);
 			requestDirection(Elevator.Direction.MOVING_UP);
 		}
 		else{
+			mWaitingDown.add(p, mNextArrival++);
 			requestDirection(Elevator.Direction.MOVING_DOWN);
 		}
+		mBuilding.floorChanged(this);
 		
 		// Done: call requestDirection with the appropriate direction for this passenger's destination.
 	}
@@ -96,7 +107,29 @@ public class Floor implements ElevatorObserver {
 	 * Removes the given Passenger from the floor's waiting passengers.
 	 */
 	public void removeWaitingPassenger(Passenger p) {
-		mPassengers.remove(p);
+		if (!mWaitingUp.remove(p)) {
+			mWaitingDown.remove(p);
+		}
+		mBuilding.floorChanged(this);
+	}
+	
+	/**
+	 * Returns true if the given Passenger is waiting on this floor.
+	 */
+	public boolean isWaiting(Passenger p) {
+		return mWaitingUp.contains(p) || mWaitingDown.contains(p);
+	}
+	
+	/**
+	 * Gets the queue of passengers waiting to travel in the given direction (MOVING_UP or MOVING_DOWN), in arrival
+	 * order. Passengers whose destination is this floor wait in the MOVING_DOWN queue.
+	 */
+	public PassengerQueue getWaitingQueue(Elevator.Direction direction) {
+		return direction == Elevator.Direction.MOVING_UP ? mWaitingUp : mWaitingDown;
+	}
+	
+	public int getWaitingCount() {
+		return mWaitingUp.size() + mWaitingDown.size();
 	}
 	
 	
@@ -105,8 +138,80 @@ public class Floor implements ElevatorObserver {
 		return mNumber;
 	}
 	
+	/**
+	 * Gets a copy of the passengers waiting on this floor, in arrival order.
+	 */
 	public List<Passenger> getWaitingPassengers() {
-		return mPassengers;
+		List<Passenger> waiting = new ArrayList<>(getWaitingCount());
+		Passenger up = mWaitingUp.peekFirst();
+		Passenger down = mWaitingDown.peekFirst();
+		while (up != null || down != null) {
+			if (down == null || (up != null && mWaitingUp.arrivalOrder(up) < mWaitingDown.arrivalOrder(down))) {
+				waiting.add(up);
+				up = mWaitingUp.next(up);
+			}
+			else {
+				waiting.add(down);
+				down = mWaitingDown.next(down);
+			}
+		}
+		return waiting;
+	}
+
+	/**
+	 * Writes the floor's buttons, its waiting queues with their arrival numbers, and its observers in notification
+	 * order: 0 for the building, or an elevator's number.
+	 */
+	public void writeSnapshot(SnapshotOutput out) {
+		out.writeBoolean(upButtonPressed);
+		out.writeBoolean(downButtonPressed);
+		out.writeVarLong(mNextArrival);
+		writeQueue(out, mWaitingUp);
+		writeQueue(out, mWaitingDown);
+		out.writeVarint(mObservers.size());
+		for (FloorObserver observer : mObservers) {
+			if (observer == mBuilding) {
+				out.writeVarint(0);
+			}
+			else if (observer instanceof Elevator) {
+				out.writeVarint(((Elevator) observer).getNumber());
+			}
+			else {
+				throw new IllegalStateException("Cannot snapshot " + this + ": it is observed by " + observer);
+			}
+		}
+	}
+	
+	private static void writeQueue(SnapshotOutput out, PassengerQueue queue) {
+		out.writeVarint(queue.size());
+		for (Passenger p : queue) {
+			out.writePassenger(p);
+			out.writeVarLong(queue.arrivalOrder(p));
+		}
+	}
+	
+	/**
+	 * Restores what writeSnapshot wrote, into a floor of a newly constructed building. Observers are replaced and
+	 * passengers queued without notifying anyone.
+	 */
+	public void readSnapshot(SnapshotInput in) {
+		upButtonPressed = in.readBoolean();
+		downButtonPressed = in.readBoolean();
+		mNextArrival = in.readVarLong();
+		readQueue(in, mWaitingUp);
+		readQueue(in, mWaitingDown);
+		mObservers.clear();
+		for (int n = in.readVarint(); n > 0; n--) {
+			int number = in.readVarint();
+			mObservers.add(number == 0 ? mBuilding : mBuilding.getElevator(number));
+		}
+	}
+	
+	private static void readQueue(SnapshotInput in, PassengerQueue queue) {
+		for (int n = in.readVarint(); n > 0; n--) {
+			Passenger p = in.readPassenger();
+			queue.add(p, in.readVarLong());
+		}
 	}
 
 	@Override
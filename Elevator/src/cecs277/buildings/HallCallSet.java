@@ -0,0 +1,154 @@
+package cecs277.buildings;
+
+import cecs277.elevators.Elevator;
+
+/**
+ * The hall calls (floor + direction) that no elevator has been assigned to yet. Each floor/direction pair is pending
+ * at most once, and remembers the simulation time it was registered.
+ *
+ * Calls are kept in a linked list threaded through arrays indexed by "slot" (one slot per floor/direction pair).
+ * Since calls are registered at the current simulation time, which never goes backwards, registration order is also
+ * age order: adding, cancelling, testing and finding the oldest call are all O(1), and nothing is allocated after
+ * construction.
+ */
+public class HallCallSet {
+	private static final int NONE = -1;
+
+	private long[] mRegisteredAt;
+	private int[] mPrevious;
+	private int[] mNext;
+	private boolean[] mPending;
+	private int mOldest = NONE;
+	private int mNewest = NONE;
+	private int mSize;
+
+	public HallCallSet(int floorCount) {
+		int slots = floorCount * 2;
+		mRegisteredAt = new long[slots];
+		mPrevious = new int[slots];
+		mNext = new int[slots];
+		mPending = new boolean[slots];
+	}
+
+	/**
+	 * Registers a call at the given time. Returns false if the call was already pending; its registration time is not
+	 * changed.
+	 */
+	public boolean add(int floor, Elevator.Direction direction, long time) {
+		int slot = slotOf(floor, direction);
+		if (mPending[slot]) {
+			return false;
+		}
+		if (mNewest != NONE && time < mRegisteredAt[mNewest]) {
+			throw new IllegalArgumentException("Hall call registered at " + time + "s, after one registered at "
+			 + mRegisteredAt[mNewest] + "s");
+		}
+		mPending[slot] = true;
+		mRegisteredAt[slot] = time;
+		mPrevious[slot] = mNewest;
+		mNext[slot] = NONE;
+		if (mNewest == NONE) {
+			mOldest = slot;
+		}
+		else {
+			mNext[mNewest] = slot;
+		}
+		mNewest = slot;
+		mSize++;
+		return true;
+	}
+
+	/**
+	 * Cancels a pending call. Returns false if it was not pending.
+	 */
+	public boolean remove(int floor, Elevator.Direction direction) {
+		int slot = slotOf(floor, direction);
+		if (!mPending[slot]) {
+			return false;
+		}
+		if (mPrevious[slot] == NONE) {
+			mOldest = mNext[slot];
+		}
+		else {
+			mNext[mPrevious[slot]] = mNext[slot];
+		}
+		if (mNext[slot] == NONE) {
+			mNewest = mPrevious[slot];
+		}
+		else {
+			mPrevious[mNext[slot]] = mPrevious[slot];
+		}
+		mPending[slot] = false;
+		mSize--;
+		return true;
+	}
+
+	public boolean contains(int floor, Elevator.Direction direction) {
+		return mPending[slotOf(floor, direction)];
+	}
+
+	/**
+	 * Gets the time the given call was registered, or -1 if it is not pending.
+	 */
+	public long getRegisteredTime(int floor, Elevator.Direction direction) {
+		int slot = slotOf(floor, direction);
+		return mPending[slot] ? mRegisteredAt[slot] : -1;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	// Walking the pending calls, oldest first, without allocating: for (int s = oldest(); s != -1; s = next(s)).
+	// The slot after a call must be read before that call is removed.
+
+	/**
+	 * Gets the slot of the oldest pending call, or -1 if there are none.
+	 */
+	public int oldest() {
+		return mOldest;
+	}
+
+	/**
+	 * Gets the slot of the next-oldest pending call after the given one, or -1.
+	 */
+	public int next(int slot) {
+		return mNext[slot];
+	}
+
+	public int floorOf(int slot) {
+		return slot / 2 + 1;
+	}
+
+	public Elevator.Direction directionOf(int slot) {
+		return slot % 2 == 0 ? Elevator.Direction.MOVING_UP : Elevator.Direction.MOVING_DOWN;
+	}
+
+	public long registeredTimeOf(int slot) {
+		return mRegisteredAt[slot];
+	}
+
+	private int slotOf(int floor, Elevator.Direction direction) {
+		if (direction == Elevator.Direction.NOT_MOVING) {
+			throw new IllegalArgumentException("A hall call must be MOVING_UP or MOVING_DOWN");
+		}
+		return (floor - 1) * 2 + (direction == Elevator.Direction.MOVING_UP ? 0 : 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("[");
+		for (int s = mOldest; s != NONE; s = mNext[s]) {
+			if (b.length() > 1) {
+				b.append(", ");
+			}
+			b.append(floorOf(s)).append(directionOf(s) == Elevator.Direction.MOVING_UP ? " up @" : " down @")
+			 .append(mRegisteredAt[s]).append("s");
+		}
+		return b.append("]").toString();
+	}
+}
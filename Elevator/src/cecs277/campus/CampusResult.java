@@ -0,0 +1,57 @@
+package cecs277.campus;
+
+import cecs277.SimulationResult;
+
+import java.util.List;
+
+/**
+ * The outcome of running a CampusSimulation: each building's result, and how many passengers walked between
+ * buildings. Passengers who walk are counted as departed by the building they left and as spawned by the one they
+ * reached.
+ */
+public class CampusResult {
+	private List<SimulationResult> mBuildingResults;
+	private long mWalks;
+	private long mWindows;
+
+	public CampusResult(List<SimulationResult> buildingResults, long walks, long windows) {
+		mBuildingResults = buildingResults;
+		mWalks = walks;
+		mWindows = windows;
+	}
+
+	/**
+	 * Gets the result of the given building, numbered from 0.
+	 */
+	public SimulationResult getBuildingResult(int building) {
+		return mBuildingResults.get(building);
+	}
+
+	public int getBuildingCount() {
+		return mBuildingResults.size();
+	}
+
+	/**
+	 * Gets the number of walks between buildings that have been sent so far. Walks still under way are included.
+	 */
+	public long getWalks() {
+		return mWalks;
+	}
+
+	/**
+	 * Gets the number of lookahead windows the campus has run; the buildings synchronized once after each.
+	 */
+	public long getWindows() {
+		return mWindows;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < mBuildingResults.size(); i++) {
+			s.append("Building ").append(i).append(": ").append(mBuildingResults.get(i)).append('\n');
+		}
+		s.append(mWalks).append(" walks between buildings, ").append(mWindows).append(" windows\n");
+		return s.toString();
+	}
+}
@@ -0,0 +1,239 @@
+package cecs277.campus;
+
+import cecs277.DepartureObserver;
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+import cecs277.events.WalkInEvent;
+import cecs277.passengers.Passenger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates several buildings under one clock, with passengers walking between them. Each building is a headless
+ * Simulation with its own event queue, random number generator and passenger ids, and the buildings run in parallel.
+ *
+ * The buildings synchronize conservatively. A passenger who leaves a building at time t reaches another no sooner
+ * than t + the shortest walk time, the lookahead, so the campus advances in windows one lookahead long: within a
+ * window every building runs on its own, and nothing one building does in a window can reach another before the next
+ * window starts. Between windows the walks are delivered, by source building and in the order each building sent
+ * them. Every building sees the same events in the same order however many threads run the windows, so a campus on
+ * a one-thread pool gives exactly the same results as on any other.
+ */
+public class CampusSimulation {
+	private Simulation[] mBuildings;
+	private long[][] mWalkTimes;
+	private double mWalkProbability;
+	private long mLookahead;
+	private ForkJoinPool mPool;
+	// Walks sent by each building in the current window, in the order they were sent.
+	private List<List<Walk>> mOutboxes;
+	// Every building has executed all of its events up to and including this time.
+	private long mExecutedThrough = -1;
+	private long mWalks;
+	private long mWindows;
+
+	/**
+	 * Constructs a campus that runs on the common fork-join pool.
+	 */
+	public CampusSimulation(List<SimulationConfig> buildings, long[][] walkTimes, double walkProbability) {
+		this(buildings, walkTimes, walkProbability, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a campus of the given buildings. walkTimes[i][j] is the seconds it takes to walk from building i to
+	 * building j, which must be at least 1; the diagonal is ignored. Each passenger who leaves a building walks to one
+	 * of the others, chosen at random, with the given probability, and leaves the campus otherwise.
+	 */
+	public CampusSimulation(List<SimulationConfig> buildings, long[][] walkTimes, double walkProbability,
+	 ForkJoinPool pool) {
+		int n = buildings.size();
+		if (n == 0) {
+			throw new IllegalArgumentException("A campus needs at least one building");
+		}
+		if (walkTimes.length != n) {
+			throw new IllegalArgumentException("Expected walk times for " + n + " buildings, got " + walkTimes.length);
+		}
+		if (walkProbability < 0 || walkProbability > 1) {
+			throw new IllegalArgumentException("Walk probability must be between 0 and 1, got " + walkProbability);
+		}
+
+		mLookahead = Long.MAX_VALUE;
+		mWalkTimes = new long[n][];
+		for (int i = 0; i < n; i++) {
+			if (walkTimes[i].length != n) {
+				throw new IllegalArgumentException("Expected " + n + " walk times from building " + i + ", got "
+				 + walkTimes[i].length);
+			}
+			mWalkTimes[i] = walkTimes[i].clone();
+			for (int j = 0; j < n; j++) {
+				if (i == j) {
+					continue;
+				}
+				if (walkTimes[i][j] < 1) {
+					throw new IllegalArgumentException("The walk from building " + i + " to " + j + " must take at "
+					 + "least 1s, got " + walkTimes[i][j]);
+				}
+				mLookahead = Math.min(mLookahead, walkTimes[i][j]);
+			}
+		}
+
+		mWalkProbability = walkProbability;
+		mPool = pool;
+		mBuildings = new Simulation[n];
+		mOutboxes = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			mBuildings[i] = new Simulation(buildings.get(i));
+			mOutboxes.add(new ArrayList<>());
+			mBuildings[i].setDepartureObserver(new Exit(i));
+		}
+	}
+
+	/**
+	 * Runs every building to the given time, and gets their results there.
+	 */
+	public CampusResult run(long until) {
+		if (until < mExecutedThrough) {
+			throw new IllegalArgumentException("Cannot run to " + until + "s, the campus is already at "
+			 + mExecutedThrough + "s");
+		}
+		while (mExecutedThrough < until) {
+			long end = until - mExecutedThrough <= mLookahead ? until : mExecutedThrough + mLookahead;
+			mPool.invoke(new Window(0, mBuildings.length, end));
+			deliverWalks();
+			mExecutedThrough = end;
+			mWindows++;
+		}
+		// Every walk just delivered arrives after the horizon, so these only build the results.
+		List<SimulationResult> results = new ArrayList<>(mBuildings.length);
+		for (Simulation building : mBuildings) {
+			results.add(building.run(until));
+		}
+		return new CampusResult(results, mWalks, mWindows);
+	}
+
+	/**
+	 * Gets the simulation of the given building, numbered from 0. Only touch it between calls to run().
+	 */
+	public Simulation getBuilding(int building) {
+		return mBuildings[building];
+	}
+
+	public int getBuildingCount() {
+		return mBuildings.length;
+	}
+
+	/**
+	 * Gets the shortest walk between two buildings, which is how far each window reaches.
+	 */
+	public long getLookahead() {
+		return mLookahead;
+	}
+
+	// Schedules each walk sent in the last window as a walk-in at its destination.
+	private void deliverWalks() {
+		for (List<Walk> outbox : mOutboxes) {
+			for (Walk walk : outbox) {
+				Simulation to = mBuildings[walk.mTo];
+				to.scheduleEvent(new WalkInEvent(walk.mArrivalTime, to.getBuilding()));
+			}
+			mWalks += outbox.size();
+			outbox.clear();
+		}
+	}
+
+	/**
+	 * Runs buildings [from, to) to the end of the window, splitting the range in half until each task has one building.
+	 */
+	@SuppressWarnings("serial")
+	private class Window extends RecursiveAction {
+		private final int mFrom;
+		private final int mTo;
+		private final long mEnd;
+
+		Window(int from, int to, long end) {
+			mFrom = from;
+			mTo = to;
+			mEnd = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom == 1) {
+				mBuildings[mFrom].advanceTo(mEnd);
+				return;
+			}
+			int middle = (mFrom + mTo) >>> 1;
+			invokeAll(new Window(mFrom, middle, mEnd), new Window(middle, mTo, mEnd));
+		}
+	}
+
+	// Decides, on the departing building's own thread and with its own generator, whether a passenger walks on.
+	private class Exit implements DepartureObserver {
+		private final int mFrom;
+
+		Exit(int from) {
+			mFrom = from;
+		}
+
+		@Override
+		public void passengerDeparted(Simulation sim, Passenger passenger) {
+			if (mBuildings.length == 1) {
+				return;
+			}
+			Random r = sim.getRandom();
+			if (r.nextDouble() >= mWalkProbability) {
+				return;
+			}
+			int to = r.nextInt(mBuildings.length - 1);
+			if (to >= mFrom) {
+				to++;
+			}
+			mOutboxes.get(mFrom).add(new Walk(to, sim.currentTime() + mWalkTimes[mFrom][to]));
+		}
+	}
+
+	private static class Walk {
+		private final int mTo;
+		private final long mArrivalTime;
+
+		Walk(int to, long arrivalTime) {
+			mTo = to;
+			mArrivalTime = arrivalTime;
+		}
+	}
+
+	/**
+	 * Runs a campus of identical buildings that are all the same walk apart, and prints each building's results.
+	 * Arguments: buildings floors elevators walkTime walkProbability horizon [seed]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 6) {
+			System.out.println("Usage: CampusSimulation buildings floors elevators walkTime walkProbability horizon "
+			 + "[seed]");
+			return;
+		}
+		int n = Integer.parseInt(args[0]);
+		long horizon = Long.parseLong(args[5]);
+		SplittableRandom seeds = new SplittableRandom(args.length > 6 ? Long.parseLong(args[6]) : 277);
+		List<SimulationConfig> buildings = new ArrayList<>();
+		long[][] walkTimes = new long[n][n];
+		for (int i = 0; i < n; i++) {
+			buildings.add(new SimulationConfig(Integer.parseInt(args[1]), Integer.parseInt(args[2]), seeds.nextLong(),
+			 horizon));
+			Arrays.fill(walkTimes[i], Long.parseLong(args[3]));
+		}
+
+		long start = System.nanoTime();
+		CampusResult result = new CampusSimulation(buildings, walkTimes, Double.parseDouble(args[4])).run(horizon);
+		System.out.print(result);
+		System.out.printf("%.1fs on %d threads%n", (System.nanoTime() - start) / 1e9,
+		 ForkJoinPool.commonPool().getParallelism());
+	}
+}
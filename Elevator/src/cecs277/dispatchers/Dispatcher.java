@@ -0,0 +1,26 @@
+package cecs277.dispatchers;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+
+/**
+ * Decides which elevator answers each hall call. A Building delegates to its Dispatcher whenever a direction button is
+ * pressed on one of its floors, and whenever one of its elevators goes idle. A call that is not answered right away
+ * should be added to the building's pending calls, so it can be handed to the next elevator that goes idle.
+ *
+ * Dispatchers keep no state of their own; everything they need is in the Building. One instance can be shared by any
+ * number of buildings.
+ */
+public interface Dispatcher {
+	/**
+	 * Triggered when a direction button is pressed on the given floor. An idle elevator already on that floor hears the
+	 * button itself, so it only needs to be chosen, not dispatched.
+	 */
+	void directionRequested(Building building, Floor floor, Elevator.Direction direction);
+
+	/**
+	 * Triggered when the given elevator enters the IDLE_STATE state.
+	 */
+	void elevatorWentIdle(Building building, Elevator elevator);
+}
@@ -0,0 +1,111 @@
+package cecs277.dispatchers;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.buildings.HallCallSet;
+import cecs277.elevators.Elevator;
+import cecs277.elevators.FloorSet;
+
+/**
+ * Assigns each hall call to the elevator with the smallest estimated time of arrival, moving elevators included.
+ *
+ * A moving elevator never needs to be told about a call: it stops at every floor whose button is pressed in its
+ * direction of travel, and the call is cancelled when it arrives. So when a moving elevator wins, the call is simply
+ * left pending. A busy elevator only counts if it will pass the floor that way on its way to a rider's floor; it does
+ * not turn back for a hall call, so an idle elevator takes any call no busy one is passing. Whenever an elevator goes
+ * idle, the pending calls are offered again to every idle elevator.
+ */
+public class EtaDispatcher implements Dispatcher {
+	// Approximate timings of the elevator state machine, in seconds; moving between floors takes each car's own time.
+	// Accelerating, decelerating, and opening the doors at the destination.
+	private static final int START_AND_STOP = 10;
+	// Each stop along the way: decelerating, opening, boarding, closing and accelerating again.
+	private static final int STOP_COST = 15;
+
+	@Override
+	public void directionRequested(Building building, Floor floor, Elevator.Direction direction) {
+		Elevator best = soonestElevator(building, floor, direction);
+		if (best != null && best.isIdle()) {
+			best.dispatchTo(floor);
+		}
+		else {
+			building.getPendingCalls().add(floor.getNumber(), direction, building.getSimulation().currentTime());
+		}
+	}
+
+	@Override
+	public void elevatorWentIdle(Building building, Elevator elevator) {
+		// The elevator that went idle may not be the best one for a call, so every waiting call is looked at again.
+		HallCallSet calls = building.getPendingCalls();
+		int slot = calls.oldest();
+		while (slot != -1) {
+			int next = calls.next(slot);
+			Floor floor = building.getFloor(calls.floorOf(slot));
+			Elevator.Direction direction = calls.directionOf(slot);
+
+			if (!floor.directionIsPressed(direction)) {
+				calls.remove(floor.getNumber(), direction);
+			}
+			else {
+				Elevator best = soonestElevator(building, floor, direction);
+				if (best != null && best.isIdle()) {
+					calls.remove(floor.getNumber(), direction);
+					best.dispatchTo(floor, direction);
+				}
+			}
+			slot = next;
+		}
+	}
+
+	/**
+	 * Gets the elevator that will open its doors for the call soonest, the lowest-numbered on a tie, or null if no
+	 * elevator is idle or passing the floor.
+	 */
+	private Elevator soonestElevator(Building building, Floor floor, Elevator.Direction direction) {
+		Elevator best = null;
+		long bestEta = Long.MAX_VALUE;
+		for (int i = 1; i <= building.getElevatorCount(); i++) {
+			Elevator e = building.getElevator(i);
+			long eta = estimateArrival(e, floor, direction);
+			if (eta < bestEta) {
+				best = e;
+				bestEta = eta;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Estimates how many seconds the elevator needs to open its doors on the given floor for a passenger travelling in
+	 * the given direction, assuming it stops at every floor requested by its riders on the way. Returns Long.MAX_VALUE
+	 * for a busy elevator that will not pass the floor in that direction before it next goes idle.
+	 */
+	public long estimateArrival(Elevator e, Floor floor, Elevator.Direction direction) {
+		int here = e.getCurrentFloor().getNumber();
+		int target = floor.getNumber();
+		long perFloor = e.getSecondsPerFloor();
+		if (e.isIdle()) {
+			return here == target ? 0 : START_AND_STOP + perFloor * Math.abs(target - here);
+		}
+
+		Elevator.Direction moving = e.getCurrentDirection();
+		if (moving != direction) {
+			return Long.MAX_VALUE;
+		}
+		// It stops there only on the way to a rider's floor at or beyond it.
+		FloorSet stops = e.getRequestedFloors();
+		boolean up = moving == Elevator.Direction.MOVING_UP;
+		int furthest = up ? stops.nextBelow(e.getBuilding().getFloorCount() + 1) : stops.nextAbove(0);
+		boolean passes = up ? here < target && target <= furthest : furthest != -1 && furthest <= target && target < here;
+		if (!passes) {
+			return Long.MAX_VALUE;
+		}
+		int between = up ? stops.countBetween(here, target) : stops.countBetween(target, here);
+		return START_AND_STOP + perFloor * Math.abs(target - here) + STOP_COST * between;
+	}
+
+	@Override
+	public String toString() {
+		return "eta";
+	}
+}
@@ -0,0 +1,45 @@
+package cecs277.dispatchers;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.buildings.HallCallSet;
+import cecs277.elevators.Elevator;
+
+/**
+ * The original dispatch rule, kept as a baseline: a hall call goes to the first idle elevator in numbering order, no
+ * matter how far away it is. If no elevator is idle, the call waits; an elevator that goes idle takes the oldest
+ * waiting call.
+ */
+public class FirstIdleDispatcher implements Dispatcher {
+	@Override
+	public void directionRequested(Building building, Floor floor, Elevator.Direction direction) {
+		for (int i = 1; i <= building.getElevatorCount(); i++) {
+			Elevator e = building.getElevator(i);
+			if (e.isIdle()) {
+				e.dispatchTo(floor);
+				return;
+			}
+		}
+		building.getPendingCalls().add(floor.getNumber(), direction, building.getSimulation().currentTime());
+	}
+
+	@Override
+	public void elevatorWentIdle(Building building, Elevator elevator) {
+		// Calls whose button is no longer pressed were served by an elevator passing by, and are dropped.
+		HallCallSet calls = building.getPendingCalls();
+		for (int slot = calls.oldest(); slot != -1; slot = calls.oldest()) {
+			Floor floor = building.getFloor(calls.floorOf(slot));
+			Elevator.Direction direction = calls.directionOf(slot);
+			calls.remove(floor.getNumber(), direction);
+			if (floor.directionIsPressed(direction)) {
+				elevator.dispatchTo(floor, direction);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "first-idle";
+	}
+}
@@ -0,0 +1,37 @@
+package cecs277.dispatchers;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+
+/**
+ * Sends the idle elevator closest to the calling floor, breaking ties by elevator number. Moving elevators are not
+ * considered; waiting calls are handed out oldest first, as in FirstIdleDispatcher.
+ */
+public class NearestCarDispatcher extends FirstIdleDispatcher {
+	@Override
+	public void directionRequested(Building building, Floor floor, Elevator.Direction direction) {
+		Elevator nearest = null;
+		int nearestDistance = Integer.MAX_VALUE;
+		for (int i = 1; i <= building.getElevatorCount(); i++) {
+			Elevator e = building.getElevator(i);
+			int distance = Math.abs(e.getCurrentFloor().getNumber() - floor.getNumber());
+			if (e.isIdle() && distance < nearestDistance) {
+				nearest = e;
+				nearestDistance = distance;
+			}
+		}
+
+		if (nearest != null) {
+			nearest.dispatchTo(floor);
+		}
+		else {
+			building.getPendingCalls().add(floor.getNumber(), direction, building.getSimulation().currentTime());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "nearest-car";
+	}
+}
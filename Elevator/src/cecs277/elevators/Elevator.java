@@ -5,12 +5,13 @@ import cecs277.buildings.Building;
 import cecs277.buildings.Floor;
 import cecs277.buildings.FloorObserver;
 import cecs277.events.ElevatorStateEvent;
+import cecs277.events.EventHandle;
 import cecs277.passengers.Passenger;
-import cecs277.passengers.WorkerPassenger;
+import cecs277.passengers.PassengerQueue;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
 
-import java.lang.reflect.Array;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class Elevator implements FloorObserver {
 	
@@ -30,28 +31,70 @@ public class Elevator implements FloorObserver {
 		MOVING_DOWN
 	}
 	
+	// How long a moving elevator takes to go from one floor to the next, and how many riders it holds, unless it is
+	// built otherwise.
+	public static final long DEFAULT_SECONDS_PER_FLOOR = 2;
+	public static final int DEFAULT_CAPACITY = 10;
+	
 	
 	private int mNumber;
 	private Building mBuilding;
+	private int mCapacity;
+	private long mSecondsPerFloor;
 
 	private ElevatorState mCurrentState = ElevatorState.IDLE_STATE;
 	private Direction mCurrentDirection = Direction.NOT_MOVING;
 	private Floor mCurrentFloor;
 	private int passengerChangeCount = 0;
-	private List<Passenger> mPassengers = new ArrayList<>();
+	// Riders grouped by destination: mRiders[i] holds the passengers heading to floor i + 1, in boarding order.
+	private ArrayList<Passenger>[] mRiders;
+	// The bucket being let off at the current floor, which is cleared once everyone in it has left.
+	private ArrayList<Passenger> mUnloading;
+	private int mPassengerCount;
 	private ArrayList<ElevatorObserver> mObservers = new ArrayList<>();
 	
 	// Done: declare a field to keep track of which floors have been requested by passengers.
-	private boolean mRequestedFloors[];
+	private FloorSet mRequestedFloors;
+	
+	// While moving: the leg runs from mCurrentFloor to mTravelStop, whose MOVING event executes on reaching it. The
+	// leg's k-th floor is reached at mTravelStart + k * mSecondsPerFloor.
+	private boolean mTravelling;
+	private int mTravelStop;
+	private long mTravelStart;
+	
+	// Our one live state event, and the generation it was stamped with; scheduling another supersedes it.
+	private EventHandle mStateEvent;
+	private int mStateGeneration;
 	
 	
 	public Elevator(int number, Building bld) {
+		this(number, bld, DEFAULT_CAPACITY, DEFAULT_SECONDS_PER_FLOOR);
+	}
+	
+	/**
+	 * Constructs an elevator that holds the given number of riders, and moves one floor in the given number of seconds.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Elevator(int number, Building bld, int capacity, long secondsPerFloor) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("An elevator must hold at least 1 passenger, got " + capacity);
+		}
+		if (secondsPerFloor < 1) {
+			throw new IllegalArgumentException("An elevator needs at least 1 second a floor, got " + secondsPerFloor);
+		}
 		mNumber = number;
 		mBuilding = bld;
+		mCapacity = capacity;
+		mSecondsPerFloor = secondsPerFloor;
 		mCurrentFloor = bld.getFloor(1);
+		bld.getSimulation().getMetrics().addElevator(number, getCapacity());
 		
 		scheduleStateChange(ElevatorState.IDLE_STATE, 0);
-		mRequestedFloors = new boolean[mBuilding.getFloorCount()];
+		mRequestedFloors = new FloorSet(mBuilding.getFloorCount());
+		mRiders = (ArrayList<Passenger>[]) new ArrayList[mBuilding.getFloorCount()];
+		for (int i = 0; i < mRiders.length; i++) {
+			mRiders[i] = new ArrayList<>();
+		}
 	}
 	
 	/**
@@ -59,7 +102,20 @@ public class Elevator implements FloorObserver {
 	 */
 	private void scheduleStateChange(ElevatorState state, long timeFromNow) {
 		Simulation sim = mBuilding.getSimulation();
-		sim.scheduleEvent(new ElevatorStateEvent(timeFromNow + sim.currentTime(), state, this));
+		mStateEvent = sim.scheduleEvent(obtainStateEvent(timeFromNow + sim.currentTime(), state));
+	}
+	
+	/**
+	 * Obtains a state event and makes it our one live state event. Any state event still pending is superseded by the
+	 * new generation, and is dropped when it comes up; a trip it was making ends at the floor reached so far.
+	 */
+	private ElevatorStateEvent obtainStateEvent(long time, ElevatorState state) {
+		if (mTravelling) {
+			mCurrentFloor = getCurrentFloor();
+			mTravelling = false;
+		}
+		mStateGeneration++;
+		return ElevatorStateEvent.obtain(mBuilding.getSimulation(), time, state, this);
 	}
 	
 	/**
@@ -67,15 +123,27 @@ public class Elevator implements FloorObserver {
 	 */
 	public void addPassenger(Passenger passenger) {
 		// Done: add the passenger's destination to the set of requested floors.
-		mPassengers.add(passenger);
-		mRequestedFloors[passenger.getDestination() - 1] = true;
+		mRiders[passenger.getDestination() - 1].add(passenger);
+		mPassengerCount++;
+		mRequestedFloors.add(passenger.getDestination());
 		passengerChangeCount++;
+		Simulation sim = mBuilding.getSimulation();
+		sim.getMetrics().elevatorPassengersChanged(mNumber, sim.currentTime(), mPassengerCount);
+		mBuilding.elevatorChanged(this);
 	}
 
+	/**
+	 * Removes the given passenger, who must still be heading to the floor they boarded for.
+	 */
 	public void removePassenger(Passenger passenger) {
-		mPassengers.remove(passenger);
-//		mRequestedFloors[passenger.getDestination() - 1] = false;
+		ArrayList<Passenger> bucket = mRiders[passenger.getDestination() - 1];
+		if (bucket == mUnloading || bucket.remove(passenger)) {
+			mPassengerCount--;
+		}
 		passengerChangeCount++;
+		Simulation sim = mBuilding.getSimulation();
+		sim.getMetrics().elevatorPassengersChanged(mNumber, sim.currentTime(), mPassengerCount);
+		mBuilding.elevatorChanged(this);
 	}
 	
 	
@@ -108,10 +176,9 @@ public class Elevator implements FloorObserver {
 
 			case DOORS_OPEN:
 				passengerChangeCount = 0;
-//				for (int i = 0; i < mObservers.size(); i++){
-				ArrayList<ElevatorObserver> temp = new ArrayList<>(mObservers);
-				for (ElevatorObserver o : temp){
-//					if (o instanceof WorkerPassenger && temp.size() + this.getPassengerCount() )
+				unloadPassengers();
+				loadPassengers();
+				for (ElevatorObserver o : mObservers) {
 					o.elevatorDoorsOpened(this);
 				}
 				scheduleStateChange(ElevatorState.DOORS_CLOSING,(passengerChangeCount / 2) + 1);
@@ -162,57 +229,29 @@ public class Elevator implements FloorObserver {
 
 			case ACCELERATING:
 				getCurrentFloor().removeObserver(this);
-				scheduleStateChange(ElevatorState.MOVING,3);
+				// The first floor is always an event of its own, which puts us in the MOVING state.
+				travel(mSecondsPerFloor + 1, false);
 
 				return;
 
 			case MOVING:
-				if (mCurrentDirection == Direction.MOVING_UP) {
-					mCurrentFloor = mBuilding.getFloor(mCurrentFloor.getNumber() + 1);
-//					if (mCurrentFloor.getNumber() == mBuilding.getFloorCount() - 1) {
-//						scheduleStateChange(ElevatorState.DECELERATING, 2);
-//					}
-//					else
-					if (mRequestedFloors[mCurrentFloor.getNumber() - 1] ||
-						mCurrentFloor.directionIsPressed(Direction.MOVING_UP) ||
-						mCurrentFloor.getNumber() == mBuilding.getFloorCount()) {
-					scheduleStateChange(ElevatorState.DECELERATING,2);
-					}
-					else{
-						scheduleStateChange(ElevatorState.MOVING,2);
-					}
+				// The event arrives at the last floor of its leg, having passed the others; decide whether to stop.
+				mCurrentFloor = mBuilding.getFloor(mTravelStop);
+				mTravelling = false;
+				if (mustStopAt(mTravelStop)) {
+					scheduleStateChange(ElevatorState.DECELERATING, 2);
 				}
-				else /*if (mCurrentDirection == Direction.MOVING_DOWN) */{
-//					if (mCurrentDirection != Direction.MOVING_DOWN){
-//						System.out.println("\n\n-----------------------------------------------------------------------------------\n\n");
-//						System.out.println("ERROR: Case moving: Expected Direction Moving Down, Received " + mCurrentDirection);
-//						System.out.println("\n\n-----------------------------------------------------------------------------------\n\n");
-//					}
-//					if (mCurrentFloor.getNumber() == 1) {
-//					scheduleStateChange(ElevatorState.DECELERATING, 2);
-//					return;
-//					}
-					mCurrentFloor = mBuilding.getFloor(mCurrentFloor.getNumber() - 1);
-//					if (mCurrentFloor.getNumber() == 1) {
-//						scheduleStateChange(ElevatorState.DECELERATING, 2);
-//					}
-//					else
-					if (mRequestedFloors[mCurrentFloor.getNumber() - 1] ||
-		 					mCurrentFloor.directionIsPressed(Direction.MOVING_DOWN) ||
-							mCurrentFloor.getNumber() == 1) {
-						scheduleStateChange(ElevatorState.DECELERATING, 2);
-					} else {
-						scheduleStateChange(ElevatorState.MOVING, 2);
-					}
+				else {
+					travel(mSecondsPerFloor, mBuilding.getSimulation().isTravelCoalesced());
 				}
 				return;
 
 			case DECELERATING:
-				mRequestedFloors[mCurrentFloor.getNumber() - 1] = false;
+				mRequestedFloors.remove(mCurrentFloor.getNumber());
 				if ( mCurrentDirection == Direction.MOVING_UP ) {
 //					mCurrentFloor.clearDirection(Direction.MOVING_UP);
 					if (mCurrentFloor.directionIsPressed(Direction.MOVING_UP) || hasRequestedFloorsUp()) {
-						System.out.printf("");
+						// Keep going in the current direction.
 					} else if (mCurrentFloor.directionIsPressed(Direction.MOVING_DOWN)) {
 						mCurrentDirection = Direction.MOVING_DOWN;
 					}
@@ -232,7 +271,7 @@ public class Elevator implements FloorObserver {
 //						System.out.println("\n\n-----------------------------------------------------------------------------------\n\n");
 //					}
 					if (mCurrentFloor.directionIsPressed(Direction.MOVING_DOWN) || hasRequestedFloorsDown()) {
-						System.out.printf("");
+						// Keep going in the current direction.
 					} else if (mCurrentFloor.directionIsPressed(Direction.MOVING_UP)) {
 						mCurrentDirection = Direction.MOVING_UP;
 					}
@@ -258,22 +297,121 @@ public class Elevator implements FloorObserver {
 	}
 
 
-	private boolean hasRequestedFloorsUp(){
-		for(int i = mCurrentFloor.getNumber(); i < mBuilding.getFloorCount(); i++){
-			if (mRequestedFloors[i] == true) {
-				return true;
+	/**
+	 * Lets off the riders whose destination is the current floor, in the order they boarded. Only those riders are
+	 * notified that the doors opened. This runs before loadPassengers, so the room they free is there for boarding.
+	 */
+	private void unloadPassengers() {
+		ArrayList<Passenger> leaving = mRiders[mCurrentFloor.getNumber() - 1];
+		// Everyone in the bucket gets off here; rather than each removing itself, the bucket is emptied at the end.
+		mUnloading = leaving;
+		for (int i = 0; i < leaving.size(); i++) {
+			leaving.get(i).elevatorDoorsOpened(this);
+		}
+		leaving.clear();
+		mUnloading = null;
+	}
+
+	/**
+	 * Offers the doors to the passengers waiting on the current floor to travel in our direction, in the order they
+	 * arrived, until we are full; if we are not moving, both queues are offered, merged in arrival order. A passenger
+	 * that boards removes itself from the floor's queue. Everyone waiting when the doors open is offered, including
+	 * passengers who arrived after we started decelerating.
+	 */
+	private void loadPassengers() {
+		PassengerQueue upQueue = mCurrentFloor.getWaitingQueue(Direction.MOVING_UP);
+		PassengerQueue downQueue = mCurrentFloor.getWaitingQueue(Direction.MOVING_DOWN);
+		Passenger up = mCurrentDirection != Direction.MOVING_DOWN ? upQueue.peekFirst() : null;
+		Passenger down = mCurrentDirection != Direction.MOVING_UP ? downQueue.peekFirst() : null;
+		while ((up != null || down != null) && getPassengerCount() < getCapacity()) {
+			Passenger p;
+			if (down == null || (up != null && upQueue.arrivalOrder(up) < downQueue.arrivalOrder(down))) {
+				p = up;
+				up = upQueue.next(up);
+			}
+			else {
+				p = down;
+				down = downQueue.next(down);
 			}
+			p.elevatorDoorsOpened(this);
 		}
-		return false;
 	}
 
-	private boolean hasRequestedFloorsDown(){
-		for(int i = mCurrentFloor.getNumber() - 2; i >= 0; i--){
-			if (mRequestedFloors[i] == true) {
-				return true;
+	/**
+	 * Starts the next leg of the trip, reaching the next floor delay seconds from now. If coalescing, the leg runs to
+	 * the next floor we must stop at, and its one MOVING event executes there; otherwise it ends at the next floor,
+	 * which decides again. Either way each floor is decided on when we reach it, since hallCallPressed ends the leg
+	 * early when a button ahead is pressed in time.
+	 */
+	private void travel(long delay, boolean coalesce) {
+		int step = mCurrentDirection == Direction.MOVING_UP ? 1 : -1;
+		int stop = mCurrentFloor.getNumber() + step;
+		if (coalesce) {
+			while (!mustStopAt(stop)) {
+				stop += step;
 			}
 		}
-		return false;
+		mTravelStart = mBuilding.getSimulation().currentTime() + delay - mSecondsPerFloor;
+		scheduleTravel(stop);
+	}
+	
+	/**
+	 * Ends the current leg at the given floor: schedules its MOVING event for when we reach the floor, superseding the
+	 * event of the leg's previous end, if any.
+	 */
+	private void scheduleTravel(int stop) {
+		Simulation sim = mBuilding.getSimulation();
+		mStateGeneration++;
+		long arrival = mTravelStart + mSecondsPerFloor * Math.abs(stop - mCurrentFloor.getNumber());
+		mStateEvent = sim.scheduleEvent(ElevatorStateEvent.obtain(sim, arrival, ElevatorState.MOVING, this));
+		mTravelling = true;
+		mTravelStop = stop;
+	}
+	
+	/**
+	 * Returns true if we must stop on reaching the given floor in our current direction: a rider wants to get off,
+	 * someone there wants to go our way, or we cannot go any further.
+	 */
+	private boolean mustStopAt(int floor) {
+		if (mCurrentDirection == Direction.MOVING_UP) {
+			return mRequestedFloors.contains(floor) || mBuilding.getFloor(floor).directionIsPressed(Direction.MOVING_UP)
+			 || floor == mBuilding.getFloorCount();
+		}
+		return mRequestedFloors.contains(floor) || mBuilding.getFloor(floor).directionIsPressed(Direction.MOVING_DOWN)
+		 || floor == 1;
+	}
+	
+	/**
+	 * Called by the building when a hall button is newly pressed. If we are moving that way and have yet to pass the
+	 * floor, our leg now ends there, so we decide whether to stop when we reach it. A floor we reach this very second
+	 * has not been passed yet.
+	 */
+	public void hallCallPressed(Floor floor, Direction direction) {
+		if (!mTravelling || direction != mCurrentDirection) {
+			return;
+		}
+		int step = direction == Direction.MOVING_UP ? 1 : -1;
+		int ahead = (floor.getNumber() - mCurrentFloor.getNumber()) * step;
+		int length = (mTravelStop - mCurrentFloor.getNumber()) * step;
+		if (ahead > 0 && ahead < length
+		 && mTravelStart + mSecondsPerFloor * ahead >= mBuilding.getSimulation().currentTime()) {
+			scheduleTravel(floor.getNumber());
+		}
+	}
+	
+	/**
+	 * Takes back our pending state event after a restore from a snapshot.
+	 */
+	public void resumeStateEvent(ElevatorStateEvent ev) {
+		mStateEvent = new EventHandle(ev);
+	}
+
+	private boolean hasRequestedFloorsUp(){
+		return mRequestedFloors.anyAbove(mCurrentFloor.getNumber());
+	}
+
+	private boolean hasRequestedFloorsDown(){
+		return mRequestedFloors.anyBelow(mCurrentFloor.getNumber());
 	}
 
 	/**
@@ -282,22 +420,43 @@ public class Elevator implements FloorObserver {
 	public void dispatchTo(Floor floor) {
 //		System.out.println("============DISPATCH TO: " + floor.getNumber() + "===============");
 		// Done: if we are currently idle and not on the given floor, change our direction to move towards the floor.
-		if (mCurrentState == ElevatorState.IDLE_STATE && floor != getCurrentFloor()) {
+		if (isIdle() && floor != getCurrentFloor()) {
 			if (floor.getNumber() > mCurrentFloor.getNumber()){
 				mCurrentDirection = Direction.MOVING_UP;
 			}
 			else{
 				mCurrentDirection = Direction.MOVING_DOWN;
 			}
-			//TODO set floor request for given floor
-
 			// Done: set a floor request for the given floor, and schedule a state change to ACCELERATING immediately.
+			mRequestedFloors.add(floor.getNumber());
 			scheduleStateChange(ElevatorState.ACCELERATING, 0);
+			mBuilding.elevatorChanged(this);
+		}
+	}
+	
+	/**
+	 * Sends an idle elevator to answer a hall call: if the call is on our current floor we open our doors for it,
+	 * otherwise we travel to the floor.
+	 */
+	public void dispatchTo(Floor floor, Direction direction) {
+		if (floor == mCurrentFloor) {
+			directionRequested(floor, direction);
+		}
+		else {
+			dispatchTo(floor);
 		}
 	}
 	
 	// Simple accessors
 	public Floor getCurrentFloor() {
+		if (mTravelling) {
+			// The last floor reached so far; the leg's last floor is reached when its MOVING event executes.
+			int step = mCurrentDirection == Direction.MOVING_UP ? 1 : -1;
+			long reached = (mBuilding.getSimulation().currentTime() - mTravelStart) / mSecondsPerFloor;
+			int length = (mTravelStop - mCurrentFloor.getNumber()) * step;
+			int passed = (int) Math.max(0, Math.min(reached, length - 1));
+			return mBuilding.getFloor(mCurrentFloor.getNumber() + step * passed);
+		}
 		return mCurrentFloor;
 	}
 	
@@ -309,36 +468,70 @@ public class Elevator implements FloorObserver {
 		return mBuilding;
 	}
 	
+	public int getNumber() {
+		return mNumber;
+	}
+	
+	public ElevatorState getCurrentState() {
+		return mCurrentState;
+	}
+	
 	/**
-	 * Returns true if this elevator is in the idle state.
+	 * Gets the floors requested by passengers on board. Treat it as read-only; only the elevator updates it.
+	 */
+	public FloorSet getRequestedFloors() {
+		return mRequestedFloors;
+	}
+	
+	/**
+	 * Returns true if this elevator is in the idle state and has nothing scheduled to take it out of it. An elevator
+	 * that has just been dispatched or called to open its doors is still in the idle state until the change happens,
+	 * but is no longer idle.
 	 */
 	public boolean isIdle() {
-		if (mCurrentState == ElevatorState.IDLE_STATE){
-			return true;
-		}
-		return false;
+		return mCurrentState == ElevatorState.IDLE_STATE && (mStateEvent == null || !mStateEvent.isPending());
+	}
+	
+	/**
+	 * Gets the generation of our state events, which moves on each time we schedule one. A state event stamped with an
+	 * earlier generation has been superseded.
+	 */
+	public int getStateGeneration() {
+		return mStateGeneration;
 	}
 	
-	// All elevators have a capacity of 10, for now.
 	public int getCapacity() {
-		return 10;
+		return mCapacity;
+	}
+	
+	/**
+	 * Gets how many seconds we take to move from one floor to the next.
+	 */
+	public long getSecondsPerFloor() {
+		return mSecondsPerFloor;
 	}
 	
 	public int getPassengerCount() {
-		return mPassengers.size();
+		return mPassengerCount;
 	}
 	
 	// Simple mutators
 	public void setState(ElevatorState newState) {
+		Simulation sim = mBuilding.getSimulation();
+		sim.getMetrics().elevatorStateChanged(mNumber, sim.currentTime(), newState);
 		mCurrentState = newState;
+		// tick() moves the elevator and turns it around after this, in the same event, so views see those changes too.
+		mBuilding.elevatorChanged(this);
 	}
 	
 	public void setCurrentDirection(Direction direction) {
 		mCurrentDirection = direction;
+		mBuilding.elevatorChanged(this);
 	}
 	
 	public void setCurrentFloor(Floor floor) {
 		mCurrentFloor = floor;
+		mBuilding.elevatorChanged(this);
 	}
 	
 	// Observers
@@ -363,25 +556,90 @@ public class Elevator implements FloorObserver {
 	@Override
 	public void directionRequested(Floor sender, Direction direction) {
 		// Done: if we are currently idle, change direction to match the request. Then alert all our observers that we are decelerating,
-		if (mCurrentState == ElevatorState.IDLE_STATE){
+		// If we are already on our way out of idle, the call waits with the dispatcher until we are idle again.
+		if (isIdle()){
 			mCurrentDirection = direction;
+			mBuilding.elevatorChanged(this);
 
-//			for (int i = 0; i < mObservers.size(); i++){
-			ArrayList<ElevatorObserver> temp = new ArrayList<>(mObservers);
-			for (ElevatorObserver o : temp){
+			// Only the floor we are on cares that we are "arriving".
+			mCurrentFloor.elevatorDecelerating(this);
+			for (ElevatorObserver o : mObservers) {
 				o.elevatorDecelerating(this);
 			}
+			// Done: then schedule an immediate state change to DOORS_OPENING.
+			scheduleStateChange(ElevatorState.DOORS_OPENING, 0);
 		}
-		// Done: then schedule an immediate state change to DOORS_OPENING.
-		scheduleStateChange(ElevatorState.DOORS_OPENING, 0);
 	}
 
-	// Voodoo magic.
+	/**
+	 * Writes the elevator's state, direction, floor, the leg it is travelling, requested floors and riders. The riders
+	 * are written in destination order, and in boarding order within a destination, which is the order they leave in.
+	 */
+	public void writeSnapshot(SnapshotOutput out) {
+		out.writeByte(mCurrentState.ordinal());
+		out.writeByte(mCurrentDirection.ordinal());
+		out.writeVarint(mCurrentFloor.getNumber());
+		out.writeBoolean(mTravelling);
+		if (mTravelling) {
+			out.writeVarint(mTravelStop);
+			out.writeVarLong(mTravelStart - mBuilding.getSimulation().currentTime());
+		}
+		out.writeVarint(mRequestedFloors.size());
+		for (int f = mRequestedFloors.nextAbove(0); f != -1; f = mRequestedFloors.nextAbove(f)) {
+			out.writeVarint(f);
+		}
+		out.writeVarint(mPassengerCount);
+		for (ArrayList<Passenger> bucket : mRiders) {
+			for (Passenger p : bucket) {
+				out.writePassenger(p);
+			}
+		}
+	}
+	
+	/**
+	 * Restores what writeSnapshot wrote, into a newly constructed elevator, and reports the restored state and load to
+	 * the simulation's metrics.
+	 */
+	public void readSnapshot(SnapshotInput in) {
+		mCurrentState = ElevatorState.values()[in.readByte()];
+		mCurrentDirection = Direction.values()[in.readByte()];
+		mCurrentFloor = mBuilding.getFloor(in.readVarint());
+		mTravelling = in.readBoolean();
+		if (mTravelling) {
+			mTravelStop = in.readVarint();
+			mTravelStart = in.readVarLong() + mBuilding.getSimulation().currentTime();
+		}
+		// Our pending state event, if any, is read with the simulation's events.
+		mStateEvent = null;
+		mRequestedFloors.clear();
+		for (int n = in.readVarint(); n > 0; n--) {
+			mRequestedFloors.add(in.readVarint());
+		}
+		mPassengerCount = in.readVarint();
+		for (int n = mPassengerCount; n > 0; n--) {
+			Passenger p = in.readPassenger();
+			mRiders[p.getDestination() - 1].add(p);
+		}
+		
+		Simulation sim = mBuilding.getSimulation();
+		sim.getMetrics().elevatorStateChanged(mNumber, sim.currentTime(), mCurrentState);
+		sim.getMetrics().elevatorPassengersChanged(mNumber, sim.currentTime(), mPassengerCount);
+	}
+	
+	// Riders are listed by destination floor.
 	@Override
 	public String toString() {
-		return "Elevator " + mNumber + " - " + mCurrentFloor + " - " + mCurrentState + " - " + mCurrentDirection + " - "
-		 + "[" + mPassengers.stream().map(p -> Integer.toString(p.getDestination())).collect(Collectors.joining(", "))
-		 + "]" /*+ mPassengers.stream().map(p -> Integer.toString(p.getId())).collect(Collectors.joining(", ")) + "]"*/;
+		StringBuilder riders = new StringBuilder();
+		for (ArrayList<Passenger> bucket : mRiders) {
+			for (Passenger p : bucket) {
+				if (riders.length() > 0) {
+					riders.append(", ");
+				}
+				riders.append(p.getDestination());
+			}
+		}
+		return "Elevator " + mNumber + " - " + getCurrentFloor() + " - " + mCurrentState + " - " + mCurrentDirection + " - "
+		 + "[" + riders + "]";
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package cecs277.elevators;
+
+/**
+ * A set of floor numbers (1 to N) packed into 64-bit words. Membership and updates are O(1), the size is kept as a
+ * running count, and "next floor above/below" queries take O(N / 64) word operations instead of a scan of every
+ * floor.
+ */
+public class FloorSet {
+	private long[] mWords;
+	private int mFloorCount;
+	private int mSize;
+
+	public FloorSet(int floorCount) {
+		mFloorCount = floorCount;
+		mWords = new long[(floorCount + 63) >>> 6];
+	}
+
+	/**
+	 * Adds the floor to the set. Returns true if it was not already in the set.
+	 */
+	public boolean add(int floor) {
+		int bit = index(floor);
+		long mask = 1L << bit;
+		long word = mWords[bit >>> 6];
+		if ((word & mask) != 0) {
+			return false;
+		}
+		mWords[bit >>> 6] = word | mask;
+		mSize++;
+		return true;
+	}
+
+	/**
+	 * Removes the floor from the set. Returns true if it was in the set.
+	 */
+	public boolean remove(int floor) {
+		int bit = index(floor);
+		long mask = 1L << bit;
+		long word = mWords[bit >>> 6];
+		if ((word & mask) == 0) {
+			return false;
+		}
+		mWords[bit >>> 6] = word & ~mask;
+		mSize--;
+		return true;
+	}
+
+	public boolean contains(int floor) {
+		int bit = index(floor);
+		return (mWords[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < mWords.length; i++) {
+			mWords[i] = 0;
+		}
+		mSize = 0;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	/**
+	 * Gets the lowest floor in the set that is above the given floor, or -1 if there is none.
+	 */
+	public int nextAbove(int floor) {
+		if (mSize == 0 || floor >= mFloorCount) {
+			return -1;
+		}
+		// Bit index of floor + 1 is floor itself.
+		int bit = Math.max(floor, 0);
+		int w = bit >>> 6;
+		long word = mWords[w] & (-1L << bit);
+		while (word == 0) {
+			if (++w == mWords.length) {
+				return -1;
+			}
+			word = mWords[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word) + 1;
+	}
+
+	/**
+	 * Gets the highest floor in the set that is below the given floor, or -1 if there is none.
+	 */
+	public int nextBelow(int floor) {
+		if (mSize == 0 || floor <= 1) {
+			return -1;
+		}
+		// Bit index of floor - 1 is floor - 2.
+		int bit = Math.min(floor, mFloorCount + 1) - 2;
+		int w = bit >>> 6;
+		long word = mWords[w] & (-1L >>> (63 - (bit & 63)));
+		while (word == 0) {
+			if (--w < 0) {
+				return -1;
+			}
+			word = mWords[w];
+		}
+		return (w << 6) + 63 - Long.numberOfLeadingZeros(word) + 1;
+	}
+
+	public boolean anyAbove(int floor) {
+		return nextAbove(floor) != -1;
+	}
+
+	public boolean anyBelow(int floor) {
+		return nextBelow(floor) != -1;
+	}
+
+	/**
+	 * Counts the floors in the set that are strictly between the two given floors.
+	 */
+	public int countBetween(int low, int high) {
+		// Floors low + 1 through high - 1 are bits low through high - 2.
+		int from = Math.max(low, 0);
+		int to = Math.min(high - 2, mFloorCount - 1);
+		if (from > to) {
+			return 0;
+		}
+		int first = from >>> 6;
+		int last = to >>> 6;
+		int count = 0;
+		for (int w = first; w <= last; w++) {
+			long word = mWords[w];
+			if (w == first) {
+				word &= -1L << from;
+			}
+			if (w == last) {
+				word &= -1L >>> (63 - (to & 63));
+			}
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	private int index(int floor) {
+		if (floor < 1 || floor > mFloorCount) {
+			throw new IndexOutOfBoundsException("Floor " + floor + " is not between 1 and " + mFloorCount);
+		}
+		return floor - 1;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("[");
+		for (int f = nextAbove(0); f != -1; f = nextAbove(f)) {
+			if (b.length() > 1) {
+				b.append(", ");
+			}
+			b.append(f);
+		}
+		return b.append("]").toString();
+	}
+}
@@ -0,0 +1,131 @@
+package cecs277.events;
+
+import cecs277.Simulation;
+import cecs277.arrivals.ArrivalBatch;
+import cecs277.arrivals.ArrivalGenerator;
+import cecs277.buildings.Building;
+import cecs277.passengers.Passenger;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A simulation event that spawns passengers from a BatchedArrivalProcess, through the simulation's own
+ * ArrivalGenerator. It generates the arrivals of one window of time in a single pass, then spawns every group due at
+ * each second in one execution and reschedules itself for the next second with an arrival; after the last, it
+ * generates the next window. The event queue sees one event per busy second instead of one per passenger, and the same
+ * event object is reused all day, so it is not pooled.
+ *
+ * Every spawned passenger is a visitor, travelling from their group's origin to its destination; a visitor who did not
+ * start on the lobby leaves the building when they next reach it.
+ */
+public class ArrivalBatchEvent extends SimulationEvent {
+	private Building mBuilding;
+	private ArrivalBatch mBatch = new ArrivalBatch();
+	// The next arrival of mBatch to spawn.
+	private int mNext;
+	// The time the generated window ends, exclusive; arrivals from here on are not generated yet.
+	private long mWindowEnd;
+	// When the event last executed; it has been rescheduled by the time it is recorded and traced.
+	private long mExecutedTime;
+	// The passengers spawned by the last execution, and the floor each was spawned on.
+	private ArrayList<Passenger> mSpawned = new ArrayList<>();
+	private int[] mSpawnedFloors = new int[16];
+	
+	/**
+	 * Constructs an event that starts generating arrivals at the given time.
+	 */
+	public ArrivalBatchEvent(long scheduledTime, Building building) {
+		super(scheduledTime);
+		mBuilding = building;
+		mWindowEnd = scheduledTime;
+	}
+	
+	@Override
+	public void execute(Simulation sim) {
+		mSpawned.clear();
+		long now = sim.currentTime();
+		mExecutedTime = now;
+		while (mNext < mBatch.size() && mBatch.getTime(mNext) <= now) {
+			spawnGroup(sim, mNext++);
+		}
+		
+		if (mNext == mBatch.size()) {
+			ArrivalGenerator arrivals = sim.getArrivalGenerator();
+			long from = Math.max(mWindowEnd, now);
+			mWindowEnd = from + arrivals.getBatchLength();
+			mBatch.clear();
+			mNext = 0;
+			arrivals.generate(sim.getRandom(), from, mWindowEnd, mBuilding.getFloorCount(), mBatch);
+		}
+		// A window with no arrivals just wakes the event at its end to generate the next one.
+		setScheduledTime(mNext < mBatch.size() ? mBatch.getTime(mNext) : mWindowEnd);
+		sim.scheduleEvent(this);
+	}
+	
+	private void spawnGroup(Simulation sim, int arrival) {
+		int origin = mBatch.getOrigin(arrival);
+		for (int k = mBatch.getGroupSize(arrival); k > 0; k--) {
+			Passenger p = SpawnPassengerEvent.newVisitor(mBuilding, mBatch.getDestination(arrival));
+			sim.passengerSpawned();
+			mBuilding.getFloor(origin).addWaitingPassenger(p);
+			if (mSpawned.size() == mSpawnedFloors.length) {
+				mSpawnedFloors = Arrays.copyOf(mSpawnedFloors, mSpawnedFloors.length * 2);
+			}
+			mSpawnedFloors[mSpawned.size()] = origin;
+			mSpawned.add(p);
+		}
+	}
+	
+	@Override
+	public void record(EventLogWriter log) {
+		for (int i = 0; i < mSpawned.size(); i++) {
+			log.passengerSpawned(mExecutedTime, mSpawned.get(i), mBuilding.getFloor(mSpawnedFloors[i]));
+		}
+	}
+	
+	/**
+	 * Writes the arrivals generated but not spawned yet, so a restored simulation spawns exactly the same ones.
+	 */
+	@Override
+	public void writeSnapshot(SnapshotOutput out, long now) {
+		out.writeByte(SNAPSHOT_ARRIVAL_BATCH);
+		out.writeVarLong(getScheduledTime() - now);
+		out.writeVarLong(mWindowEnd - now);
+		out.writeVarint(mBatch.size() - mNext);
+		for (int i = mNext; i < mBatch.size(); i++) {
+			out.writeVarLong(mBatch.getTime(i) - now);
+			out.writeVarint(mBatch.getOrigin(i));
+			out.writeVarint(mBatch.getDestination(i));
+			out.writeVarint(mBatch.getGroupSize(i));
+		}
+	}
+	
+	static ArrivalBatchEvent readSnapshot(SnapshotInput in, long time, Building building) {
+		long now = building.getSimulation().currentTime();
+		ArrivalBatchEvent ev = new ArrivalBatchEvent(time, building);
+		ev.mWindowEnd = now + in.readVarLong();
+		for (int n = in.readVarint(); n > 0; n--) {
+			ev.mBatch.add(now + in.readVarLong(), in.readVarint(), in.readVarint(), in.readVarint());
+		}
+		return ev;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder().append(mExecutedTime).append("s: ");
+		if (mSpawned.isEmpty()) {
+			return s.append("Generating arrivals until ").append(mWindowEnd).append("s.").toString();
+		}
+		for (int i = 0; i < mSpawned.size(); i++) {
+			s.append(i == 0 ? "Adding " : ", ").append(mSpawned.get(i));
+			if (i + 1 == mSpawned.size() || mSpawnedFloors[i + 1] != mSpawnedFloors[i]) {
+				s.append(" to floor ").append(mSpawnedFloors[i]);
+			}
+		}
+		return s.append('.').toString();
+	}
+}
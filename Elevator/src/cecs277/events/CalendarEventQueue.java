@@ -0,0 +1,148 @@
+package cecs277.events;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A calendar queue specialized for the simulation's one-second clock. Events in the next {bucketCount} seconds live in
+ * a ring of FIFO buckets, one bucket per second, so scheduling and polling them is O(1) and events at the same time
+ * come out in insertion order for free. Events further out than that (passengers reappearing hours later) wait in a
+ * heap, and are moved into their bucket once the window reaches them.
+ */
+public class CalendarEventQueue implements EventQueue {
+	public static final int DEFAULT_BUCKET_COUNT = 1024;
+
+	private ArrayDeque<SimulationEvent>[] mBuckets;
+	private int mMask;
+	// The earliest time the window covers; the window is [mBase, mBase + bucket count).
+	private long mBase;
+	// No bucket before this time holds an event. Always within the window.
+	private long mCursor;
+	private int mWindowCount;
+	private PriorityQueue<SimulationEvent> mOverflow = new PriorityQueue<>();
+	private long mNextSequenceNumber;
+
+	public CalendarEventQueue() {
+		this(DEFAULT_BUCKET_COUNT);
+	}
+
+	/**
+	 * Constructs a queue whose window covers the given number of seconds, which must be a power of 2.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public CalendarEventQueue(int bucketCount) {
+		if (bucketCount <= 0 || Integer.bitCount(bucketCount) != 1) {
+			throw new IllegalArgumentException("Bucket count must be a power of 2, got " + bucketCount);
+		}
+		mBuckets = (ArrayDeque<SimulationEvent>[]) new ArrayDeque[bucketCount];
+		mMask = bucketCount - 1;
+	}
+
+	/**
+	 * Adds an event to its bucket, or to the heap if it is beyond the window. An event scheduled before the window has
+	 * no bucket, and is rejected with an IllegalArgumentException; events scheduled from a random duration must clamp
+	 * it at zero, as SpawnPassengerEvent does.
+	 */
+	@Override
+	public void add(SimulationEvent ev) {
+		long time = ev.getScheduledTime();
+		if (time < mBase) {
+			throw new IllegalArgumentException("Cannot schedule an event at " + time + "s, the queue is already at "
+			 + mBase + "s");
+		}
+		ev.setSequenceNumber(mNextSequenceNumber++);
+
+		if (time - mBase < mBuckets.length) {
+			addToBucket(ev);
+		}
+		else {
+			mOverflow.add(ev);
+		}
+	}
+
+	@Override
+	public SimulationEvent peek() {
+		SimulationEvent ev = firstInWindow();
+		return ev != null ? ev : mOverflow.peek();
+	}
+
+	@Override
+	public SimulationEvent poll() {
+		if (mWindowCount == 0) {
+			if (mOverflow.isEmpty()) {
+				return null;
+			}
+			// Nothing is due soon; jump the window straight to the next far-off event.
+			advanceBase(mOverflow.peek().getScheduledTime());
+		}
+
+		SimulationEvent ev = firstInWindow();
+		mBuckets[(int)mCursor & mMask].pollFirst();
+		mWindowCount--;
+		if (mCursor > mBase) {
+			advanceBase(mCursor);
+		}
+		return ev;
+	}
+
+	@Override
+	public int size() {
+		return mWindowCount + mOverflow.size();
+	}
+
+	@Override
+	public void forEach(Consumer<? super SimulationEvent> action) {
+		for (ArrayDeque<SimulationEvent> bucket : mBuckets) {
+			if (bucket != null) {
+				bucket.forEach(action);
+			}
+		}
+		mOverflow.forEach(action);
+	}
+
+	private void addToBucket(SimulationEvent ev) {
+		long time = ev.getScheduledTime();
+		int index = (int)time & mMask;
+		ArrayDeque<SimulationEvent> bucket = mBuckets[index];
+		if (bucket == null) {
+			bucket = new ArrayDeque<>();
+			mBuckets[index] = bucket;
+		}
+		bucket.addLast(ev);
+		mWindowCount++;
+		if (time < mCursor) {
+			mCursor = time;
+		}
+	}
+
+	/**
+	 * Moves the cursor to the first non-empty bucket and returns its first event, or null if the window is empty.
+	 */
+	private SimulationEvent firstInWindow() {
+		if (mWindowCount == 0) {
+			return null;
+		}
+		ArrayDeque<SimulationEvent> bucket = mBuckets[(int)mCursor & mMask];
+		while (bucket == null || bucket.isEmpty()) {
+			mCursor++;
+			bucket = mBuckets[(int)mCursor & mMask];
+		}
+		return bucket.peekFirst();
+	}
+
+	/**
+	 * Slides the window forward to start at the given time, pulling every overflow event that now falls inside it into
+	 * its bucket. Overflow events come out of the heap in (time, sequence) order, and no event for their second can
+	 * have been added to a bucket before them, so FIFO order within each bucket is preserved.
+	 */
+	private void advanceBase(long time) {
+		mBase = time;
+		if (mCursor < time) {
+			mCursor = time;
+		}
+		while (!mOverflow.isEmpty() && mOverflow.peek().getScheduledTime() - mBase < mBuckets.length) {
+			addToBucket(mOverflow.poll());
+		}
+	}
+}
@@ -2,6 +2,8 @@ package cecs277.events;
 
 import cecs277.Simulation;
 import cecs277.elevators.Elevator;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
 
 /**
  * A simulation event that sets an elevator's state and calls its tick() method.
@@ -9,18 +11,91 @@ import cecs277.elevators.Elevator;
 public class ElevatorStateEvent extends SimulationEvent {
 	private Elevator.ElevatorState mNewState;
 	private Elevator mElevator;
+	// The elevator's state generation when the event was made; once the elevator moves past it, the event is stale.
+	private int mStateGeneration;
 	
 	public ElevatorStateEvent(long scheduledTime, Elevator.ElevatorState newState, Elevator elevator) {
 		super(scheduledTime);
 		mNewState = newState;
 		mElevator = elevator;
+		mStateGeneration = elevator.getStateGeneration();
 	}
+	
+	// For the event pool.
+	ElevatorStateEvent() {
+		super(0);
+	}
+	
+	/**
+	 * Constructs an empty pool of ElevatorStateEvents.
+	 */
+	public static EventPool<ElevatorStateEvent> newPool() {
+		return new EventPool<>(ElevatorStateEvent::new);
+	}
+	
+	/**
+	 * Gets an ElevatorStateEvent from the simulation's pool, initialized with the given values.
+	 */
+	public static ElevatorStateEvent obtain(Simulation sim, long scheduledTime, Elevator.ElevatorState newState,
+	 Elevator elevator) {
+		ElevatorStateEvent ev = sim.getElevatorStateEvents().obtain();
+		ev.setScheduledTime(scheduledTime);
+		ev.mNewState = newState;
+		ev.mElevator = elevator;
+		ev.mStateGeneration = elevator.getStateGeneration();
+		return ev;
+	}
+	
+	/**
+	 * Gets the state the event puts its elevator in.
+	 */
+	public Elevator.ElevatorState getNewState() {
+		return mNewState;
+	}
+	
+	/**
+	 * Also returns true if the elevator has scheduled a later state event since this one, superseding it.
+	 */
+	@Override
+	public boolean isCancelled() {
+		return super.isCancelled() || mStateGeneration != mElevator.getStateGeneration();
+	}
+	
 	@Override
 	public void execute(Simulation sim) {
 		mElevator.setState(mNewState);
 		mElevator.tick();
 	}
 	
+	@Override
+	public void record(EventLogWriter log) {
+		log.elevatorState(getScheduledTime(), mElevator);
+	}
+	
+	@Override
+	public void writeSnapshot(SnapshotOutput out, long now) {
+		out.writeByte(SNAPSHOT_ELEVATOR_STATE);
+		out.writeVarLong(getScheduledTime() - now);
+		out.writeByte(mNewState.ordinal());
+		out.writeVarint(mElevator.getNumber());
+	}
+	
+	/**
+	 * Rebuilds an event read from a snapshot, and hands it back to its elevator, which was restored first: it is the
+	 * elevator's one live state event.
+	 */
+	static ElevatorStateEvent readSnapshot(Simulation sim, long time, Elevator.ElevatorState state, Elevator elevator) {
+		ElevatorStateEvent ev = obtain(sim, time, state, elevator);
+		elevator.resumeStateEvent(ev);
+		return ev;
+	}
+	
+	@Override
+	protected void clear() {
+		mNewState = null;
+		mElevator = null;
+	}
+	
 	@Override
 	public String toString() {
 		return super.toString() + mElevator;
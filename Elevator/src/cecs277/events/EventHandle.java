@@ -0,0 +1,38 @@
+package cecs277.events;
+
+/**
+ * Refers to one scheduling of an event, returned by Simulation.scheduleEvent, and can cancel it. A cancelled event
+ * stays in the queue until it comes up, and is then dropped without executing. The handle stops applying once the
+ * event leaves the queue, so a handle kept after that can neither see nor cancel whatever the event is reused for.
+ */
+public final class EventHandle {
+	private final SimulationEvent mEvent;
+	// The event's generation when the handle was taken; the event moves on to the next when it leaves the queue.
+	private final int mGeneration;
+
+	/**
+	 * Constructs a handle to the given event as it is now, scheduled or about to be.
+	 */
+	public EventHandle(SimulationEvent event) {
+		mEvent = event;
+		mGeneration = event.getGeneration();
+	}
+
+	/**
+	 * Returns true if the event has yet to execute and has not been cancelled or superseded.
+	 */
+	public boolean isPending() {
+		return mEvent.getGeneration() == mGeneration && !mEvent.isCancelled();
+	}
+
+	/**
+	 * Cancels the event, if it is still pending. Returns true if it was.
+	 */
+	public boolean cancel() {
+		if (!isPending()) {
+			return false;
+		}
+		mEvent.cancel();
+		return true;
+	}
+}
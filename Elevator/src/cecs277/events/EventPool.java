@@ -0,0 +1,74 @@
+package cecs277.events;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * A free list of reusable events of one type. Each Simulation owns one pool per pooled event type; the simulation loop
+ * recycles every event after executing it, and the event's static obtain() method takes an instance back out of the
+ * pool instead of allocating a new one.
+ */
+public class EventPool<T extends SimulationEvent> {
+	public enum Mode {
+		// Every obtain() allocates a new event, and recycling does nothing.
+		OFF,
+		// Executed events are reused.
+		ON,
+		// Executed events are marked as recycled but never reused, so any later use of a stale reference is caught.
+		DEBUG
+	}
+
+	private Supplier<T> mFactory;
+	private ArrayList<T> mFree = new ArrayList<>();
+	private Mode mMode = Mode.OFF;
+	private long mAllocated;
+
+	public EventPool(Supplier<T> factory) {
+		mFactory = factory;
+	}
+
+	public void setMode(Mode mode) {
+		mMode = mode;
+		if (mode != Mode.ON) {
+			mFree.clear();
+		}
+	}
+
+	public Mode getMode() {
+		return mMode;
+	}
+
+	/**
+	 * Gets the number of events this pool has had to allocate. Stops growing once the pool reaches a steady state.
+	 */
+	public long getAllocatedCount() {
+		return mAllocated;
+	}
+
+	/**
+	 * Returns an event ready to be initialized, reusing a recycled one if possible.
+	 */
+	T obtain() {
+		T ev;
+		if (mFree.isEmpty()) {
+			ev = mFactory.get();
+			mAllocated++;
+		}
+		else {
+			ev = mFree.remove(mFree.size() - 1);
+		}
+		ev.setPool(mMode == Mode.OFF ? null : this);
+		return ev;
+	}
+
+	@SuppressWarnings("unchecked")
+	void release(SimulationEvent ev) {
+		if (ev.isRecycled()) {
+			throw new IllegalStateException("Event " + ev.getClass().getSimpleName() + " was recycled twice");
+		}
+		ev.markRecycled();
+		if (mMode == Mode.ON) {
+			mFree.add((T)ev);
+		}
+	}
+}
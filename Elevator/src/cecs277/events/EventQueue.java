@@ -0,0 +1,37 @@
+package cecs277.events;
+
+import java.util.function.Consumer;
+
+/**
+ * The pending events of a Simulation. Events come out in order of scheduled time; events with the same scheduled time
+ * come out in the order they were added, so a simulation with a given seed always executes the same sequence of
+ * events. Implementations stamp each event with its sequence number when it is added.
+ */
+public interface EventQueue {
+	/**
+	 * Adds an event to the queue. The event must not be scheduled earlier than the last event polled.
+	 */
+	void add(SimulationEvent ev);
+
+	/**
+	 * Returns the next event without removing it, or null if the queue is empty.
+	 */
+	SimulationEvent peek();
+
+	/**
+	 * Removes and returns the next event, or null if the queue is empty.
+	 */
+	SimulationEvent poll();
+
+	int size();
+
+	/**
+	 * Passes every pending event to the given action, in no particular order, without removing them. The action must
+	 * not add or remove events.
+	 */
+	void forEach(Consumer<? super SimulationEvent> action);
+
+	default boolean isEmpty() {
+		return size() == 0;
+	}
+}
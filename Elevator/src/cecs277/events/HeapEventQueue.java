@@ -0,0 +1,38 @@
+package cecs277.events;
+
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * An EventQueue backed by a binary heap. O(log n) per operation; kept as the reference implementation.
+ */
+public class HeapEventQueue implements EventQueue {
+	private PriorityQueue<SimulationEvent> mEvents = new PriorityQueue<>();
+	private long mNextSequenceNumber;
+
+	@Override
+	public void add(SimulationEvent ev) {
+		ev.setSequenceNumber(mNextSequenceNumber++);
+		mEvents.add(ev);
+	}
+
+	@Override
+	public SimulationEvent peek() {
+		return mEvents.peek();
+	}
+
+	@Override
+	public SimulationEvent poll() {
+		return mEvents.poll();
+	}
+
+	@Override
+	public int size() {
+		return mEvents.size();
+	}
+
+	@Override
+	public void forEach(Consumer<? super SimulationEvent> action) {
+		mEvents.forEach(action);
+	}
+}
@@ -3,6 +3,8 @@ package cecs277.events;
 import cecs277.Simulation;
 import cecs277.buildings.Floor;
 import cecs277.passengers.Passenger;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
 
 /**
  * A simulation event that adds an existing passenger to a given floor, as if they have finished with their
@@ -18,6 +20,30 @@ public class PassengerNextDestinationEvent extends SimulationEvent {
 		mStartingFloor = startingFloor;
 	}
 	
+	// For the event pool.
+	PassengerNextDestinationEvent() {
+		super(0);
+	}
+	
+	/**
+	 * Constructs an empty pool of PassengerNextDestinationEvents.
+	 */
+	public static EventPool<PassengerNextDestinationEvent> newPool() {
+		return new EventPool<>(PassengerNextDestinationEvent::new);
+	}
+	
+	/**
+	 * Gets a PassengerNextDestinationEvent from the simulation's pool, initialized with the given values.
+	 */
+	public static PassengerNextDestinationEvent obtain(Simulation sim, long scheduledTime, Passenger passenger,
+	 Floor startingFloor) {
+		PassengerNextDestinationEvent ev = sim.getPassengerNextDestinationEvents().obtain();
+		ev.setScheduledTime(scheduledTime);
+		ev.mPassenger = passenger;
+		ev.mStartingFloor = startingFloor;
+		return ev;
+	}
+	
 	
 	@Override
 	public void execute(Simulation sim) {
@@ -25,6 +51,25 @@ public class PassengerNextDestinationEvent extends SimulationEvent {
 		mStartingFloor.addWaitingPassenger(mPassenger);
 	}
 	
+	@Override
+	public void record(EventLogWriter log) {
+		log.passengerNextDestination(getScheduledTime(), mPassenger, mStartingFloor);
+	}
+	
+	@Override
+	public void writeSnapshot(SnapshotOutput out, long now) {
+		out.writeByte(SNAPSHOT_PASSENGER_NEXT_DESTINATION);
+		out.writeVarLong(getScheduledTime() - now);
+		out.writePassenger(mPassenger);
+		out.writeVarint(mStartingFloor.getNumber());
+	}
+	
+	@Override
+	protected void clear() {
+		mPassenger = null;
+		mStartingFloor = null;
+	}
+	
 	@Override
 	public String toString() {
 		return super.toString() + "Passenger " + mPassenger.getId() + " joining floor " + mStartingFloor.getNumber() +
@@ -1,14 +1,34 @@
 package cecs277.events;
 
 import cecs277.Simulation;
+import cecs277.buildings.Building;
+import cecs277.elevators.Elevator;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
 
 /**
  * Represents an event that occurs in the simulation, which acts to update the state of the simulation in some way.
  * Derived types code the "update" logic by overriding the execute method.
  */
 public abstract class SimulationEvent implements Comparable<SimulationEvent> {
+	// The first byte of each event in a snapshot.
+	static final int SNAPSHOT_ELEVATOR_STATE = 0;
+	static final int SNAPSHOT_PASSENGER_NEXT_DESTINATION = 1;
+	static final int SNAPSHOT_SPAWN_PASSENGER = 2;
+	static final int SNAPSHOT_WALK_IN = 3;
+	static final int SNAPSHOT_ARRIVAL_BATCH = 4;
+	
 	// The time at which this event is scheduled to be executed.
 	private long mScheduledTime;
+	// The order in which this event was added to its queue, used to break ties between events at the same time.
+	private long mSequenceNumber;
+	// The pool this event returns to when recycled, or null if the event is not pooled.
+	private EventPool<?> mPool;
+	private boolean mRecycled;
+	// Bumped each time the event leaves the queue, so handles to earlier schedulings of it stop applying.
+	private int mGeneration;
+	private boolean mCancelled;
 	
 	/**
 	 * Sets the scheduled time of the event.
@@ -25,6 +45,83 @@ public abstract class SimulationEvent implements Comparable<SimulationEvent> {
 		return mScheduledTime;
 	}
 	
+	/**
+	 * Gets the insertion order of this event in its queue. Assigned by the EventQueue when the event is scheduled.
+	 */
+	public long getSequenceNumber() {
+		return mSequenceNumber;
+	}
+	
+	void setSequenceNumber(long sequenceNumber) {
+		mSequenceNumber = sequenceNumber;
+	}
+	
+	void setScheduledTime(long scheduledTime) {
+		mScheduledTime = scheduledTime;
+	}
+	
+	void setPool(EventPool<?> pool) {
+		mPool = pool;
+		mRecycled = false;
+	}
+	
+	void markRecycled() {
+		mRecycled = true;
+		clear();
+	}
+	
+	/**
+	 * Returns true if this event has been returned to its pool, and must no longer be scheduled or executed.
+	 */
+	public boolean isRecycled() {
+		return mRecycled;
+	}
+	
+	/**
+	 * Gets the event's generation, which EventHandles compare to tell whether the scheduling they refer to is over.
+	 */
+	int getGeneration() {
+		return mGeneration;
+	}
+	
+	void cancel() {
+		mCancelled = true;
+	}
+	
+	/**
+	 * Returns true if the event has been cancelled, and must be dropped instead of executed when it comes up. Events
+	 * that can be superseded without a handle override this to also check whether they have been.
+	 */
+	public boolean isCancelled() {
+		return mCancelled;
+	}
+	
+	/**
+	 * Called by the Simulation when the event comes out of the queue to execute or to be dropped, and is no longer
+	 * pending. Handles to it stop applying, and it can be scheduled again.
+	 */
+	public void dequeued() {
+		mGeneration++;
+		mCancelled = false;
+	}
+	
+	/**
+	 * Returns this event to the pool it was obtained from, if any. Called by the Simulation after the event executes
+	 * or is dropped; nothing but an EventHandle may hold on to a pooled event after that.
+	 */
+	public void recycle() {
+		if (mPool != null) {
+			mPool.release(this);
+		}
+	}
+	
+	/**
+	 * Called when the event is recycled. Pooled events override this to drop their references, so a recycled event
+	 * does not keep passengers or elevators reachable.
+	 */
+	protected void clear() {
+	}
+	
 	/**
 	 *
 	 * @param sim
@@ -32,11 +129,53 @@ public abstract class SimulationEvent implements Comparable<SimulationEvent> {
 	public abstract void execute(Simulation sim);
 	
 	/**
-	 * Used for sorting a priority queue, with the smallest scheduled time coming out first.
+	 * Writes what this event did to a binary event log. Called by the Simulation right after the event executes, if
+	 * the simulation has an event log. Events that change nothing the log tracks write nothing.
+	 */
+	public void record(EventLogWriter log) {
+	}
+	
+	/**
+	 * Writes this pending event to a snapshot: a type byte, the seconds until it is due, then whatever the type needs
+	 * to be rebuilt. Every event type must say how it is written; one that cannot be restored by readSnapshot, such as
+	 * a test or benchmark event, throws an UnsupportedOperationException.
+	 */
+	public abstract void writeSnapshot(SnapshotOutput out, long now);
+	
+	/**
+	 * Reads an event written by writeSnapshot, obtaining it from the given simulation's pools. The simulation's clock
+	 * and building must already be restored.
+	 */
+	public static SimulationEvent readSnapshot(SnapshotInput in, Simulation sim) {
+		int type = in.readByte();
+		long time = sim.currentTime() + in.readVarLong();
+		Building building = sim.getBuilding();
+		switch (type) {
+			case SNAPSHOT_ELEVATOR_STATE:
+				Elevator.ElevatorState state = Elevator.ElevatorState.values()[in.readByte()];
+				return ElevatorStateEvent.readSnapshot(sim, time, state, building.getElevator(in.readVarint()));
+			case SNAPSHOT_PASSENGER_NEXT_DESTINATION:
+				return PassengerNextDestinationEvent.obtain(sim, time, in.readPassenger(),
+				 building.getFloor(in.readVarint()));
+			case SNAPSHOT_SPAWN_PASSENGER:
+				return SpawnPassengerEvent.obtain(sim, time, building);
+			case SNAPSHOT_WALK_IN:
+				return new WalkInEvent(time, building);
+			case SNAPSHOT_ARRIVAL_BATCH:
+				return ArrivalBatchEvent.readSnapshot(in, time, building);
+			default:
+				throw new IllegalArgumentException("Unknown event type " + type + " in snapshot");
+		}
+	}
+	
+	/**
+	 * Used for sorting a priority queue, with the smallest scheduled time coming out first. Events at the same time
+	 * come out in the order they were scheduled.
 	 */
 	@Override
 	public int compareTo(SimulationEvent o) {
-		return Long.compare(mScheduledTime, o.mScheduledTime);
+		int c = Long.compare(mScheduledTime, o.mScheduledTime);
+		return c != 0 ? c : Long.compare(mSequenceNumber, o.mSequenceNumber);
 	}
 	
 	@Override
@@ -3,10 +3,10 @@ package cecs277.events;
 import cecs277.buildings.Building;
 import cecs277.passengers.Passenger;
 import cecs277.Simulation;
-import cecs277.passengers.VisitorPassenger;
 import cecs277.passengers.WorkerPassenger;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 /**
@@ -25,48 +25,103 @@ public class SpawnPassengerEvent extends SimulationEvent {
 		mBuilding = building;
 	}
 	
+	// For the event pool.
+	SpawnPassengerEvent() {
+		super(0);
+	}
+	
+	/**
+	 * Constructs an empty pool of SpawnPassengerEvents.
+	 */
+	public static EventPool<SpawnPassengerEvent> newPool() {
+		return new EventPool<>(SpawnPassengerEvent::new);
+	}
+	
+	/**
+	 * Gets a SpawnPassengerEvent from the simulation's pool, initialized with the given values.
+	 */
+	public static SpawnPassengerEvent obtain(Simulation sim, long scheduledTime, Building building) {
+		SpawnPassengerEvent ev = sim.getSpawnPassengerEvents().obtain();
+		ev.setScheduledTime(scheduledTime);
+		ev.mBuilding = building;
+		return ev;
+	}
+	
 	@Override
 	public String toString() {
 		return super.toString() + "Adding " + mPassenger + " to floor 1.";
 	}
 	
+	@Override
+	protected void clear() {
+		mPassenger = null;
+		mBuilding = null;
+	}
+	
 	@Override
 	public void execute(Simulation sim) {
 		Random r = mBuilding.getSimulation().getRandom();
 		
 		// 75% of all passengers are normal Visitors.
 		if (r.nextInt(4) <= 2) {
-			mPassenger = getVisitor();
+			mPassenger = newVisitor(mBuilding);
 		}
 		else {
 			mPassenger = getWorker();
 		}
+		sim.passengerSpawned();
 		mBuilding.getFloor(1).addWaitingPassenger(mPassenger);
 
 		/*
 		 DONE: schedule the new SpawnPassengerEvent with the simulation. Construct a new SpawnPassengerEvent
-		 with a scheduled time that is X seconds in the future, where X is a uniform random integer from
-		 1 to 30 inclusive.
+		 with a scheduled time that is X seconds in the future, where X comes from the simulation's arrival process
+		 (by default a uniform random integer from 1 to 30 inclusive).
 		*/
-		mBuilding.getSimulation().scheduleEvent(new SpawnPassengerEvent(sim.currentTime() + r.nextInt(30) + 1, mBuilding));
+		long interval = sim.getArrivals().nextInterval(r, sim.currentTime());
+		sim.scheduleEvent(obtain(sim, sim.currentTime() + interval, mBuilding));
 
 	}
 	
+	@Override
+	public void writeSnapshot(SnapshotOutput out, long now) {
+		out.writeByte(SNAPSHOT_SPAWN_PASSENGER);
+		out.writeVarLong(getScheduledTime() - now);
+	}
+	
+	@Override
+	public void record(EventLogWriter log) {
+		log.passengerSpawned(getScheduledTime(), mPassenger, mBuilding.getFloor(1));
+	}
+	
 	
-	private Passenger getVisitor() {
+	/**
+	 * Constructs a visitor to some floor above the lobby of the given building. Also used for visitors who walk in from
+	 * another building of a campus.
+	 */
+	static Passenger newVisitor(Building building) {
 		/*
 		 DONE: construct a VisitorPassenger and return it.
 		 The visitor should have a random destination floor that is not floor 1 (generate a random int from 2 to N).
 		 The visitor's visit duration should follow a NORMAL (GAUSSIAN) DISTRIBUTION with a mean of 1 hour
 		 and a standard deviation of 20 minutes.
 		 */
-		Random r = mBuilding.getSimulation().getRandom();
-		int x = r.nextInt(mBuilding.getFloorCount() - 1) + 2;
+		Random r = building.getSimulation().getRandom();
+		int x = r.nextInt(building.getFloorCount() - 1) + 2;
+		return newVisitor(building, x);
+	}
+	
+	/**
+	 * Constructs a visitor to the given floor of the given building, with a random visit duration.
+	 */
+	static Passenger newVisitor(Building building, int x) {
+		Random r = building.getSimulation().getRandom();
 		// Look up the documentation for the .nextGaussian() method of the Random class.
 		//source: https://www.javamex.com/tutorials/random_numbers/gaussian_distribution_2.shtml
-		int y = (int) (r.nextGaussian() * 1200 + 3600);
+		// The tail of the distribution goes below zero; a visit cannot end before it starts.
+		int y = Math.max((int) (r.nextGaussian() * 1200 + 3600), 0);
 //		System.out.println("Duration " + y);
-		return new VisitorPassenger(x, y);
+		Simulation sim = building.getSimulation();
+		return sim.getPassengerPool().obtainVisitor(sim.nextPassengerId(), x, y);
 	}
 	
 	private Passenger getWorker() {
@@ -80,30 +135,30 @@ public class SpawnPassengerEvent extends SimulationEvent {
 		To generate the list of durations, generate X integers using a NORMAL DISTRIBUTION with a mean of 10 minutes
 		and a standard deviation of 3 minutes.
 		 */
-		Random r = mBuilding.getSimulation().getRandom();
-		ArrayList<Integer> destinations = new ArrayList<>();
-		ArrayList<Long> durations = new ArrayList<>();
+		Simulation s = mBuilding.getSimulation();
+		Random r = s.getRandom();
 
 		int x = r.nextInt(4) + 2;
+		if (mBuilding.getFloorCount() == 2) {
+			// Floor 2 is the only floor to visit, and the same floor cannot come twice in a row.
+			x = 1;
+		}
+		// The final return to floor 1 is added by the worker's itinerary.
+		WorkerPassenger worker = s.getPassengerPool().obtainWorker(s.nextPassengerId(), x);
 
 		int last = -1, j;
 		for (int i = 0; i < x; i++){
 			do {
 				j = r.nextInt(mBuilding.getFloorCount() - 1) + 2;
 			} while (j == last);
-			destinations.add(j);
+			worker.setVisitFloor(i, j);
 			last = j;
 		}
-		//adds final floor 1, Im not sure if he wants it here or in visitor/worker class file
-		destinations.add(1);
 
-		//TODO i may have not done this right bc look at the private static long variables i didnt use and the other imported stuff not used
-		long y;
 		for (int i = 0; i < x; i++){
-			y = (long) (r.nextGaussian() * 180 + 600);
-			durations.add(y);
+			worker.setVisitDuration(i, Math.max((long) (r.nextGaussian() * 180 + 600), 0));
 		}
 
-		return new WorkerPassenger(destinations, durations);
+		return worker;
 	}
 }
@@ -0,0 +1,46 @@
+package cecs277.events;
+
+import cecs277.Simulation;
+import cecs277.buildings.Building;
+import cecs277.passengers.Passenger;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.EventLogWriter;
+
+/**
+ * A simulation event that adds a visitor to floor 1 who has walked over from another building of a campus. The visitor
+ * is new to this building: they get an id, a destination and a visit duration from this simulation, as a spawned
+ * visitor would. Walks are rare next to elevator events, so these events are not pooled.
+ */
+public class WalkInEvent extends SimulationEvent {
+	private Building mBuilding;
+	// After executing, will reference the Passenger object that walked in.
+	private Passenger mPassenger;
+	
+	public WalkInEvent(long scheduledTime, Building building) {
+		super(scheduledTime);
+		mBuilding = building;
+	}
+	
+	@Override
+	public void execute(Simulation sim) {
+		mPassenger = SpawnPassengerEvent.newVisitor(mBuilding);
+		sim.passengerSpawned();
+		mBuilding.getFloor(1).addWaitingPassenger(mPassenger);
+	}
+	
+	@Override
+	public void record(EventLogWriter log) {
+		log.passengerSpawned(getScheduledTime(), mPassenger, mBuilding.getFloor(1));
+	}
+	
+	@Override
+	public void writeSnapshot(SnapshotOutput out, long now) {
+		out.writeByte(SNAPSHOT_WALK_IN);
+		out.writeVarLong(getScheduledTime() - now);
+	}
+	
+	@Override
+	public String toString() {
+		return super.toString() + "Adding " + mPassenger + " to floor 1, from another building.";
+	}
+}
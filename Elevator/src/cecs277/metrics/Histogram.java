@@ -0,0 +1,170 @@
+package cecs277.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Counts non-negative long values in a fixed number of log-linear buckets, so recording a value never allocates.
+ * Values below 64 are counted exactly; larger values fall into one of 32 buckets per power of two, so a percentile is
+ * accurate to within about 3%. The mean, minimum and maximum are exact.
+ */
+public class Histogram {
+	// Values below LINEAR_LIMIT get a bucket each.
+	private static final int LINEAR_LIMIT = 64;
+	// Buckets per power of two above LINEAR_LIMIT.
+	private static final int SUB_BUCKETS = 32;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] mCounts = new long[BUCKET_COUNT];
+	private long mCount;
+	private long mSum;
+	private long mMin = Long.MAX_VALUE;
+	private long mMax = Long.MIN_VALUE;
+
+	public Histogram() {
+	}
+
+	/**
+	 * Constructs a copy of the given histogram.
+	 */
+	public Histogram(Histogram other) {
+		System.arraycopy(other.mCounts, 0, mCounts, 0, BUCKET_COUNT);
+		mCount = other.mCount;
+		mSum = other.mSum;
+		mMin = other.mMin;
+		mMax = other.mMax;
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Histogram values must not be negative, got " + value);
+		}
+		mCounts[bucketOf(value)]++;
+		mCount++;
+		mSum += value;
+		if (value < mMin) {
+			mMin = value;
+		}
+		if (value > mMax) {
+			mMax = value;
+		}
+	}
+
+	/**
+	 * Adds every value recorded in the given histogram to this one.
+	 */
+	public void add(Histogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			mCounts[i] += other.mCounts[i];
+		}
+		mCount += other.mCount;
+		mSum += other.mSum;
+		mMin = Math.min(mMin, other.mMin);
+		mMax = Math.max(mMax, other.mMax);
+	}
+
+	public void clear() {
+		Arrays.fill(mCounts, 0);
+		mCount = 0;
+		mSum = 0;
+		mMin = Long.MAX_VALUE;
+		mMax = Long.MIN_VALUE;
+	}
+
+	private static int bucketOf(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	// The largest value that falls into the given bucket.
+	private static long highestValueOf(int bucket) {
+		if (bucket < LINEAR_LIMIT) {
+			return bucket;
+		}
+		int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	public long getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Gets the sum of the recorded values.
+	 */
+	public long getSum() {
+		return mSum;
+	}
+
+	/**
+	 * Gets the number of recorded values less than or equal to the given value, to within a bucket: values in the
+	 * bucket holding the given value are counted only if that bucket ends at it.
+	 */
+	public long getCountAtOrBelow(long value) {
+		if (value < 0) {
+			return 0;
+		}
+		int last = bucketOf(value);
+		if (highestValueOf(last) > value) {
+			last--;
+		}
+		long count = 0;
+		for (int i = 0; i <= last; i++) {
+			count += mCounts[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the smallest recorded value, or 0 if nothing was recorded.
+	 */
+	public long getMin() {
+		return mCount == 0 ? 0 : mMin;
+	}
+
+	/**
+	 * Gets the largest recorded value, or 0 if nothing was recorded.
+	 */
+	public long getMax() {
+		return mCount == 0 ? 0 : mMax;
+	}
+
+	/**
+	 * Gets the mean of the recorded values, or 0 if nothing was recorded.
+	 */
+	public double getMean() {
+		return mCount == 0 ? 0 : (double) mSum / mCount;
+	}
+
+	/**
+	 * Gets the value that the given percentage (0 to 100) of recorded values are less than or equal to, or 0 if
+	 * nothing was recorded.
+	 */
+	public long getPercentile(double percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percent);
+		}
+		if (mCount == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percent / 100 * mCount));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += mCounts[i];
+			if (seen >= rank) {
+				return Math.max(Math.min(highestValueOf(i), mMax), mMin);
+			}
+		}
+		return mMax;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.1f p50=%d p95=%d p99=%d max=%d", mCount, getMean(), getPercentile(50),
+		 getPercentile(95), getPercentile(99), getMax());
+	}
+}
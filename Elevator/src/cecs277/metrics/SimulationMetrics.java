@@ -0,0 +1,253 @@
+package cecs277.metrics;
+
+import cecs277.elevators.Elevator;
+
+import java.util.Arrays;
+
+/**
+ * Collects timing numbers while a simulation runs: how long each trip's passenger waited, rode and took overall, and
+ * how each elevator spent its time. Passengers report each completed trip, and elevators report each state change and
+ * each boarding; all are a few array updates, with no allocation.
+ *
+ * A trip starts when a passenger begins waiting on a floor and ends when they leave the elevator at their
+ * destination. All times are in seconds.
+ */
+public class SimulationMetrics {
+	private static final int STATE_COUNT = Elevator.ElevatorState.values().length;
+
+	private final Histogram mWaitTimes;
+	private final Histogram mRideTimes;
+	private final Histogram mTripTimes;
+	// The number of riders in an elevator each time it starts moving.
+	private final Histogram mDepartureLoads;
+
+	// Indexed by elevator number - 1.
+	private int mElevatorCount;
+	private int[] mCapacities = new int[0];
+	private long[][] mTimeInState = new long[0][];
+	private long[] mStops = new long[0];
+	// The integral of each elevator's passenger count over time, up to mLoadTimes.
+	private long[] mPassengerSeconds = new long[0];
+	private int[] mPassengerCounts = new int[0];
+	private long[] mLoadTimes = new long[0];
+	private Elevator.ElevatorState[] mStates = new Elevator.ElevatorState[0];
+	private long[] mStateEnteredTimes = new long[0];
+	// The time the numbers start from, and the time they were last brought up to date.
+	private long mStartTime;
+	private long mElapsedTime;
+
+	public SimulationMetrics() {
+		mWaitTimes = new Histogram();
+		mRideTimes = new Histogram();
+		mTripTimes = new Histogram();
+		mDepartureLoads = new Histogram();
+	}
+
+	/**
+	 * Constructs a copy of the given metrics as of the given time. Each elevator's current state is counted up to that
+	 * time.
+	 */
+	public SimulationMetrics(SimulationMetrics other, long time) {
+		mWaitTimes = new Histogram(other.mWaitTimes);
+		mRideTimes = new Histogram(other.mRideTimes);
+		mTripTimes = new Histogram(other.mTripTimes);
+		mDepartureLoads = new Histogram(other.mDepartureLoads);
+		mElevatorCount = other.mElevatorCount;
+		mCapacities = other.mCapacities.clone();
+		mTimeInState = new long[mElevatorCount][];
+		for (int i = 0; i < mElevatorCount; i++) {
+			mTimeInState[i] = other.mTimeInState[i].clone();
+		}
+		mStops = other.mStops.clone();
+		mPassengerSeconds = other.mPassengerSeconds.clone();
+		mPassengerCounts = other.mPassengerCounts.clone();
+		mLoadTimes = other.mLoadTimes.clone();
+		mStates = other.mStates.clone();
+		mStateEnteredTimes = other.mStateEnteredTimes.clone();
+		mStartTime = other.mStartTime;
+		mElapsedTime = time;
+		for (int i = 0; i < mElevatorCount; i++) {
+			long elapsed = time - mStateEnteredTimes[i];
+			if (elapsed > 0) {
+				mTimeInState[i][mStates[i].ordinal()] += elapsed;
+				mStateEnteredTimes[i] = time;
+			}
+			if (time > mLoadTimes[i]) {
+				mPassengerSeconds[i] += (time - mLoadTimes[i]) * mPassengerCounts[i];
+				mLoadTimes[i] = time;
+			}
+		}
+	}
+
+	/**
+	 * Starts tracking an elevator, which is idle at time 0. Elevators must be added in numbering order.
+	 */
+	public void addElevator(int number, int capacity) {
+		if (number != mElevatorCount + 1) {
+			throw new IllegalArgumentException("Expected elevator " + (mElevatorCount + 1) + ", got " + number);
+		}
+		mElevatorCount++;
+		mCapacities = Arrays.copyOf(mCapacities, mElevatorCount);
+		mTimeInState = Arrays.copyOf(mTimeInState, mElevatorCount);
+		mStops = Arrays.copyOf(mStops, mElevatorCount);
+		mPassengerSeconds = Arrays.copyOf(mPassengerSeconds, mElevatorCount);
+		mPassengerCounts = Arrays.copyOf(mPassengerCounts, mElevatorCount);
+		mLoadTimes = Arrays.copyOf(mLoadTimes, mElevatorCount);
+		mStates = Arrays.copyOf(mStates, mElevatorCount);
+		mStateEnteredTimes = Arrays.copyOf(mStateEnteredTimes, mElevatorCount);
+
+		int i = number - 1;
+		mCapacities[i] = capacity;
+		mTimeInState[i] = new long[STATE_COUNT];
+		mStates[i] = Elevator.ElevatorState.IDLE_STATE;
+	}
+
+	/**
+	 * Called when an elevator enters a new state.
+	 */
+	public void elevatorStateChanged(int number, long time, Elevator.ElevatorState newState) {
+		int i = number - 1;
+		mTimeInState[i][mStates[i].ordinal()] += time - mStateEnteredTimes[i];
+		mStates[i] = newState;
+		mStateEnteredTimes[i] = time;
+		if (newState == Elevator.ElevatorState.DOORS_OPEN) {
+			mStops[i]++;
+		}
+		else if (newState == Elevator.ElevatorState.ACCELERATING) {
+			mDepartureLoads.record(mPassengerCounts[i]);
+		}
+		if (time > mElapsedTime) {
+			mElapsedTime = time;
+		}
+	}
+
+	/**
+	 * Called when a passenger boards or leaves an elevator.
+	 */
+	public void elevatorPassengersChanged(int number, long time, int passengerCount) {
+		int i = number - 1;
+		mPassengerSeconds[i] += (time - mLoadTimes[i]) * mPassengerCounts[i];
+		mPassengerCounts[i] = passengerCount;
+		mLoadTimes[i] = time;
+	}
+
+	/**
+	 * Discards everything collected so far and starts counting again from the given time. Each elevator keeps its
+	 * current state and passenger count. A simulation restored from a snapshot measures from the snapshot's time.
+	 */
+	public void restartAt(long time) {
+		mWaitTimes.clear();
+		mRideTimes.clear();
+		mTripTimes.clear();
+		mDepartureLoads.clear();
+		for (int i = 0; i < mElevatorCount; i++) {
+			Arrays.fill(mTimeInState[i], 0);
+			mStops[i] = 0;
+			mPassengerSeconds[i] = 0;
+			mStateEnteredTimes[i] = time;
+			mLoadTimes[i] = time;
+		}
+		mStartTime = time;
+		mElapsedTime = time;
+	}
+
+	/**
+	 * Called when a passenger leaves an elevator at their destination.
+	 */
+	public void tripCompleted(long waitStartTime, long boardingTime, long alightingTime) {
+		mWaitTimes.record(boardingTime - waitStartTime);
+		mRideTimes.record(alightingTime - boardingTime);
+		mTripTimes.record(alightingTime - waitStartTime);
+		if (alightingTime > mElapsedTime) {
+			mElapsedTime = alightingTime;
+		}
+	}
+
+	/**
+	 * Gets the time from a passenger starting to wait on a floor to boarding an elevator, for each completed trip.
+	 */
+	public Histogram getWaitTimes() {
+		return mWaitTimes;
+	}
+
+	/**
+	 * Gets the time from boarding an elevator to leaving it, for each completed trip.
+	 */
+	public Histogram getRideTimes() {
+		return mRideTimes;
+	}
+
+	/**
+	 * Gets the time from starting to wait to reaching the destination, for each completed trip.
+	 */
+	public Histogram getTripTimes() {
+		return mTripTimes;
+	}
+
+	/**
+	 * Gets the number of riders each time an elevator started moving.
+	 */
+	public Histogram getDepartureLoads() {
+		return mDepartureLoads;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	/**
+	 * Gets the time the numbers cover: from time 0, or from the last restartAt.
+	 */
+	public long getElapsedTime() {
+		return mElapsedTime - mStartTime;
+	}
+
+	/**
+	 * Gets the seconds the given elevator (numbered from 1) has spent in the given state.
+	 */
+	public long getTimeInState(int elevator, Elevator.ElevatorState state) {
+		return mTimeInState[elevator - 1][state.ordinal()];
+	}
+
+	/**
+	 * Gets the fraction of time the given elevator was not idle.
+	 */
+	public double getUtilization(int elevator) {
+		long elapsed = getElapsedTime();
+		if (elapsed == 0) {
+			return 0;
+		}
+		return 1 - (double) getTimeInState(elevator, Elevator.ElevatorState.IDLE_STATE) / elapsed;
+	}
+
+	public long getStops(int elevator) {
+		return mStops[elevator - 1];
+	}
+
+	public double getStopsPerHour(int elevator) {
+		long elapsed = getElapsedTime();
+		return elapsed == 0 ? 0 : mStops[elevator - 1] * 3600.0 / elapsed;
+	}
+
+	/**
+	 * Gets the given elevator's average passenger count over time, as a fraction of its capacity.
+	 */
+	public double getLoadFactor(int elevator) {
+		int i = elevator - 1;
+		long elapsed = getElapsedTime();
+		return elapsed == 0 ? 0 : (double) mPassengerSeconds[i] / ((long) mCapacities[i] * elapsed);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append("Wait: ").append(mWaitTimes).append('\n');
+		s.append("Ride: ").append(mRideTimes).append('\n');
+		s.append("Trip: ").append(mTripTimes).append('\n');
+		for (int e = 1; e <= mElevatorCount; e++) {
+			s.append(String.format("Elevator %d: %.0f%% busy, %.1f stops/h, load factor %.2f", e,
+			 getUtilization(e) * 100, getStopsPerHour(e), getLoadFactor(e))).append('\n');
+		}
+		return s.toString();
+	}
+}
@@ -1,9 +1,12 @@
 package cecs277.passengers;
 
+import cecs277.Simulation;
 import cecs277.buildings.Floor;
 import cecs277.buildings.FloorObserver;
 import cecs277.elevators.Elevator;
 import cecs277.elevators.ElevatorObserver;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
 
 /**
  * A passenger that is either waiting on a floor or riding an elevator.
@@ -16,24 +19,57 @@ public abstract class Passenger implements FloorObserver, ElevatorObserver {
 		BUSY
 	}
 	
-	// A cute trick for assigning unique IDs to each object that is created. (See the constructor.)
-	private static int mNextId;
-	protected static int nextPassengerId() {
-		return ++mNextId;
-	}
-	
 	private int mIdentifier;
 	private PassengerState mCurrentState;
+	// The times the passenger's current trip started and, once on an elevator, when they boarded.
+	private long mWaitStartTime;
+	private long mBoardingTime;
+	
+	// Links for the PassengerQueue this passenger is waiting in, if any.
+	PassengerQueue mQueue;
+	Passenger mQueuePrevious;
+	Passenger mQueueNext;
+	long mQueueOrder;
+	// Set while the passenger sits in a PassengerPool.
+	boolean mRecycled;
 	
-	public Passenger() {
-		mIdentifier = nextPassengerId();
+	/**
+	 * Constructs a passenger with the given id, which should come from Simulation.nextPassengerId() so that it is
+	 * unique within its simulation.
+	 */
+	public Passenger(int id) {
+		mIdentifier = id;
+		mCurrentState = PassengerState.WAITING_ON_FLOOR;
+	}
+	
+	/**
+	 * Gives a recycled passenger a new id and a fresh trip. Derived types reset their own fields after calling this.
+	 */
+	void reset(int id) {
+		mIdentifier = id;
 		mCurrentState = PassengerState.WAITING_ON_FLOOR;
+		mWaitStartTime = 0;
+		mBoardingTime = 0;
 	}
 	
 	public void setState(PassengerState state) {
 		mCurrentState = state;
 	}
 	
+	/**
+	 * Called when the passenger starts waiting on a floor, at the start of each trip.
+	 */
+	public void startedWaiting(long time) {
+		mWaitStartTime = time;
+	}
+	
+	/**
+	 * Gets the time the passenger started waiting for an elevator, on the current trip.
+	 */
+	public long getWaitStartTime() {
+		return mWaitStartTime;
+	}
+	
 	/**
 	 * Gets the passenger's unique identifier.
 	 */
@@ -48,66 +84,66 @@ public abstract class Passenger implements FloorObserver, ElevatorObserver {
 	@Override
 	public void elevatorArriving(Floor floor, Elevator elevator) {
 		// This is a sanity check. A Passenger should never be observing a Floor they are not waiting on.
-		if (floor.getWaitingPassengers().contains(this) && mCurrentState == PassengerState.WAITING_ON_FLOOR) {
-			Elevator.Direction elevatorDirection = elevator.getCurrentDirection();
-
-			// DONE: check if the elevator is either NOT_MOVING, or is going in the direction that this passenger wants.
-			// If so, this passenger becomes an observer of the elevator.
-			//FIXME this is a really nasty if statement but i think it does the job
-			if (elevator.getCurrentDirection() == Elevator.Direction.NOT_MOVING ||
-					((elevator.getCurrentDirection() == Elevator.Direction.MOVING_UP) &&
-							(getDestination() > elevator.getCurrentFloor().getNumber())) ||
-					((elevator.getCurrentDirection() == Elevator.Direction.MOVING_DOWN) &&
-							(getDestination() < elevator.getCurrentFloor().getNumber()))){
-				elevator.addObserver(this);
-			}
-
-		}
-		// This else should not happen if your code is correct. Do not remove this branch; it reveals errors in your code.
-		else {
+		// Otherwise there is nothing to do yet: when the doors open, the elevator offers itself to every passenger
+		// waiting on its floor, and isGoingMyWay decides who gets on.
+		// This branch should not happen if your code is correct. Do not remove it; it reveals errors in your code.
+		if (!floor.isWaiting(this) || mCurrentState != PassengerState.WAITING_ON_FLOOR) {
 			throw new RuntimeException("Passenger " + toString() + " is observing Floor " + floor.getNumber() + " but they are " +
 			 "not waiting on that floor.");
 		}
 	}
 	
 	/**
-	 * Handles an observed elevator opening its doors. Depart the elevator if we are on it; otherwise, enter the elevator.
+	 * Handles an elevator opening its doors on our destination floor (if we are riding it) or on the floor we are
+	 * waiting on. Depart the elevator if we are on it; otherwise, enter the elevator.
 	 */
 	@Override
 	public void elevatorDoorsOpened(Elevator elevator) {
-		// The elevator is arriving at our destination. Remove ourselves from the elevator, and stop observing it.
+		// The elevator is arriving at our destination. Remove ourselves from the elevator.
 		// Does NOT handle any "next" destination...
 
 		if (mCurrentState == PassengerState.ON_ELEVATOR && elevator.getCurrentFloor().getNumber() == getDestination()) {
-			// DONE: remove this passenger from the elevator, and as an observer of the elevator. Call the
+			// DONE: remove this passenger from the elevator. Call the
 			// leavingElevator method to allow a derived class to do something when the passenger departs.
 			// Set the current state to BUSY.
 			elevator.removePassenger(this);
-			elevator.removeObserver(this);
-			leavingElevator(elevator);
+			Simulation sim = elevator.getBuilding().getSimulation();
+			sim.getMetrics().tripCompleted(mWaitStartTime, mBoardingTime, sim.currentTime());
 			setState(PassengerState.BUSY);
+			// A passenger leaving the building may be recycled by the time this returns.
+			leavingElevator(elevator);
 
 		}
 
-		// The elevator has arrived on the floor we are waiting on. If the elevator has room for us, remove ourselves
-		// from the floor, and enter the elevator.
-		else if (mCurrentState == PassengerState.WAITING_ON_FLOOR && elevator.getCurrentFloor().getWaitingPassengers().contains(this)) {
+		// The elevator has arrived on the floor we are waiting on. If it is going our way and has room for us, remove
+		// ourselves from the floor, and enter the elevator.
+		else if (mCurrentState == PassengerState.WAITING_ON_FLOOR && isGoingMyWay(elevator)
+		 && elevator.getCurrentFloor().isWaiting(this)) {
 			// DONE: determine if the passenger will board the elevator using willBoardElevator.
-			// If so, remove the passenger from the current floor, and as an observer of the current floor;
-			// then add the passenger as an observer of and passenger on the elevator. Then set the mCurrentState
+			// If so, remove the passenger from the current floor; then add the passenger as a passenger on the elevator. Then set the mCurrentState
 			// to ON_ELEVATOR.
 			if (willBoardElevator(elevator)){
 				Floor currentFloor = elevator.getCurrentFloor();
 				currentFloor.removeWaitingPassenger(this);
-				currentFloor.removeObserver(this);
+				mBoardingTime = elevator.getBuilding().getSimulation().currentTime();
 				elevator.addPassenger(this);
-				elevator.addObserver(this);
 				setState(PassengerState.ON_ELEVATOR);
 			}
 			
 		}
 	}
 	
+	/**
+	 * Returns true if the elevator is either NOT_MOVING, or is going in the direction that this passenger wants.
+	 */
+	private boolean isGoingMyWay(Elevator elevator) {
+		Elevator.Direction direction = elevator.getCurrentDirection();
+		int floor = elevator.getCurrentFloor().getNumber();
+		return direction == Elevator.Direction.NOT_MOVING
+		 || (direction == Elevator.Direction.MOVING_UP && getDestination() > floor)
+		 || (direction == Elevator.Direction.MOVING_DOWN && getDestination() < floor);
+	}
+	
 	/**
 	 * Returns the passenger's current destination (what floor they are travelling to).
 	 */
@@ -124,6 +160,25 @@ public abstract class Passenger implements FloorObserver, ElevatorObserver {
 	 */
 	protected abstract void leavingElevator(Elevator elevator);
 	
+	/**
+	 * Writes the passenger's state and itinerary to a snapshot. Derived types write their own fields after calling
+	 * this. Which queue the passenger waits in is written by the floor.
+	 */
+	public void writeSnapshot(SnapshotOutput out) {
+		out.writeByte(mCurrentState.ordinal());
+		out.writeVarLong(mWaitStartTime);
+		out.writeVarLong(mBoardingTime);
+	}
+	
+	/**
+	 * Restores what writeSnapshot wrote, into a passenger constructed with the same id.
+	 */
+	public void readSnapshot(SnapshotInput in) {
+		mCurrentState = PassengerState.values()[in.readByte()];
+		mWaitStartTime = in.readVarLong();
+		mBoardingTime = in.readVarLong();
+	}
+	
 	// This will be overridden by derived types.
 	@Override
 	public String toString() {
@@ -0,0 +1,89 @@
+package cecs277.passengers;
+
+import java.util.ArrayList;
+
+/**
+ * Free lists of passengers who have left the building, for a Simulation to reuse. A passenger is released when they
+ * leave through floor 1, and comes back out with a new id and itinerary, so a long simulation allocates passengers only
+ * until it reaches its peak population.
+ *
+ * Recycling is off by default; nothing may hold on to a passenger after they leave when it is on. Passengers
+ * constructed directly, outside a pool, are released into it like any other.
+ */
+public class PassengerPool {
+	private ArrayList<VisitorPassenger> mFreeVisitors = new ArrayList<>();
+	private ArrayList<WorkerPassenger> mFreeWorkers = new ArrayList<>();
+	private boolean mRecycling;
+	private long mAllocated;
+
+	public void setRecycling(boolean recycling) {
+		mRecycling = recycling;
+		if (!recycling) {
+			mFreeVisitors.clear();
+			mFreeWorkers.clear();
+		}
+	}
+
+	public boolean isRecycling() {
+		return mRecycling;
+	}
+
+	/**
+	 * Gets the number of passengers this pool has had to allocate.
+	 */
+	public long getAllocatedCount() {
+		return mAllocated;
+	}
+
+	/**
+	 * Gets a visitor with the given id, destination and visit duration, reusing a released one if possible.
+	 */
+	public VisitorPassenger obtainVisitor(int id, int destinationFloor, int durationTime) {
+		if (mFreeVisitors.isEmpty()) {
+			mAllocated++;
+			return new VisitorPassenger(id, destinationFloor, durationTime);
+		}
+		VisitorPassenger p = mFreeVisitors.remove(mFreeVisitors.size() - 1);
+		p.mRecycled = false;
+		p.reset(id, destinationFloor, durationTime);
+		return p;
+	}
+
+	/**
+	 * Gets a worker with the given id and an itinerary of the given number of visits, to be filled in with setVisit,
+	 * reusing a released one if possible.
+	 */
+	public WorkerPassenger obtainWorker(int id, int visits) {
+		if (mFreeWorkers.isEmpty()) {
+			mAllocated++;
+			return new WorkerPassenger(id, visits);
+		}
+		WorkerPassenger p = mFreeWorkers.remove(mFreeWorkers.size() - 1);
+		p.mRecycled = false;
+		p.reset(id);
+		p.startItinerary(visits);
+		return p;
+	}
+
+	/**
+	 * Takes back a passenger who has left the building. Does nothing unless recycling is on.
+	 */
+	public void release(Passenger p) {
+		if (!mRecycling) {
+			return;
+		}
+		if (p.mRecycled) {
+			throw new IllegalStateException("Passenger " + p.getId() + " was recycled twice");
+		}
+		if (p.mQueue != null) {
+			throw new IllegalStateException("Passenger " + p.getId() + " left the building while still waiting");
+		}
+		p.mRecycled = true;
+		if (p instanceof WorkerPassenger) {
+			mFreeWorkers.add((WorkerPassenger) p);
+		}
+		else if (p instanceof VisitorPassenger) {
+			mFreeVisitors.add((VisitorPassenger) p);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package cecs277.passengers;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A FIFO queue of passengers, linked through fields stored on the Passenger objects themselves. Adding, removing and
+ * testing membership are O(1) and allocate nothing. A passenger can be in at most one queue at a time.
+ *
+ * Each passenger is added with an arrival order number, so that two queues filled from the same counter can be
+ * walked together in arrival order.
+ */
+public class PassengerQueue implements Iterable<Passenger> {
+	private Passenger mFirst;
+	private Passenger mLast;
+	private int mSize;
+
+	/**
+	 * Adds the passenger to the back of the queue.
+	 */
+	public void add(Passenger p, long arrivalOrder) {
+		if (p.mQueue != null) {
+			throw new IllegalStateException("Passenger " + p.getId() + " is already waiting in a queue");
+		}
+		p.mQueue = this;
+		p.mQueueOrder = arrivalOrder;
+		p.mQueuePrevious = mLast;
+		p.mQueueNext = null;
+		if (mLast == null) {
+			mFirst = p;
+		}
+		else {
+			mLast.mQueueNext = p;
+		}
+		mLast = p;
+		mSize++;
+	}
+
+	/**
+	 * Removes the passenger from the queue. Returns false if they were not in it.
+	 */
+	public boolean remove(Passenger p) {
+		if (p.mQueue != this) {
+			return false;
+		}
+		if (p.mQueuePrevious == null) {
+			mFirst = p.mQueueNext;
+		}
+		else {
+			p.mQueuePrevious.mQueueNext = p.mQueueNext;
+		}
+		if (p.mQueueNext == null) {
+			mLast = p.mQueuePrevious;
+		}
+		else {
+			p.mQueueNext.mQueuePrevious = p.mQueuePrevious;
+		}
+		p.mQueue = null;
+		p.mQueuePrevious = null;
+		p.mQueueNext = null;
+		mSize--;
+		return true;
+	}
+
+	public boolean contains(Passenger p) {
+		return p.mQueue == this;
+	}
+
+	/**
+	 * Gets the passenger at the front of the queue, or null if it is empty.
+	 */
+	public Passenger peekFirst() {
+		return mFirst;
+	}
+
+	/**
+	 * Gets the passenger queued behind the given one, or null if they are last. Read this before doing anything that
+	 * might remove the given passenger from the queue.
+	 */
+	public Passenger next(Passenger p) {
+		return p.mQueue == this ? p.mQueueNext : null;
+	}
+
+	/**
+	 * Gets the arrival order number the given passenger was added with.
+	 */
+	public long arrivalOrder(Passenger p) {
+		return p.mQueueOrder;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	@Override
+	public Iterator<Passenger> iterator() {
+		return new Iterator<Passenger>() {
+			private Passenger mNext = mFirst;
+
+			@Override
+			public boolean hasNext() {
+				return mNext != null;
+			}
+
+			@Override
+			public Passenger next() {
+				if (mNext == null) {
+					throw new NoSuchElementException();
+				}
+				Passenger p = mNext;
+				mNext = p.mQueueNext;
+				return p;
+			}
+		};
+	}
+}
@@ -3,6 +3,9 @@ package cecs277.passengers;
 import cecs277.Simulation;
 import cecs277.elevators.Elevator;
 import cecs277.events.PassengerNextDestinationEvent;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.Tracer;
 
 /**
  * A VisitorPassenger has a single destination and a single duration (in seconds), which is how long the Visitor
@@ -14,14 +17,23 @@ public class VisitorPassenger extends Passenger {
 	// DONE (i think): add fields, constructors, and accessors to implement this class.
 	private int destinationFloor, durationTime;
 
-	public VisitorPassenger(int destinationFloor, int durationTime) {
-		super();
+	public VisitorPassenger(int id, int destinationFloor, int durationTime) {
+		super(id);
 		// DONE: change this constructor's  body.
 		this.destinationFloor = destinationFloor;
 		this.durationTime = durationTime;
 //		System.out.println(durationTime);
 	}
 	
+	/**
+	 * Gives a recycled visitor a new identity and visit.
+	 */
+	void reset(int id, int destinationFloor, int durationTime) {
+		reset(id);
+		this.destinationFloor = destinationFloor;
+		this.durationTime = durationTime;
+	}
+	
 	@Override
 	public int getDestination() {
 		// DONE: finish this method to return the visitor's destination, which changes to floor 1 when they
@@ -41,7 +53,7 @@ public class VisitorPassenger extends Passenger {
 	
 	/*
 	 DONE: implement this template method variant, which is called when the passenger is leaving the elevator it
-	 is on. A Visitor that is departing on floor 1 just leaves the building, printing a message to System.out.
+	 is on. A Visitor that is departing on floor 1 just leaves the building, tracing a message.
 	 A visitor that is departing on any other floor sets their new destination to floor 1, and then schedules a
 	 PassengerNextDestinationEvent to occur when they are supposed to "reappear" (their duration field).
 	*/
@@ -56,11 +68,18 @@ public class VisitorPassenger extends Passenger {
 		Schedules this passenger to reappear on this floor 10 seconds from now.
 		 */
 		if (elevator.getCurrentFloor().getNumber() == 1){
-			System.out.println("Visitor " + getId() + " is leaving the building.");
+			Simulation s = elevator.getBuilding().getSimulation();
+			if (s.getTracer().isEnabled(Tracer.Category.PASSENGER, Tracer.Level.INFO)) {
+				s.getTracer().trace(Tracer.Category.PASSENGER, Tracer.Level.INFO,
+				 "Visitor " + getId() + " is leaving the building.");
+			}
+			// Last: the simulation may recycle us.
+			s.passengerDeparted(this);
 		} else {
 			destinationFloor = 1;
 			Simulation s = elevator.getBuilding().getSimulation();
-			PassengerNextDestinationEvent ev = new PassengerNextDestinationEvent(s.currentTime() + durationTime, this, elevator.getCurrentFloor());
+			PassengerNextDestinationEvent ev = PassengerNextDestinationEvent.obtain(s, s.currentTime() + durationTime, this,
+			 elevator.getCurrentFloor());
 			s.scheduleEvent(ev);
 		}
 
@@ -72,6 +91,20 @@ public class VisitorPassenger extends Passenger {
 		return "Visitor " + this.getId() + " heading to floor " + getDestination();
 	}
 	
+	@Override
+	public void writeSnapshot(SnapshotOutput out) {
+		super.writeSnapshot(out);
+		out.writeVarint(destinationFloor);
+		out.writeVarint(durationTime);
+	}
+	
+	@Override
+	public void readSnapshot(SnapshotInput in) {
+		super.readSnapshot(in);
+		destinationFloor = in.readVarint();
+		durationTime = in.readVarint();
+	}
+	
 	@Override
 	public void elevatorDecelerating(Elevator elevator) {
 		// Don't care.
@@ -2,32 +2,87 @@ package cecs277.passengers;
 
 import cecs277.elevators.Elevator;
 import cecs277.events.PassengerNextDestinationEvent;
+import cecs277.snapshot.SnapshotInput;
+import cecs277.snapshot.SnapshotOutput;
+import cecs277.trace.Tracer;
 
 import cecs277.Simulation;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * A WorkerPassenger visits many floors in succession. They have a list of destination floors and a list of durations,
  * each duration corresponding to the time they "disappear" after reaching each of the destination floors.
+ *
+ * The itinerary is kept in arrays with a cursor at the current leg, so moving on to the next floor costs nothing and a
+ * recycled worker can take a new itinerary in the same arrays.
  */
 public class WorkerPassenger extends Passenger {
-	// DONE: add fields for the list of destination floors, and the list of duration amounts.
-	private ArrayList<Integer> mDestinations;
-	private ArrayList<Long> mDurations;
+	// The floors to visit, then floor 1; mDurations[i] is the length of the visit to mDestinations[i]. Only the first
+	// mLegCount destinations are in use.
+	private int[] mDestinations;
+	private long[] mDurations;
+	private int mLegCount;
+	// The index of the current destination.
+	private int mLeg;
 
-	public WorkerPassenger(List<Integer> destinations, List<Long> durations) {
-		super();
-	
-		// DONE: finish the constructor.
-		this.mDestinations = (ArrayList<Integer>) destinations;
-		this.mDurations = (ArrayList<Long>) durations;
+	/**
+	 * Constructs a worker with the given destinations, the last of which must be floor 1, and one duration for each
+	 * destination before it.
+	 */
+	public WorkerPassenger(int id, int[] destinations, long[] durations) {
+		super(id);
+		if (destinations.length == 0 || durations.length != destinations.length - 1) {
+			throw new IllegalArgumentException("A worker needs one duration for each destination before the last, got "
+			 + destinations.length + " destinations and " + durations.length + " durations");
+		}
+		startItinerary(durations.length);
+		for (int i = 0; i < durations.length; i++) {
+			setVisit(i, destinations[i], durations[i]);
+		}
+		mDestinations[durations.length] = destinations[durations.length];
+	}
+
+	/**
+	 * Constructs a worker with an itinerary of the given number of visits, to be filled in with setVisit.
+	 */
+	public WorkerPassenger(int id, int visits) {
+		super(id);
+		startItinerary(visits);
+	}
+
+	/**
+	 * Starts a new itinerary of the given number of visits followed by a return to floor 1, reusing the arrays if they
+	 * are big enough. Each visit is then set with setVisit.
+	 */
+	public void startItinerary(int visits) {
+		if (mDestinations == null || mDestinations.length < visits + 1) {
+			mDestinations = new int[visits + 1];
+			mDurations = new long[visits];
+		}
+		mLegCount = visits + 1;
+		mLeg = 0;
+		mDestinations[visits] = 1;
+	}
+
+	/**
+	 * Sets the floor and duration of the given visit, numbered from 0, of the current itinerary.
+	 */
+	public void setVisit(int visit, int floor, long duration) {
+		setVisitFloor(visit, floor);
+		setVisitDuration(visit, duration);
+	}
+
+	public void setVisitFloor(int visit, int floor) {
+		mDestinations[visit] = floor;
+	}
+
+	public void setVisitDuration(int visit, long duration) {
+		mDurations[visit] = duration;
 	}
 
 	// DONE: implement this method. Return the current destination, which is the first element of the destinations list.
 	@Override
 	public int getDestination() {
-		return mDestinations.get(0);
+		return mDestinations[mLeg];
 	}
 	
 	// DONE: implement this template method variant. A Worker will only join an elevator with at most 3 people on it.
@@ -42,7 +97,7 @@ public class WorkerPassenger extends Passenger {
 	
 	/*
 	 DONE: implement this template method variant, which is called when the worker is leaving the elevator it
-	 is on. A Worker that is departing on floor 1 just leaves the building, printing a message to System.out.
+	 is on. A Worker that is departing on floor 1 just leaves the building, tracing a message.
 	 A Worker that is departing on any other floor removes the first destination in their list, and then schedules a
 	 PassengerNextDestinationEvent to occur when they are supposed to "reappear" (the first element of the durations list,
 	 which is also removed.)
@@ -51,16 +106,52 @@ public class WorkerPassenger extends Passenger {
 	protected void leavingElevator(Elevator elevator) {
 
 		if (elevator.getCurrentFloor().getNumber() == 1){
-			System.out.println("Worker " + getId() + " is leaving the building.");
+			Simulation s = elevator.getBuilding().getSimulation();
+			if (s.getTracer().isEnabled(Tracer.Category.PASSENGER, Tracer.Level.INFO)) {
+				s.getTracer().trace(Tracer.Category.PASSENGER, Tracer.Level.INFO,
+				 "Worker " + getId() + " is leaving the building.");
+			}
+			// Last: the simulation may recycle us.
+			s.passengerDeparted(this);
 		} else {
-			mDestinations.remove(0);
+			long duration = mDurations[mLeg];
+			mLeg++;
 			Simulation s = elevator.getBuilding().getSimulation();
-			PassengerNextDestinationEvent ev = new PassengerNextDestinationEvent(s.currentTime() + mDurations.get(0), this, elevator.getCurrentFloor());
-			mDurations.remove(0);
+			PassengerNextDestinationEvent ev = PassengerNextDestinationEvent.obtain(s, s.currentTime() + duration,
+			 this, elevator.getCurrentFloor());
 			s.scheduleEvent(ev);
 		}
 	}
 	
+	/**
+	 * Writes the destinations still ahead, final floor 1 included, and the durations of the visits still to come.
+	 */
+	@Override
+	public void writeSnapshot(SnapshotOutput out) {
+		super.writeSnapshot(out);
+		out.writeVarint(mLegCount - mLeg);
+		for (int i = mLeg; i < mLegCount; i++) {
+			out.writeVarint(mDestinations[i]);
+		}
+		out.writeVarint(mLegCount - 1 - mLeg);
+		for (int i = mLeg; i < mLegCount - 1; i++) {
+			out.writeVarLong(mDurations[i]);
+		}
+	}
+	
+	@Override
+	public void readSnapshot(SnapshotInput in) {
+		super.readSnapshot(in);
+		int destinations = in.readVarint();
+		startItinerary(destinations - 1);
+		for (int i = 0; i < destinations; i++) {
+			mDestinations[i] = in.readVarint();
+		}
+		for (int n = in.readVarint(), i = 0; i < n; i++) {
+			mDurations[i] = in.readVarLong();
+		}
+	}
+	
 	@Override
 	public void elevatorDecelerating(Elevator elevator) {
 		// Don't care.
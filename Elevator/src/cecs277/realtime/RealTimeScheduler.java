@@ -0,0 +1,228 @@
+package cecs277.realtime;
+
+import cecs277.Simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a simulation paced against the wall clock, on a dedicated scheduler thread. Each simulated second is due at a
+ * fixed wall-clock instant, worked out from an anchor (a wall time, the simulated time at that wall time, and the
+ * speed), so oversleeping and the time spent executing events never add up: an event that runs late is followed by
+ * one that is due on time. If the simulation cannot keep up, events run back to back until it has caught up.
+ *
+ * The speed can be changed from any thread while the simulation runs. A change re-anchors at the simulated time the
+ * clock has reached, so the simulation neither jumps ahead nor tries to make up time. While a slice runs, the scheduler
+ * thread is the only thread that may touch the simulation; after awaitIdle() returns, the caller may again.
+ */
+public class RealTimeScheduler implements AutoCloseable {
+	// Parking is only accurate to tens of microseconds, so the last stretch before an event is spent spinning.
+	private static final long SPIN_NANOS = 200_000;
+
+	private final Simulation mSimulation;
+	private final Thread mThread;
+	private volatile Anchor mAnchor;
+	private volatile long mLateness;
+	private volatile boolean mClosed;
+	private volatile Runnable mStepListener;
+
+	// Guarded by this.
+	private long mUntil;
+	private boolean mRunning;
+	private RuntimeException mFailure;
+
+	/**
+	 * Constructs a scheduler for the given simulation, running at the given speed in simulated seconds per wall-clock
+	 * second. Its thread is a daemon and idles until runTo() is called.
+	 */
+	public RealTimeScheduler(Simulation simulation, double speed) {
+		checkSpeed(speed);
+		mSimulation = simulation;
+		mAnchor = new Anchor(System.nanoTime(), simulation.currentTime(), speed);
+		mThread = new Thread(this::schedule, "sim-scheduler");
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+
+	/**
+	 * Starts running the simulation to the given time, in real time from the simulation's current time, and returns at
+	 * once. Call awaitIdle() to wait for it to get there.
+	 */
+	public synchronized void runTo(long until) {
+		if (mClosed) {
+			throw new IllegalStateException("The scheduler is closed");
+		}
+		if (mRunning) {
+			throw new IllegalStateException("The scheduler is already running to " + mUntil + "s");
+		}
+		if (until < mSimulation.currentTime()) {
+			throw new IllegalArgumentException("Cannot run to " + until + "s, the simulation is already at "
+			 + mSimulation.currentTime() + "s");
+		}
+		mAnchor = new Anchor(System.nanoTime(), mSimulation.currentTime(), mAnchor.mSpeed);
+		mUntil = until;
+		mRunning = true;
+		mFailure = null;
+		notifyAll();
+	}
+
+	/**
+	 * Waits until the simulation has reached the time given to runTo(), or the scheduler is closed. Rethrows anything
+	 * the simulation threw.
+	 */
+	public synchronized void awaitIdle() throws InterruptedException {
+		while (mRunning && !mClosed) {
+			wait();
+		}
+		if (mFailure != null) {
+			throw mFailure;
+		}
+	}
+
+	/**
+	 * Sets the speed in simulated seconds per wall-clock second. 0 pauses the simulation until the speed is raised.
+	 */
+	public void setSpeed(double speed) {
+		checkSpeed(speed);
+		synchronized (this) {
+			long now = System.nanoTime();
+			mAnchor = new Anchor(now, mAnchor.simulatedTimeAt(now), speed);
+		}
+		LockSupport.unpark(mThread);
+	}
+
+	/**
+	 * Sets code to run on the scheduler thread after each simulated second it executes, such as drawing a frame, or
+	 * null for none. It may touch the simulation.
+	 */
+	public void setStepListener(Runnable listener) {
+		mStepListener = listener;
+	}
+	
+	public double getSpeed() {
+		return mAnchor.mSpeed;
+	}
+
+	/**
+	 * Gets how late, in wall-clock nanoseconds, the most recent simulated second started. Stays near 0 while the
+	 * simulation keeps up, and grows while it is behind.
+	 */
+	public long getLateness() {
+		return mLateness;
+	}
+
+	/**
+	 * Stops the scheduler thread, which abandons any slice after the second it is executing.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			mClosed = true;
+			notifyAll();
+		}
+		LockSupport.unpark(mThread);
+	}
+
+	private static void checkSpeed(double speed) {
+		if (!(speed >= 0) || Double.isInfinite(speed)) {
+			throw new IllegalArgumentException("Speed must be 0 or more, got " + speed);
+		}
+	}
+
+	private void schedule() {
+		while (true) {
+			long until;
+			synchronized (this) {
+				while (!mRunning && !mClosed) {
+					try {
+						wait();
+					}
+					catch (InterruptedException e) {
+						mClosed = true;
+					}
+				}
+				if (mClosed) {
+					return;
+				}
+				until = mUntil;
+			}
+
+			RuntimeException failure = null;
+			try {
+				pace(until);
+			}
+			catch (RuntimeException e) {
+				failure = e;
+			}
+			synchronized (this) {
+				mFailure = failure;
+				mRunning = false;
+				notifyAll();
+			}
+		}
+	}
+
+	// Executes each second that has events when it comes due, then advances the clock to the end of the slice.
+	private void pace(long until) {
+		while (true) {
+			long next = mSimulation.getNextEventTime();
+			long second = next < 0 || next > until ? until : next;
+			if (!waitFor(second)) {
+				return;
+			}
+			mSimulation.advanceTo(second);
+			Runnable listener = mStepListener;
+			if (listener != null) {
+				listener.run();
+			}
+			if (second == until) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Waits until the given simulated second is due. Returns false if the scheduler was closed first.
+	 */
+	private boolean waitFor(long simulatedTime) {
+		while (!mClosed) {
+			Anchor anchor = mAnchor;
+			if (anchor.mSpeed == 0) {
+				LockSupport.park(this);
+				continue;
+			}
+			long remaining = anchor.wallTimeOf(simulatedTime) - System.nanoTime();
+			if (remaining <= 0) {
+				mLateness = -remaining;
+				return true;
+			}
+			if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+			}
+			else {
+				Thread.onSpinWait();
+			}
+		}
+		return false;
+	}
+
+	// The simulated time mSimulatedTime was reached at mWallTime, and the clock runs at mSpeed from there.
+	private static class Anchor {
+		private final long mWallTime;
+		private final double mSimulatedTime;
+		private final double mSpeed;
+
+		Anchor(long wallTime, double simulatedTime, double speed) {
+			mWallTime = wallTime;
+			mSimulatedTime = simulatedTime;
+			mSpeed = speed;
+		}
+
+		long wallTimeOf(long simulatedTime) {
+			return mWallTime + (long) ((simulatedTime - mSimulatedTime) * 1e9 / mSpeed);
+		}
+
+		double simulatedTimeAt(long wallTime) {
+			return mSimulatedTime + (wallTime - mWallTime) * mSpeed / 1e9;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package cecs277.replication;
+
+/**
+ * A 95% confidence interval for the mean of independent samples, using Student's t distribution.
+ */
+public class ConfidenceInterval {
+	// The 97.5th percentile of Student's t distribution with 1 to 30 degrees of freedom.
+	private static final double[] T_975 = {
+		12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+		2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+		2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+	};
+	private static final double Z_975 = 1.959964;
+
+	private double mMean;
+	private double mHalfWidth;
+	private int mCount;
+
+	public ConfidenceInterval(double mean, double halfWidth, int count) {
+		mMean = mean;
+		mHalfWidth = halfWidth;
+		mCount = count;
+	}
+
+	/**
+	 * Computes the interval of the given samples. With fewer than two samples the half-width is infinite.
+	 */
+	public static ConfidenceInterval of(double[] samples) {
+		int n = samples.length;
+		if (n == 0) {
+			throw new IllegalArgumentException("A confidence interval needs at least one sample");
+		}
+		double sum = 0;
+		for (double x : samples) {
+			sum += x;
+		}
+		double mean = sum / n;
+		if (n == 1) {
+			return new ConfidenceInterval(mean, Double.POSITIVE_INFINITY, 1);
+		}
+
+		double squares = 0;
+		for (double x : samples) {
+			squares += (x - mean) * (x - mean);
+		}
+		double standardError = Math.sqrt(squares / (n - 1) / n);
+		return new ConfidenceInterval(mean, tQuantile(n - 1) * standardError, n);
+	}
+
+	/**
+	 * Gets the 97.5th percentile of the t distribution. Above 30 degrees of freedom, a Cornish-Fisher expansion around
+	 * the normal distribution is accurate to well under 0.1%.
+	 */
+	private static double tQuantile(int degreesOfFreedom) {
+		if (degreesOfFreedom <= T_975.length) {
+			return T_975[degreesOfFreedom - 1];
+		}
+		double z = Z_975;
+		double z3 = z * z * z;
+		double z5 = z3 * z * z;
+		double v = degreesOfFreedom;
+		return z + (z3 + z) / (4 * v) + (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v);
+	}
+
+	public double getMean() {
+		return mMean;
+	}
+
+	public double getHalfWidth() {
+		return mHalfWidth;
+	}
+
+	public double getLower() {
+		return mMean - mHalfWidth;
+	}
+
+	public double getUpper() {
+		return mMean + mHalfWidth;
+	}
+
+	/**
+	 * Gets the number of samples the interval was computed from.
+	 */
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Returns true if the two intervals do not overlap.
+	 */
+	public boolean isSeparateFrom(ConfidenceInterval other) {
+		return getUpper() < other.getLower() || other.getUpper() < getLower();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.2f +/- %.2f", mMean, mHalfWidth);
+	}
+}
@@ -0,0 +1,157 @@
+package cecs277.replication;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+import cecs277.metrics.Histogram;
+import cecs277.metrics.SimulationMetrics;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs many replications of one configuration in parallel, each with its own seed, and summarizes them. Every
+ * replication is an independent headless Simulation with its own random number generator, passenger ids, event pools
+ * and metrics, so replications share nothing but the configuration's stateless Dispatcher and arrival process.
+ *
+ * The seeds are derived from the configuration's seed, so the same configuration and replication count always give
+ * the same summary, however the work is scheduled. A replication that throws is recorded as failed in the summary,
+ * and the others still run.
+ */
+public class ReplicationRunner {
+	private SimulationConfig mConfig;
+	private long[] mSeeds;
+	private ForkJoinPool mPool;
+
+	/**
+	 * Constructs a runner that uses the common fork-join pool, which has a thread per core.
+	 */
+	public ReplicationRunner(SimulationConfig config, int replications) {
+		this(config, replications, ForkJoinPool.commonPool());
+	}
+
+	public ReplicationRunner(SimulationConfig config, int replications, ForkJoinPool pool) {
+		if (replications < 1) {
+			throw new IllegalArgumentException("Need at least 1 replication, got " + replications);
+		}
+		mConfig = config;
+		mPool = pool;
+		mSeeds = new long[replications];
+		SplittableRandom seeds = new SplittableRandom(config.getSeed());
+		for (int i = 0; i < replications; i++) {
+			mSeeds[i] = seeds.nextLong();
+		}
+	}
+
+	/**
+	 * Gets the configuration of the given replication, numbered from 0.
+	 */
+	public SimulationConfig getReplicationConfig(int replication) {
+		return mConfig.withSeed(mSeeds[replication]);
+	}
+
+	/**
+	 * Runs every replication and waits for them all to finish.
+	 */
+	public ReplicationSummary run() {
+		double[][] samples = new double[Statistic.values().length][mSeeds.length];
+		RuntimeException[] failures = new RuntimeException[mSeeds.length];
+		Distributions pooled = mPool.invoke(new Replications(0, mSeeds.length, samples, failures));
+		return new ReplicationSummary(mConfig, samples, failures, pooled.mWaitTimes, pooled.mRideTimes,
+		 pooled.mTripTimes);
+	}
+
+	/**
+	 * Runs the replications in [from, to), splitting the range in half until each task runs a single simulation.
+	 * Each replication writes its own column of samples, so the tasks never contend. A replication that throws gets
+	 * NaN samples and its exception, and adds nothing to the pooled distributions.
+	 */
+	@SuppressWarnings("serial")
+	private class Replications extends RecursiveTask<Distributions> {
+		private final int mFrom;
+		private final int mTo;
+		private final double[][] mSamples;
+		private final RuntimeException[] mFailures;
+
+		Replications(int from, int to, double[][] samples, RuntimeException[] failures) {
+			mFrom = from;
+			mTo = to;
+			mSamples = samples;
+			mFailures = failures;
+		}
+
+		@Override
+		protected Distributions compute() {
+			if (mTo - mFrom == 1) {
+				SimulationResult result;
+				try {
+					result = new Simulation(getReplicationConfig(mFrom)).run();
+				}
+				catch (RuntimeException e) {
+					mFailures[mFrom] = e;
+					for (Statistic statistic : Statistic.values()) {
+						mSamples[statistic.ordinal()][mFrom] = Double.NaN;
+					}
+					return new Distributions();
+				}
+				for (Statistic statistic : Statistic.values()) {
+					mSamples[statistic.ordinal()][mFrom] = statistic.of(result);
+				}
+				return new Distributions(result.getMetrics());
+			}
+
+			int middle = (mFrom + mTo) >>> 1;
+			Replications left = new Replications(mFrom, middle, mSamples, mFailures);
+			left.fork();
+			Distributions right = new Replications(middle, mTo, mSamples, mFailures).compute();
+			return left.join().add(right);
+		}
+	}
+
+	// The histograms that are pooled across replications.
+	private static class Distributions {
+		private final Histogram mWaitTimes;
+		private final Histogram mRideTimes;
+		private final Histogram mTripTimes;
+
+		// Nothing pooled, for a replication that failed.
+		Distributions() {
+			mWaitTimes = new Histogram();
+			mRideTimes = new Histogram();
+			mTripTimes = new Histogram();
+		}
+
+		Distributions(SimulationMetrics metrics) {
+			// The result's metrics are already a private copy.
+			mWaitTimes = metrics.getWaitTimes();
+			mRideTimes = metrics.getRideTimes();
+			mTripTimes = metrics.getTripTimes();
+		}
+
+		Distributions add(Distributions other) {
+			mWaitTimes.add(other.mWaitTimes);
+			mRideTimes.add(other.mRideTimes);
+			mTripTimes.add(other.mTripTimes);
+			return this;
+		}
+	}
+
+	/**
+	 * Runs replications of a headless simulation and prints the summary.
+	 * Arguments: floors elevators horizon replications [seed]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 4) {
+			System.out.println("Usage: ReplicationRunner floors elevators horizon replications [seed]");
+			return;
+		}
+		SimulationConfig config = new SimulationConfig(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+		 args.length > 4 ? Long.parseLong(args[4]) : 277, Long.parseLong(args[2]));
+		long start = System.nanoTime();
+		ReplicationSummary summary = new ReplicationRunner(config, Integer.parseInt(args[3])).run();
+		System.out.print(summary);
+		System.out.printf("%.1fs on %d threads%n", (System.nanoTime() - start) / 1e9,
+		 ForkJoinPool.commonPool().getParallelism());
+	}
+}
@@ -0,0 +1,131 @@
+package cecs277.replication;
+
+import cecs277.SimulationConfig;
+import cecs277.metrics.Histogram;
+
+/**
+ * The combined results of every replication of a ReplicationRunner: each Statistic from each replication, in
+ * replication order, and the trip-time distributions of all replications pooled together. A replication that failed
+ * keeps its exception instead of statistics, and is left out of the intervals and distributions.
+ */
+public class ReplicationSummary {
+	private SimulationConfig mConfig;
+	// Indexed by Statistic ordinal, then by replication.
+	private double[][] mSamples;
+	// The exception each failed replication threw, or null where it succeeded.
+	private RuntimeException[] mFailures;
+	private Histogram mWaitTimes;
+	private Histogram mRideTimes;
+	private Histogram mTripTimes;
+
+	public ReplicationSummary(SimulationConfig config, double[][] samples, RuntimeException[] failures,
+	 Histogram waitTimes, Histogram rideTimes, Histogram tripTimes) {
+		mConfig = config;
+		mSamples = samples;
+		mFailures = failures;
+		mWaitTimes = waitTimes;
+		mRideTimes = rideTimes;
+		mTripTimes = tripTimes;
+	}
+
+	/**
+	 * Gets the configuration that was replicated. Each replication used it with a different seed.
+	 */
+	public SimulationConfig getConfig() {
+		return mConfig;
+	}
+
+	/**
+	 * Gets the number of replications that were run, including any that failed.
+	 */
+	public int getReplications() {
+		return mSamples[0].length;
+	}
+
+	public int getFailedReplications() {
+		int failed = 0;
+		for (RuntimeException failure : mFailures) {
+			if (failure != null) {
+				failed++;
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Gets the exception the given replication failed with, or null if it succeeded.
+	 */
+	public RuntimeException getFailure(int replication) {
+		return mFailures[replication];
+	}
+
+	/**
+	 * Gets the value of the given statistic in each replication, NaN for a replication that failed.
+	 */
+	public double[] getSamples(Statistic statistic) {
+		return mSamples[statistic.ordinal()].clone();
+	}
+
+	/**
+	 * Gets a 95% confidence interval for the mean of the given statistic across the replications that succeeded.
+	 * Throws an IllegalStateException, caused by the first failure, if every replication failed.
+	 */
+	public ConfidenceInterval getInterval(Statistic statistic) {
+		double[] samples = mSamples[statistic.ordinal()];
+		double[] succeeded = new double[samples.length - getFailedReplications()];
+		if (succeeded.length == 0) {
+			throw new IllegalStateException("Every replication failed", getFirstFailure());
+		}
+		int n = 0;
+		for (int i = 0; i < samples.length; i++) {
+			if (mFailures[i] == null) {
+				succeeded[n++] = samples[i];
+			}
+		}
+		return ConfidenceInterval.of(succeeded);
+	}
+
+	/**
+	 * Gets the exception of the lowest-numbered failed replication, or null if none failed.
+	 */
+	public RuntimeException getFirstFailure() {
+		for (RuntimeException failure : mFailures) {
+			if (failure != null) {
+				return failure;
+			}
+		}
+		return null;
+	}
+
+	// Distributions pooled over every trip of every replication.
+	public Histogram getWaitTimes() {
+		return mWaitTimes;
+	}
+
+	public Histogram getRideTimes() {
+		return mRideTimes;
+	}
+
+	public Histogram getTripTimes() {
+		return mTripTimes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(mConfig).append(", ").append(getReplications()).append(" replications\n");
+		int failed = getFailedReplications();
+		if (failed > 0) {
+			s.append(failed).append(" failed, the first with ").append(getFirstFailure()).append('\n');
+			if (failed == getReplications()) {
+				return s.toString();
+			}
+		}
+		for (Statistic statistic : Statistic.values()) {
+			s.append(statistic).append(": ").append(getInterval(statistic)).append('\n');
+		}
+		s.append("Pooled wait: ").append(mWaitTimes).append('\n');
+		s.append("Pooled trip: ").append(mTripTimes).append('\n');
+		return s.toString();
+	}
+}
@@ -0,0 +1,75 @@
+package cecs277.replication;
+
+import cecs277.SimulationResult;
+import cecs277.metrics.SimulationMetrics;
+
+/**
+ * A number taken from each replication of a run, to be averaged across replications.
+ */
+public enum Statistic {
+	MEAN_WAIT {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getMetrics().getWaitTimes().getMean();
+		}
+	},
+	P95_WAIT {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getMetrics().getWaitTimes().getPercentile(95);
+		}
+	},
+	MEAN_RIDE {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getMetrics().getRideTimes().getMean();
+		}
+	},
+	MEAN_TRIP {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getMetrics().getTripTimes().getMean();
+		}
+	},
+	P95_TRIP {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getMetrics().getTripTimes().getPercentile(95);
+		}
+	},
+	// The fraction of time elevators were not idle, averaged over the fleet.
+	UTILIZATION {
+		@Override
+		public double of(SimulationResult result) {
+			SimulationMetrics m = result.getMetrics();
+			double sum = 0;
+			for (int e = 1; e <= m.getElevatorCount(); e++) {
+				sum += m.getUtilization(e);
+			}
+			return sum / m.getElevatorCount();
+		}
+	},
+	// The load factor, averaged over the fleet.
+	LOAD_FACTOR {
+		@Override
+		public double of(SimulationResult result) {
+			SimulationMetrics m = result.getMetrics();
+			double sum = 0;
+			for (int e = 1; e <= m.getElevatorCount(); e++) {
+				sum += m.getLoadFactor(e);
+			}
+			return sum / m.getElevatorCount();
+		}
+	},
+	PASSENGERS_DEPARTED {
+		@Override
+		public double of(SimulationResult result) {
+			return result.getPassengersDeparted();
+		}
+	};
+
+	/**
+	 * Extracts this statistic from the result of one replication.
+	 */
+	public abstract double of(SimulationResult result);
+}
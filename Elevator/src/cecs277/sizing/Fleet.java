@@ -0,0 +1,46 @@
+package cecs277.sizing;
+
+import cecs277.SimulationConfig;
+
+/**
+ * A choice of elevators for a building: how many cars, how many passengers each holds, and how many seconds each
+ * takes to move one floor.
+ */
+public class Fleet {
+	private int mElevatorCount;
+	private int mCarCapacity;
+	private long mSecondsPerFloor;
+
+	public Fleet(int elevatorCount, int carCapacity, long secondsPerFloor) {
+		if (elevatorCount < 1) {
+			throw new IllegalArgumentException("A fleet needs at least 1 elevator, got " + elevatorCount);
+		}
+		mElevatorCount = elevatorCount;
+		mCarCapacity = carCapacity;
+		mSecondsPerFloor = secondsPerFloor;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	public int getCarCapacity() {
+		return mCarCapacity;
+	}
+
+	public long getSecondsPerFloor() {
+		return mSecondsPerFloor;
+	}
+
+	/**
+	 * Returns a copy of the given configuration with this fleet's elevators.
+	 */
+	public SimulationConfig applyTo(SimulationConfig config) {
+		return config.withElevators(mElevatorCount).withCars(mCarCapacity, mSecondsPerFloor);
+	}
+
+	@Override
+	public String toString() {
+		return mElevatorCount + " x " + mCarCapacity + " passengers at " + mSecondsPerFloor + "s a floor";
+	}
+}
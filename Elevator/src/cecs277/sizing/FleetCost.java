@@ -0,0 +1,30 @@
+package cecs277.sizing;
+
+/**
+ * What a fleet costs, in any unit: each car has a fixed price, plus a price per passenger it holds and a price per
+ * floor a minute it travels. Faster and bigger cars cost more, so the cheapest fleet that meets a service level is
+ * not simply the one with the fewest cars.
+ */
+public class FleetCost {
+	private double mPerCar;
+	private double mPerPassenger;
+	private double mPerFloorPerMinute;
+
+	public FleetCost(double perCar, double perPassenger, double perFloorPerMinute) {
+		if (perCar < 0 || perPassenger < 0 || perFloorPerMinute < 0) {
+			throw new IllegalArgumentException("Prices must not be negative");
+		}
+		mPerCar = perCar;
+		mPerPassenger = perPassenger;
+		mPerFloorPerMinute = perFloorPerMinute;
+	}
+
+	/**
+	 * Gets the price of the whole fleet.
+	 */
+	public double of(Fleet fleet) {
+		double car = mPerCar + mPerPassenger * fleet.getCarCapacity()
+		 + mPerFloorPerMinute * 60.0 / fleet.getSecondsPerFloor();
+		return car * fleet.getElevatorCount();
+	}
+}
@@ -0,0 +1,48 @@
+package cecs277.sizing;
+
+import cecs277.replication.ConfidenceInterval;
+
+/**
+ * How one fleet did against a service level: the statistic's 95% confidence interval over the replications that were
+ * run, and whether its mean met the target. A fleet that was clearly passing or failing may have been stopped before
+ * running every replication.
+ */
+public class FleetEvaluation {
+	private Fleet mFleet;
+	private double mCost;
+	private ConfidenceInterval mInterval;
+	private boolean mMet;
+
+	public FleetEvaluation(Fleet fleet, double cost, ConfidenceInterval interval, boolean met) {
+		mFleet = fleet;
+		mCost = cost;
+		mInterval = interval;
+		mMet = met;
+	}
+
+	public Fleet getFleet() {
+		return mFleet;
+	}
+
+	public double getCost() {
+		return mCost;
+	}
+
+	public ConfidenceInterval getInterval() {
+		return mInterval;
+	}
+
+	public int getReplications() {
+		return mInterval.getCount();
+	}
+
+	public boolean isMet() {
+		return mMet;
+	}
+
+	@Override
+	public String toString() {
+		return mFleet + ", cost " + String.format("%.0f", mCost) + ": " + mInterval + " over " + getReplications()
+		 + " replications, " + (mMet ? "met" : "not met");
+	}
+}
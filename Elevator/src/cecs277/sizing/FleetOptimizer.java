@@ -0,0 +1,282 @@
+package cecs277.sizing;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+import cecs277.arrivals.TrafficProfile;
+import cecs277.buildings.Building;
+import cecs277.dispatchers.EtaDispatcher;
+import cecs277.metrics.Histogram;
+import cecs277.passengers.Passenger;
+import cecs277.replication.ConfidenceInterval;
+import cecs277.replication.ReplicationRunner;
+import cecs277.replication.Statistic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the cheapest fleet of a FleetSpace that meets a service level in a building, by simulating candidates.
+ *
+ * Each car of the space is searched by its own fork-join task, all in parallel: a binary search over the elevator
+ * count for the fewest of that car that meet the service level, which assumes that adding a car never makes service
+ * worse. A fleet runs its replications in parallel rounds, and stops as soon as the statistic's confidence interval
+ * lies wholly on one side of the limit, so a fleet that is far too small fails after one round. Searches share the
+ * cheapest fleet found so far that meets the target, and never simulate a fleet that costs more; a fleet already
+ * running when a cheaper one is found stops at the end of its round.
+ *
+ * Every fleet runs the same seeds, the ones a ReplicationRunner derives from the building's configuration, so fleets
+ * are compared on the same arrivals, and a ReplicationRunner of the chosen fleet's configuration reproduces its
+ * numbers.
+ */
+public class FleetOptimizer {
+	// How many replications run together between looks at the confidence interval.
+	private static final int ROUND = 4;
+
+	private SimulationConfig mBuilding;
+	private FleetSpace mSpace;
+	private ServiceLevel mTarget;
+	private FleetCost mCost;
+	private long[] mSeeds;
+	private ForkJoinPool mPool;
+	// Guarded by this.
+	private List<FleetEvaluation> mEvaluations = new ArrayList<>();
+	private FleetEvaluation mBest;
+	private int mBestCar;
+
+	/**
+	 * Constructs an optimizer on the common fork-join pool. The building's configuration supplies everything but the
+	 * fleet: its floors, arrivals, dispatcher, horizon, and the seed the replications' seeds are derived from.
+	 */
+	public FleetOptimizer(SimulationConfig building, FleetSpace space, ServiceLevel target, FleetCost cost,
+	 int replications) {
+		this(building, space, target, cost, replications, ForkJoinPool.commonPool());
+	}
+
+	public FleetOptimizer(SimulationConfig building, FleetSpace space, ServiceLevel target, FleetCost cost,
+	 int replications, ForkJoinPool pool) {
+		if (replications < 1) {
+			throw new IllegalArgumentException("Need at least 1 replication, got " + replications);
+		}
+		if (target.getMeasuredFrom() >= building.getHorizon()) {
+			throw new IllegalArgumentException("The service level is measured from " + target.getMeasuredFrom()
+			 + "s, but the runs end at " + building.getHorizon() + "s");
+		}
+		ReplicationRunner runner = new ReplicationRunner(building, replications, pool);
+		mSeeds = new long[replications];
+		for (int i = 0; i < replications; i++) {
+			mSeeds[i] = runner.getReplicationConfig(i).getSeed();
+		}
+		mBuilding = building;
+		mSpace = space;
+		mTarget = target;
+		mCost = cost;
+		mPool = pool;
+	}
+
+	/**
+	 * Searches the space and returns the evaluation of the cheapest fleet that meets the service level, or null if no
+	 * fleet does. Of fleets that cost the same, the one with fewer cars wins, then the one whose car comes first.
+	 */
+	public FleetEvaluation run() {
+		synchronized (this) {
+			mEvaluations.clear();
+			mBest = null;
+		}
+		mPool.invoke(new Cars(0, mSpace.getCarCount()));
+		synchronized (this) {
+			return mBest;
+		}
+	}
+
+	/**
+	 * Gets every fleet simulated by the last run, cheapest first.
+	 */
+	public synchronized List<FleetEvaluation> getEvaluations() {
+		List<FleetEvaluation> evaluations = new ArrayList<>(mEvaluations);
+		evaluations.sort(Comparator.comparingDouble(FleetEvaluation::getCost));
+		return evaluations;
+	}
+
+	/**
+	 * Finds the fewest of the given car that meet the service level, if that fleet could be the cheapest.
+	 */
+	private void searchCar(int car) {
+		int low = mSpace.getMinElevators();
+		int high = mSpace.getMaxElevators();
+		while (low <= high) {
+			int count = (low + high) >>> 1;
+			Fleet fleet = mSpace.getFleet(car, count);
+			double cost = mCost.of(fleet);
+			FleetEvaluation evaluation = couldWin(cost) ? evaluate(fleet, cost) : null;
+			if (evaluation == null || evaluation.isMet()) {
+				// Too dear to win, or met: every larger fleet of this car costs more.
+				if (evaluation != null) {
+					offer(evaluation, car);
+				}
+				high = count - 1;
+			}
+			else {
+				low = count + 1;
+			}
+		}
+	}
+
+	/**
+	 * Runs the fleet's replications in rounds until its interval is clear of the limit or every replication has run.
+	 * Returns null if a cheaper fleet met the target before the fleet was done.
+	 */
+	private FleetEvaluation evaluate(Fleet fleet, double cost) {
+		SimulationConfig config = fleet.applyTo(mBuilding);
+		double[] samples = new double[mSeeds.length];
+		ConfidenceInterval interval = null;
+		for (int done = 0; done < mSeeds.length; ) {
+			if (!couldWin(cost)) {
+				return null;
+			}
+			int to = Math.min(done + ROUND, mSeeds.length);
+			List<Replication> round = new ArrayList<>(to - done);
+			for (int i = done; i < to; i++) {
+				round.add(new Replication(config.withSeed(mSeeds[i]), samples, i));
+			}
+			ForkJoinTask.invokeAll(round);
+			done = to;
+			interval = ConfidenceInterval.of(Arrays.copyOf(samples, done));
+			if (interval.getLower() >= mTarget.getLimit() || interval.getUpper() < mTarget.getLimit()) {
+				break;
+			}
+		}
+		FleetEvaluation evaluation = new FleetEvaluation(fleet, cost, interval, mTarget.isMetBy(interval.getMean()));
+		synchronized (this) {
+			mEvaluations.add(evaluation);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Runs one replication and returns its statistic, measured from the service level's start time. Passengers still
+	 * waiting at the end count with the wait they have had so far; leaving them out would flatter a fleet too small to
+	 * reach them.
+	 */
+	private double measure(SimulationConfig config) {
+		Simulation sim = new Simulation(config);
+		sim.advanceTo(mTarget.getMeasuredFrom());
+		sim.getMetrics().restartAt(sim.currentTime());
+		SimulationResult result = sim.run();
+
+		// The result's metrics are a private copy.
+		Histogram waits = result.getMetrics().getWaitTimes();
+		Building building = sim.getBuilding();
+		for (int f = 1; f <= building.getFloorCount(); f++) {
+			for (Passenger p : building.getFloor(f).getWaitingPassengers()) {
+				waits.record(result.getSimulatedTime() - p.getWaitStartTime());
+			}
+		}
+		return mTarget.getStatistic().of(result);
+	}
+
+	// Returns true if a fleet of the given cost could still be the cheapest that meets the target.
+	private synchronized boolean couldWin(double cost) {
+		return mBest == null || cost <= mBest.getCost();
+	}
+
+	private synchronized void offer(FleetEvaluation evaluation, int car) {
+		if (mBest == null || evaluation.getCost() < mBest.getCost() || evaluation.getCost() == mBest.getCost()
+		 && (evaluation.getFleet().getElevatorCount() < mBest.getFleet().getElevatorCount()
+		 || evaluation.getFleet().getElevatorCount() == mBest.getFleet().getElevatorCount() && car < mBestCar)) {
+			mBest = evaluation;
+			mBestCar = car;
+		}
+	}
+
+	/**
+	 * Searches the cars in [from, to), splitting the range in half until each task has a single car.
+	 */
+	@SuppressWarnings("serial")
+	private class Cars extends RecursiveAction {
+		private final int mFrom;
+		private final int mTo;
+
+		Cars(int from, int to) {
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom == 1) {
+				searchCar(mFrom);
+				return;
+			}
+			int middle = (mFrom + mTo) >>> 1;
+			invokeAll(new Cars(mFrom, middle), new Cars(middle, mTo));
+		}
+	}
+
+	// One replication of a fleet, which writes its statistic into its own slot of the samples.
+	@SuppressWarnings("serial")
+	private class Replication extends RecursiveAction {
+		private final SimulationConfig mConfig;
+		private final double[] mSamples;
+		private final int mIndex;
+
+		Replication(SimulationConfig config, double[] samples, int index) {
+			mConfig = config;
+			mSamples = samples;
+			mIndex = index;
+		}
+
+		@Override
+		protected void compute() {
+			mSamples[mIndex] = measure(mConfig);
+		}
+	}
+
+	/**
+	 * Sizes the fleet of an office building for its morning up-peak: the runs end at 9:30 and the 95th percentile wait
+	 * is measured from 8:00. A car costs 100, plus 5 per passenger it holds and 1 per floor a minute of speed.
+	 * Arguments: floors peakPassengersPerHour minElevators-maxElevators capacities,... secondsPerFloor,... p95WaitLimit
+	 * replications [seed]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 7) {
+			System.out.println("Usage: FleetOptimizer floors peakPassengersPerHour minElevators-maxElevators "
+			 + "capacities,... secondsPerFloor,... p95WaitLimit replications [seed]");
+			return;
+		}
+		int floors = Integer.parseInt(args[0]);
+		String[] counts = args[2].split("-");
+		String[] capacityList = args[3].split(",");
+		int[] capacities = new int[capacityList.length];
+		for (int i = 0; i < capacities.length; i++) {
+			capacities[i] = Integer.parseInt(capacityList[i].trim());
+		}
+		String[] speedList = args[4].split(",");
+		long[] speeds = new long[speedList.length];
+		for (int i = 0; i < speeds.length; i++) {
+			speeds[i] = Long.parseLong(speedList[i].trim());
+		}
+
+		SimulationConfig building = new SimulationConfig(floors, 1, args.length > 7 ? Long.parseLong(args[7]) : 277,
+		 (long) (9.5 * 3600), new EtaDispatcher(), TrafficProfile.office(floors, Double.parseDouble(args[1])));
+		FleetSpace space = new FleetSpace(Integer.parseInt(counts[0]), Integer.parseInt(counts[counts.length - 1]),
+		 capacities, speeds);
+		ServiceLevel target = new ServiceLevel(Statistic.P95_WAIT, Double.parseDouble(args[5]), 8 * 3600);
+		FleetOptimizer optimizer = new FleetOptimizer(building, space, target, new FleetCost(100, 5, 1),
+		 Integer.parseInt(args[6]));
+
+		long start = System.nanoTime();
+		FleetEvaluation best = optimizer.run();
+		for (FleetEvaluation evaluation : optimizer.getEvaluations()) {
+			System.out.println(evaluation);
+		}
+		System.out.println(best == null ? "No fleet meets " + target : "Cheapest fleet meeting " + target + ": " + best);
+		System.out.printf("%d fleets simulated in %.1fs%n", optimizer.getEvaluations().size(),
+		 (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,48 @@
+package cecs277.sizing;
+
+/**
+ * The fleets an optimizer may choose from: every elevator count in a range, combined with every car, a car being one
+ * of the given capacities with one of the given speeds. Cars are numbered from 0, with the speed varying fastest.
+ */
+public class FleetSpace {
+	private int mMinElevators;
+	private int mMaxElevators;
+	private int[] mCapacities;
+	private long[] mSecondsPerFloor;
+
+	public FleetSpace(int minElevators, int maxElevators, int[] capacities, long[] secondsPerFloor) {
+		if (minElevators < 1 || maxElevators < minElevators) {
+			throw new IllegalArgumentException("Bad elevator count range " + minElevators + " to " + maxElevators);
+		}
+		if (capacities.length == 0 || secondsPerFloor.length == 0) {
+			throw new IllegalArgumentException("Need at least one capacity and one speed");
+		}
+		mMinElevators = minElevators;
+		mMaxElevators = maxElevators;
+		mCapacities = capacities.clone();
+		mSecondsPerFloor = secondsPerFloor.clone();
+	}
+
+	public int getMinElevators() {
+		return mMinElevators;
+	}
+
+	public int getMaxElevators() {
+		return mMaxElevators;
+	}
+
+	/**
+	 * Gets the number of different cars, each a capacity and a speed.
+	 */
+	public int getCarCount() {
+		return mCapacities.length * mSecondsPerFloor.length;
+	}
+
+	/**
+	 * Gets the fleet of the given number of the given car.
+	 */
+	public Fleet getFleet(int car, int elevatorCount) {
+		return new Fleet(elevatorCount, mCapacities[car / mSecondsPerFloor.length],
+		 mSecondsPerFloor[car % mSecondsPerFloor.length]);
+	}
+}
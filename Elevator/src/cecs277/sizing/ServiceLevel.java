@@ -0,0 +1,50 @@
+package cecs277.sizing;
+
+import cecs277.replication.Statistic;
+
+/**
+ * A target a fleet must meet: a statistic of each run, averaged over replications, must stay below a limit. The
+ * statistic is measured from a given time to the end of the run, so a run can start early enough to build up the
+ * traffic of a peak and be judged on the peak alone.
+ */
+public class ServiceLevel {
+	private Statistic mStatistic;
+	private double mLimit;
+	private long mMeasuredFrom;
+
+	public ServiceLevel(Statistic statistic, double limit, long measuredFrom) {
+		if (measuredFrom < 0) {
+			throw new IllegalArgumentException("Measuring cannot start before time 0, got " + measuredFrom);
+		}
+		mStatistic = statistic;
+		mLimit = limit;
+		mMeasuredFrom = measuredFrom;
+	}
+
+	public Statistic getStatistic() {
+		return mStatistic;
+	}
+
+	public double getLimit() {
+		return mLimit;
+	}
+
+	/**
+	 * Gets the simulation time at which measuring starts.
+	 */
+	public long getMeasuredFrom() {
+		return mMeasuredFrom;
+	}
+
+	/**
+	 * Returns true if the given value of the statistic meets the target.
+	 */
+	public boolean isMetBy(double value) {
+		return value < mLimit;
+	}
+
+	@Override
+	public String toString() {
+		return mStatistic.name().toLowerCase() + " < " + mLimit + " from " + mMeasuredFrom + "s";
+	}
+}
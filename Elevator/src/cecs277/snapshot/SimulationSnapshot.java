@@ -0,0 +1,146 @@
+package cecs277.snapshot;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * The complete state of a headless simulation at one moment, as a compact byte array. Restoring it gives a new
+ * Simulation that continues exactly as the original would have, so a building can be warmed up once and many
+ * experiments forked from the warmed-up state: with other dispatchers or arrival processes, or with a reseeded
+ * generator.
+ *
+ * The bytes are a 16-byte header (the magic number, the format version, the floor count and the elevator count, each
+ * a big-endian int) followed by what Simulation.writeSnapshot writes.
+ */
+public class SimulationSnapshot {
+	static final int MAGIC = 0x45534E50;
+	static final int VERSION = 1;
+
+	private final byte[] mData;
+	private final int mFloorCount;
+	private final int mElevatorCount;
+	private final long mTime;
+
+	private SimulationSnapshot(byte[] data) {
+		mData = data;
+		SnapshotInput in = new SnapshotInput(data);
+		if (in.readInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a simulation snapshot");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version " + version);
+		}
+		mFloorCount = in.readInt();
+		mElevatorCount = in.readInt();
+		in.readVarint();
+		in.readVarint();
+		mTime = in.readVarLong();
+	}
+
+	/**
+	 * Takes a snapshot of the given headless simulation, which is left unchanged.
+	 */
+	public static SimulationSnapshot of(Simulation sim) {
+		SnapshotOutput out = new SnapshotOutput();
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(sim.getBuilding().getFloorCount());
+		out.writeInt(sim.getBuilding().getElevatorCount());
+		sim.writeSnapshot(out);
+		return new SimulationSnapshot(out.toByteArray());
+	}
+
+	/**
+	 * Reads a snapshot saved with write().
+	 */
+	public static SimulationSnapshot read(Path path) throws IOException {
+		try {
+			return new SimulationSnapshot(Files.readAllBytes(path));
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException(path + ": " + e.getMessage(), e);
+		}
+	}
+
+	public void write(Path path) throws IOException {
+		Files.write(path, mData);
+	}
+
+	/**
+	 * Constructs a new Simulation in this snapshot's state. The configuration supplies the dispatcher, arrivals and
+	 * horizon, and must have the snapshot's floor and elevator counts. A snapshot can be restored any number of times.
+	 */
+	public Simulation restore(SimulationConfig config) {
+		SnapshotInput in = new SnapshotInput(mData);
+		in.readInt();
+		in.readInt();
+		in.readInt();
+		in.readInt();
+		Simulation sim = new Simulation(config, in);
+		if (in.remaining() != 0) {
+			throw new IllegalArgumentException("The snapshot has " + in.remaining() + " bytes left over");
+		}
+		return sim;
+	}
+
+	public int getFloorCount() {
+		return mFloorCount;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	/**
+	 * Gets the simulation time the snapshot was taken at.
+	 */
+	public long getTime() {
+		return mTime;
+	}
+
+	/**
+	 * Gets the size of the snapshot in bytes.
+	 */
+	public int getSize() {
+		return mData.length;
+	}
+
+	/**
+	 * Warms up a headless simulation, snapshots it, and runs several reseeded forks from the snapshot.
+	 * Arguments: floors elevators warmup horizon forks [seed]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 5) {
+			System.out.println("Usage: SimulationSnapshot floors elevators warmup horizon forks [seed]");
+			return;
+		}
+		long warmup = Long.parseLong(args[2]);
+		SimulationConfig config = new SimulationConfig(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+		 args.length > 5 ? Long.parseLong(args[5]) : 277, warmup + Long.parseLong(args[3]));
+
+		long start = System.nanoTime();
+		Simulation warm = new Simulation(config);
+		warm.run(warmup);
+		SimulationSnapshot snapshot = of(warm);
+		System.out.printf("Warmed up to %ds in %.1fms; snapshot is %d bytes%n", warmup,
+		 (System.nanoTime() - start) / 1e6, snapshot.getSize());
+
+		SplittableRandom seeds = new SplittableRandom(config.getSeed());
+		for (int i = 0, forks = Integer.parseInt(args[4]); i < forks; i++) {
+			start = System.nanoTime();
+			Simulation fork = snapshot.restore(config);
+			fork.getRandom().setSeed(seeds.nextLong());
+			double restored = (System.nanoTime() - start) / 1e6;
+			SimulationResult result = fork.run();
+			System.out.printf("Fork %d: restored in %.2fms, mean wait %.1fs, p95 trip %ds%n", i, restored,
+			 result.getMetrics().getWaitTimes().getMean(), result.getMetrics().getTripTimes().getPercentile(95));
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package cecs277.snapshot;
+
+import cecs277.passengers.Passenger;
+import cecs277.passengers.VisitorPassenger;
+import cecs277.passengers.WorkerPassenger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads back what a SnapshotOutput wrote. Passengers are constructed the first time they are read, and the same
+ * object is returned for every later reference to their id.
+ */
+public class SnapshotInput {
+	private final byte[] mData;
+	private int mPosition;
+	private final Map<Integer, Passenger> mPassengers = new HashMap<>();
+
+	public SnapshotInput(byte[] data) {
+		mData = data;
+	}
+
+	public int readByte() {
+		if (mPosition >= mData.length) {
+			throw new IllegalArgumentException("The snapshot ends after " + mData.length + " bytes");
+		}
+		return mData[mPosition++] & 0xFF;
+	}
+
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	public int readVarint() {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if (b < 0x80) {
+				return value;
+			}
+		}
+	}
+
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b < 0x80) {
+				return (value >>> 1) ^ -(value & 1);
+			}
+		}
+	}
+
+	public long readLong() {
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = value << 8 | readByte();
+		}
+		return value;
+	}
+
+	public int readInt() {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = value << 8 | readByte();
+		}
+		return value;
+	}
+
+	public double readDouble() {
+		return Double.longBitsToDouble(readLong());
+	}
+
+	/**
+	 * Reads a passenger reference written by SnapshotOutput.writePassenger.
+	 */
+	public Passenger readPassenger() {
+		int reference = readVarint();
+		int id = reference >>> 1;
+		if ((reference & 1) == 0) {
+			Passenger p = mPassengers.get(id);
+			if (p == null) {
+				throw new IllegalArgumentException("The snapshot refers to passenger " + id + " before writing it");
+			}
+			return p;
+		}
+
+		Passenger p;
+		int kind = readByte();
+		if (kind == SnapshotOutput.WORKER) {
+			p = new WorkerPassenger(id, 0);
+		}
+		else if (kind == SnapshotOutput.VISITOR) {
+			p = new VisitorPassenger(id, 0, 0);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown passenger kind " + kind + " in snapshot");
+		}
+		p.readSnapshot(this);
+		mPassengers.put(id, p);
+		return p;
+	}
+
+	/**
+	 * Gets the number of bytes not read yet.
+	 */
+	public int remaining() {
+		return mData.length - mPosition;
+	}
+}
@@ -0,0 +1,108 @@
+package cecs277.snapshot;
+
+import cecs277.passengers.Passenger;
+import cecs277.passengers.WorkerPassenger;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The buffer a simulation writes its snapshot to. Counts, floor numbers and ids are unsigned varints and times are
+ * varlongs, so a typical snapshot takes a few bytes per passenger.
+ *
+ * A passenger is written in full the first time it is referenced, and by id after that. Every passenger is reachable
+ * from exactly one place (a floor queue, an elevator, or the event that brings them back), so in practice each is
+ * written once, wherever it is.
+ */
+public class SnapshotOutput {
+	static final int VISITOR = 0;
+	static final int WORKER = 1;
+
+	private byte[] mBuffer = new byte[4096];
+	private int mSize;
+	private BitSet mWrittenPassengers = new BitSet();
+
+	public void writeByte(int value) {
+		ensureCapacity(1);
+		mBuffer[mSize++] = (byte) value;
+	}
+
+	public void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a non-negative int in 1 to 5 bytes.
+	 */
+	public void writeVarint(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			mBuffer[mSize++] = (byte) (value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		mBuffer[mSize++] = (byte) value;
+	}
+
+	/**
+	 * Writes a long, zigzag encoded so that small negative values are short too.
+	 */
+	public void writeVarLong(long value) {
+		ensureCapacity(10);
+		value = (value << 1) ^ (value >> 63);
+		while ((value & ~0x7FL) != 0) {
+			mBuffer[mSize++] = (byte) (value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		mBuffer[mSize++] = (byte) value;
+	}
+
+	/**
+	 * Writes a long in 8 bytes, big-endian, for values with no small-number bias.
+	 */
+	public void writeLong(long value) {
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			mBuffer[mSize++] = (byte) (value >>> shift);
+		}
+	}
+
+	public void writeInt(int value) {
+		ensureCapacity(4);
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			mBuffer[mSize++] = (byte) (value >>> shift);
+		}
+	}
+
+	public void writeDouble(double value) {
+		writeLong(Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Writes a reference to a passenger: its id, and the passenger itself if this is the first reference.
+	 */
+	public void writePassenger(Passenger p) {
+		int id = p.getId();
+		if (mWrittenPassengers.get(id)) {
+			writeVarint(id << 1);
+			return;
+		}
+		mWrittenPassengers.set(id);
+		writeVarint(id << 1 | 1);
+		writeByte(p instanceof WorkerPassenger ? WORKER : VISITOR);
+		p.writeSnapshot(this);
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(mBuffer, mSize);
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (mSize + bytes > mBuffer.length) {
+			mBuffer = Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, mSize + bytes));
+		}
+	}
+}
@@ -0,0 +1,274 @@
+package cecs277.sweep;
+
+import cecs277.SimulationConfig;
+import cecs277.arrivals.ArrivalProcess;
+import cecs277.arrivals.PoissonArrivals;
+import cecs277.replication.ConfidenceInterval;
+import cecs277.replication.ReplicationRunner;
+import cecs277.replication.ReplicationSummary;
+import cecs277.replication.Statistic;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs every cell of a SweepGrid, with a number of seed replications per cell, and writes one CSV row per cell as soon
+ * as it finishes. Only the rows' text passes through memory, so a sweep of any size runs in constant space.
+ *
+ * Cells and their replications are fork-join tasks on one pool, so idle threads steal whatever work is left, whether
+ * whole cells or single replications of a slow cell. Rows are written in the order cells finish; the cell column says
+ * which is which.
+ *
+ * A sweep is resumable: if the output file already has rows, those cells are skipped and the rest are appended. A
+ * partly written last row, left by a killed sweep, is removed first. Every cell uses the base configuration's seed, so
+ * cells are compared on the same random arrivals wherever their parameters allow.
+ */
+public class ParameterSweep {
+	private static final String PARAMETER_COLUMNS = "cell,floors,elevators,arrivals,replications,horizon,seed,"
+	 + "dispatcher,capacity,seconds_per_floor";
+
+	private SweepGrid mGrid;
+	private SimulationConfig mBase;
+	private int mReplications;
+	private ForkJoinPool mPool;
+
+	/**
+	 * Constructs a sweep on the common fork-join pool. The base configuration supplies the seed, horizon, dispatcher and
+	 * cars of every cell; its floor count, elevator count and arrivals are replaced by the grid's.
+	 */
+	public ParameterSweep(SweepGrid grid, SimulationConfig base, int replications) {
+		this(grid, base, replications, ForkJoinPool.commonPool());
+	}
+
+	public ParameterSweep(SweepGrid grid, SimulationConfig base, int replications, ForkJoinPool pool) {
+		if (replications < 1) {
+			throw new IllegalArgumentException("Need at least 1 replication, got " + replications);
+		}
+		mGrid = grid;
+		mBase = base;
+		mReplications = replications;
+		mPool = pool;
+	}
+
+	/**
+	 * Runs every cell that is not already in the given CSV file, appending its row. Returns the number of cells run.
+	 */
+	public int run(Path csv) throws IOException {
+		BitSet done = new BitSet(mGrid.getCellCount());
+		boolean resuming = Files.exists(csv) && Files.size(csv) > 0;
+		if (resuming) {
+			readFinishedCells(csv, done);
+		}
+
+		try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+		 StandardOpenOption.APPEND)) {
+			RowWriter rows = new RowWriter(out);
+			if (!resuming) {
+				rows.write(header());
+			}
+			Cells all = new Cells(0, mGrid.getCellCount(), done, rows);
+			try {
+				mPool.invoke(all);
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return rows.mRowsWritten - (resuming ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Marks the cells that already have a row in the file, and cuts off a partial last row. The file is read as bytes,
+	 * so the cut is at the byte offset of the last newline even when rows hold multi-byte characters, and a row cut
+	 * off in the middle of a character is never decoded.
+	 */
+	private void readFinishedCells(Path csv, BitSet done) throws IOException {
+		long complete = 0;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(csv))) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			for (int b = in.read(); b != -1; b = in.read()) {
+				// A newline byte is never part of a multi-byte UTF-8 character.
+				if (b != '\n') {
+					bytes.write(b);
+					continue;
+				}
+				String line = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+				if (complete == 0) {
+					if (!header().equals(line)) {
+						throw new IOException(csv + " has different columns than this sweep");
+					}
+				}
+				else {
+					int comma = line.indexOf(',');
+					int cell = comma > 0 ? Integer.parseInt(line.substring(0, comma)) : -1;
+					if (cell < 0 || cell >= mGrid.getCellCount() || !line.startsWith(rowPrefix(cell))) {
+						throw new IOException(csv + " was written by a different sweep: " + line);
+					}
+					done.set(cell);
+				}
+				complete += bytes.size() + 1;
+				bytes.reset();
+			}
+			if (complete == 0) {
+				throw new IOException(csv + " has different columns than this sweep");
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.WRITE)) {
+			if (channel.size() > complete) {
+				channel.truncate(complete);
+			}
+		}
+	}
+
+	private String header() {
+		StringBuilder s = new StringBuilder(PARAMETER_COLUMNS);
+		for (Statistic statistic : Statistic.values()) {
+			String name = statistic.name().toLowerCase();
+			s.append(',').append(name).append("_mean,").append(name).append("_ci95");
+		}
+		return s.append(",error").toString();
+	}
+
+	// The parameter columns of a cell's row, up to and including the comma before its statistics.
+	private String rowPrefix(int cell) {
+		return cell + "," + mGrid.getFloorCount(cell) + "," + mGrid.getElevatorCount(cell) + ","
+		 + csvField(mGrid.getArrivals(cell).toString()) + "," + mReplications + "," + mBase.getHorizon() + ","
+		 + mBase.getSeed() + "," + csvField(String.valueOf(mBase.getDispatcher())) + "," + mBase.getCarCapacity() + ","
+		 + mBase.getSecondsPerFloor() + ",";
+	}
+
+	private String runCell(int cell) {
+		StringBuilder row = new StringBuilder(rowPrefix(cell));
+		try {
+			SimulationConfig config = mGrid.getConfig(cell, mBase);
+			ReplicationSummary summary = new ReplicationRunner(config, mReplications, mPool).run();
+			for (Statistic statistic : Statistic.values()) {
+				ConfidenceInterval interval = summary.getInterval(statistic);
+				row.append(interval.getMean()).append(',').append(interval.getHalfWidth()).append(',');
+			}
+			int failed = summary.getFailedReplications();
+			if (failed > 0) {
+				// The statistics are over the replications that succeeded.
+				row.append(csvField(failed + " of " + mReplications + " replications failed, the first with "
+				 + summary.getFirstFailure()));
+			}
+		}
+		catch (RuntimeException e) {
+			// A cell that fails is recorded with its error, so the rest of the sweep goes on.
+			row.setLength(0);
+			row.append(rowPrefix(cell));
+			for (int i = 0; i < Statistic.values().length; i++) {
+				row.append(",,");
+			}
+			row.append(csvField(e.toString()));
+		}
+		return row.toString();
+	}
+
+	private static String csvField(String value) {
+		value = value.replace('\n', ' ').replace('\r', ' ');
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Runs the cells in [from, to), splitting the range in half until each task has a single cell.
+	 */
+	@SuppressWarnings("serial")
+	private class Cells extends RecursiveAction {
+		private final int mFrom;
+		private final int mTo;
+		private final BitSet mDone;
+		private final RowWriter mRows;
+
+		Cells(int from, int to, BitSet done, RowWriter rows) {
+			mFrom = from;
+			mTo = to;
+			mDone = done;
+			mRows = rows;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom == 1) {
+				if (!mDone.get(mFrom)) {
+					mRows.write(runCell(mFrom));
+				}
+				return;
+			}
+			int middle = (mFrom + mTo) >>> 1;
+			invokeAll(new Cells(mFrom, middle, mDone, mRows), new Cells(middle, mTo, mDone, mRows));
+		}
+	}
+
+	// Writes whole rows from any thread, flushing each so that a killed sweep loses at most the row in progress.
+	private static class RowWriter {
+		private final Writer mOut;
+		private int mRowsWritten;
+
+		RowWriter(Writer out) {
+			mOut = out;
+		}
+
+		synchronized void write(String row) {
+			try {
+				mOut.write(row);
+				mOut.write('\n');
+				mOut.flush();
+				mRowsWritten++;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Sweeps Poisson arrival rates over floor and elevator counts, writing or resuming the given CSV file.
+	 * Arguments: output.csv floors,... elevators,... meanIntervals,... horizon replications [seed]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 6) {
+			System.out.println("Usage: ParameterSweep output.csv floors,... elevators,... meanIntervals,... horizon "
+			 + "replications [seed]");
+			return;
+		}
+		List<ArrivalProcess> arrivals = new ArrayList<>();
+		for (String mean : args[3].split(",")) {
+			arrivals.add(new PoissonArrivals(Double.parseDouble(mean)));
+		}
+		SweepGrid grid = new SweepGrid(parseInts(args[1]), parseInts(args[2]), arrivals);
+		SimulationConfig base = new SimulationConfig(2, 1, args.length > 6 ? Long.parseLong(args[6]) : 277,
+		 Long.parseLong(args[4]));
+
+		long start = System.nanoTime();
+		int ran = new ParameterSweep(grid, base, Integer.parseInt(args[5])).run(Path.of(args[0]));
+		System.out.printf("Ran %d of %d cells in %.1fs%n", ran, grid.getCellCount(), (System.nanoTime() - start) / 1e9);
+	}
+
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+}
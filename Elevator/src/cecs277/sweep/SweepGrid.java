@@ -0,0 +1,51 @@
+package cecs277.sweep;
+
+import cecs277.SimulationConfig;
+import cecs277.arrivals.ArrivalProcess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The cells of a parameter sweep: every combination of a floor count, an elevator count and an arrival process. Cells
+ * are numbered from 0, with the arrival process varying fastest and the floor count slowest, so a cell's number alone
+ * says which parameters it has.
+ */
+public class SweepGrid {
+	private int[] mFloorCounts;
+	private int[] mElevatorCounts;
+	private List<ArrivalProcess> mArrivals;
+
+	public SweepGrid(int[] floorCounts, int[] elevatorCounts, List<ArrivalProcess> arrivals) {
+		if (floorCounts.length == 0 || elevatorCounts.length == 0 || arrivals.isEmpty()) {
+			throw new IllegalArgumentException("Every parameter of a sweep needs at least one value");
+		}
+		mFloorCounts = floorCounts.clone();
+		mElevatorCounts = elevatorCounts.clone();
+		mArrivals = new ArrayList<>(arrivals);
+	}
+
+	public int getCellCount() {
+		return mFloorCounts.length * mElevatorCounts.length * mArrivals.size();
+	}
+
+	public int getFloorCount(int cell) {
+		return mFloorCounts[cell / (mElevatorCounts.length * mArrivals.size())];
+	}
+
+	public int getElevatorCount(int cell) {
+		return mElevatorCounts[cell / mArrivals.size() % mElevatorCounts.length];
+	}
+
+	public ArrivalProcess getArrivals(int cell) {
+		return mArrivals.get(cell % mArrivals.size());
+	}
+
+	/**
+	 * Gets the configuration of the given cell. The seed, horizon, dispatcher and cars come from the base configuration.
+	 */
+	public SimulationConfig getConfig(int cell, SimulationConfig base) {
+		return new SimulationConfig(getFloorCount(cell), getElevatorCount(cell), base.getSeed(), base.getHorizon(),
+		 base.getDispatcher(), getArrivals(cell)).withCars(base.getCarCapacity(), base.getSecondsPerFloor());
+	}
+}
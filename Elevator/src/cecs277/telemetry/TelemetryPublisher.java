@@ -0,0 +1,73 @@
+package cecs277.telemetry;
+
+import cecs277.Simulation;
+
+/**
+ * Takes a TelemetrySnapshot of a running simulation every so often, on the simulation's own thread, and publishes it
+ * through a volatile field. Readers such as a TelemetryServer only ever see a complete, immutable snapshot, so they
+ * never lock anything the simulation uses and a slow reader cannot hold it up.
+ */
+public class TelemetryPublisher {
+	public static final long DEFAULT_INTERVAL_MILLIS = 250;
+	// Reading the clock after every event would cost more than the event, so it is read once per this many events.
+	private static final int EVENTS_PER_CLOCK_CHECK = 256;
+
+	private final long mIntervalNanos;
+	private final long mStartTime;
+	private long mNextPublishTime;
+	private int mEventsUntilClockCheck = EVENTS_PER_CLOCK_CHECK;
+	private volatile TelemetrySnapshot mSnapshot;
+
+	public TelemetryPublisher() {
+		this(DEFAULT_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Constructs a publisher that snapshots the simulation at most once per the given number of wall-clock
+	 * milliseconds. Wall times in the snapshots count from now.
+	 */
+	public TelemetryPublisher(long intervalMillis) {
+		if (intervalMillis < 1) {
+			throw new IllegalArgumentException("The interval must be at least 1ms, got " + intervalMillis);
+		}
+		mIntervalNanos = intervalMillis * 1_000_000;
+		mStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Gets the most recently published snapshot, or null if none has been taken. Safe to call from any thread.
+	 */
+	public TelemetrySnapshot getSnapshot() {
+		return mSnapshot;
+	}
+
+	/**
+	 * Snapshots the simulation and publishes the snapshot now. Call only on the thread running the simulation.
+	 */
+	public void publish(Simulation sim) {
+		long now = System.nanoTime();
+		mSnapshot = new TelemetrySnapshot(sim, now - mStartTime, mSnapshot);
+		mNextPublishTime = now + mIntervalNanos;
+		mEventsUntilClockCheck = EVENTS_PER_CLOCK_CHECK;
+	}
+
+	/**
+	 * Called by the simulation after each event it executes.
+	 */
+	public void eventExecuted(Simulation sim) {
+		if (--mEventsUntilClockCheck == 0) {
+			clockAdvanced(sim);
+		}
+	}
+
+	/**
+	 * Called by the simulation when it has run to the end of a slice, so a simulation that executes few events, such as
+	 * one paced in real time, is still published on time.
+	 */
+	public void clockAdvanced(Simulation sim) {
+		mEventsUntilClockCheck = EVENTS_PER_CLOCK_CHECK;
+		if (System.nanoTime() - mNextPublishTime >= 0) {
+			publish(sim);
+		}
+	}
+}
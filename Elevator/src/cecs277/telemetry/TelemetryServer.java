@@ -0,0 +1,247 @@
+package cecs277.telemetry;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.elevators.Elevator;
+import cecs277.metrics.Histogram;
+import cecs277.realtime.RealTimeScheduler;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Serves the snapshots of a TelemetryPublisher over HTTP on the loopback interface: /metrics in the Prometheus text
+ * format, and /metrics.json as JSON. Requests are handled on one daemon thread of the server's own, and only read the
+ * latest published snapshot, so scraping never waits for or slows down the simulation thread.
+ */
+public class TelemetryServer implements AutoCloseable {
+	// The upper bounds, in seconds, of the wait time buckets reported to Prometheus.
+	private static final long[] WAIT_BUCKETS = {5, 10, 15, 20, 30, 45, 60, 90, 120, 180, 300, 600};
+	private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+	private final TelemetryPublisher mPublisher;
+	private final HttpServer mServer;
+	private final ExecutorService mExecutor;
+
+	/**
+	 * Starts serving the given publisher's snapshots on the given port of the loopback interface. Port 0 picks a free
+	 * port; see getPort().
+	 */
+	public TelemetryServer(TelemetryPublisher publisher, int port) throws IOException {
+		mPublisher = publisher;
+		mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		mServer.createContext("/metrics", e -> respond(e, "text/plain; version=0.0.4; charset=utf-8",
+		 TelemetryServer::toPrometheus));
+		mServer.createContext("/metrics.json", e -> respond(e, "application/json", TelemetryServer::toJson));
+		mExecutor = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "telemetry-http");
+			t.setDaemon(true);
+			return t;
+		});
+		mServer.setExecutor(mExecutor);
+		mServer.start();
+	}
+
+	public int getPort() {
+		return mServer.getAddress().getPort();
+	}
+
+	@Override
+	public void close() {
+		mServer.stop(0);
+		mExecutor.shutdown();
+	}
+
+	private void respond(HttpExchange exchange, String contentType, Function<TelemetrySnapshot, String> format)
+	 throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			if (!method.equals("GET") && !method.equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			// A context matches every path it prefixes, so /metrics would otherwise answer /metricsfoo too.
+			if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			TelemetrySnapshot snapshot = mPublisher.getSnapshot();
+			if (snapshot == null) {
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+
+			byte[] body = format.apply(snapshot).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			if (method.equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Formats a snapshot in the Prometheus text exposition format.
+	 */
+	public static String toPrometheus(TelemetrySnapshot s) {
+		StringBuilder out = new StringBuilder(4096);
+		metric(out, "elevator_sim_events_total", "counter", "Events executed.");
+		out.append("elevator_sim_events_total ").append(s.getEventsExecuted()).append('\n');
+		metric(out, "elevator_sim_events_per_second", "gauge", "Events executed per wall-clock second.");
+		out.append("elevator_sim_events_per_second ").append(s.getEventsPerSecond()).append('\n');
+		metric(out, "elevator_sim_event_queue_depth", "gauge", "Events waiting in the event queue.");
+		out.append("elevator_sim_event_queue_depth ").append(s.getPendingEvents()).append('\n');
+		metric(out, "elevator_sim_simulated_seconds", "gauge", "Simulation clock.");
+		out.append("elevator_sim_simulated_seconds ").append(s.getSimulatedTime()).append('\n');
+		metric(out, "elevator_sim_wall_seconds", "gauge", "Wall-clock time since telemetry started.");
+		out.append("elevator_sim_wall_seconds ").append(s.getWallTime() / 1e9).append('\n');
+		metric(out, "elevator_sim_speed", "gauge", "Simulated seconds per wall-clock second.");
+		out.append("elevator_sim_speed ").append(s.getSpeed()).append('\n');
+
+		metric(out, "elevator_sim_elevator_state", "gauge", "1 for the state each elevator is in, 0 for the others.");
+		for (int i = 1; i <= s.getElevatorCount(); i++) {
+			for (Elevator.ElevatorState state : Elevator.ElevatorState.values()) {
+				out.append("elevator_sim_elevator_state{elevator=\"").append(i).append("\",state=\"").append(state)
+				 .append("\"} ").append(s.getElevatorState(i) == state ? 1 : 0).append('\n');
+			}
+		}
+		metric(out, "elevator_sim_elevator_floor", "gauge", "Floor each elevator is at.");
+		for (int i = 1; i <= s.getElevatorCount(); i++) {
+			out.append("elevator_sim_elevator_floor{elevator=\"").append(i).append("\"} ")
+			 .append(s.getElevatorFloor(i)).append('\n');
+		}
+		metric(out, "elevator_sim_elevator_passengers", "gauge", "Passengers aboard each elevator.");
+		for (int i = 1; i <= s.getElevatorCount(); i++) {
+			out.append("elevator_sim_elevator_passengers{elevator=\"").append(i).append("\"} ")
+			 .append(s.getElevatorPassengers(i)).append('\n');
+		}
+		metric(out, "elevator_sim_elevator_capacity", "gauge", "Passengers each elevator can carry.");
+		for (int i = 1; i <= s.getElevatorCount(); i++) {
+			out.append("elevator_sim_elevator_capacity{elevator=\"").append(i).append("\"} ")
+			 .append(s.getElevatorCapacity(i)).append('\n');
+		}
+		metric(out, "elevator_sim_floor_waiting", "gauge", "Passengers waiting on each floor.");
+		for (int i = 1; i <= s.getFloorCount(); i++) {
+			out.append("elevator_sim_floor_waiting{floor=\"").append(i).append("\",direction=\"up\"} ")
+			 .append(s.getWaitingUp(i)).append('\n');
+			out.append("elevator_sim_floor_waiting{floor=\"").append(i).append("\",direction=\"down\"} ")
+			 .append(s.getWaitingDown(i)).append('\n');
+		}
+
+		Histogram waits = s.waitTimes();
+		metric(out, "elevator_sim_wait_seconds", "histogram", "Time from calling an elevator to boarding it.");
+		for (long bound : WAIT_BUCKETS) {
+			out.append("elevator_sim_wait_seconds_bucket{le=\"").append(bound).append("\"} ")
+			 .append(waits.getCountAtOrBelow(bound)).append('\n');
+		}
+		out.append("elevator_sim_wait_seconds_bucket{le=\"+Inf\"} ").append(waits.getCount()).append('\n');
+		out.append("elevator_sim_wait_seconds_sum ").append(waits.getSum()).append('\n');
+		out.append("elevator_sim_wait_seconds_count ").append(waits.getCount()).append('\n');
+		return out.toString();
+	}
+
+	private static void metric(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	/**
+	 * Formats a snapshot as a JSON object.
+	 */
+	public static String toJson(TelemetrySnapshot s) {
+		StringBuilder out = new StringBuilder(4096);
+		out.append("{\"simulatedSeconds\":").append(s.getSimulatedTime())
+		 .append(",\"wallSeconds\":").append(s.getWallTime() / 1e9)
+		 .append(",\"speed\":").append(s.getSpeed())
+		 .append(",\"eventsExecuted\":").append(s.getEventsExecuted())
+		 .append(",\"eventsPerSecond\":").append(s.getEventsPerSecond())
+		 .append(",\"eventQueueDepth\":").append(s.getPendingEvents());
+
+		out.append(",\"elevators\":[");
+		for (int i = 1; i <= s.getElevatorCount(); i++) {
+			out.append(i > 1 ? ",{" : "{")
+			 .append("\"number\":").append(i)
+			 .append(",\"state\":\"").append(s.getElevatorState(i))
+			 .append("\",\"direction\":\"").append(s.getElevatorDirection(i))
+			 .append("\",\"floor\":").append(s.getElevatorFloor(i))
+			 .append(",\"passengers\":").append(s.getElevatorPassengers(i))
+			 .append(",\"capacity\":").append(s.getElevatorCapacity(i)).append('}');
+		}
+
+		out.append("],\"floors\":[");
+		for (int i = 1; i <= s.getFloorCount(); i++) {
+			out.append(i > 1 ? ",{" : "{")
+			 .append("\"number\":").append(i)
+			 .append(",\"waitingUp\":").append(s.getWaitingUp(i))
+			 .append(",\"waitingDown\":").append(s.getWaitingDown(i)).append('}');
+		}
+
+		Histogram waits = s.waitTimes();
+		out.append("],\"waitSeconds\":{\"count\":").append(waits.getCount())
+		 .append(",\"mean\":").append(waits.getMean())
+		 .append(",\"min\":").append(waits.getMin())
+		 .append(",\"max\":").append(waits.getMax());
+		for (double p : PERCENTILES) {
+			out.append(",\"p").append((int) p).append("\":").append(waits.getPercentile(p));
+		}
+		out.append(",\"buckets\":[");
+		for (int i = 0; i < WAIT_BUCKETS.length; i++) {
+			out.append(i > 0 ? ",{" : "{").append("\"le\":").append(WAIT_BUCKETS[i])
+			 .append(",\"count\":").append(waits.getCountAtOrBelow(WAIT_BUCKETS[i])).append('}');
+		}
+		out.append("]}}");
+		return out.toString();
+	}
+
+	/**
+	 * Runs a headless simulation with telemetry served on the given port until it reaches the horizon, then keeps
+	 * serving its final state until Enter is pressed. A positive speed paces the run in real time at that many
+	 * simulated seconds per second; 0 runs it as fast as possible.
+	 * Arguments: floors elevators horizon port [speed] [seed]
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 4) {
+			System.out.println("Usage: TelemetryServer floors elevators horizon port [speed] [seed]");
+			return;
+		}
+		long horizon = Long.parseLong(args[2]);
+		double speed = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+		SimulationConfig config = new SimulationConfig(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+		 args.length > 5 ? Long.parseLong(args[5]) : 277, horizon);
+
+		Simulation sim = new Simulation(config);
+		TelemetryPublisher publisher = new TelemetryPublisher();
+		sim.setTelemetry(publisher);
+		try (TelemetryServer server = new TelemetryServer(publisher, Integer.parseInt(args[3]))) {
+			System.out.printf("Serving http://localhost:%d/metrics and /metrics.json%n", server.getPort());
+			if (speed > 0) {
+				try (RealTimeScheduler scheduler = new RealTimeScheduler(sim, speed)) {
+					scheduler.runTo(horizon);
+					scheduler.awaitIdle();
+				}
+			}
+			else {
+				sim.run(horizon);
+			}
+			publisher.publish(sim);
+			System.out.println("Reached " + horizon + "s; press Enter to stop serving");
+			System.in.read();
+		}
+	}
+}
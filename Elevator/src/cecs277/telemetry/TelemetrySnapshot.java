@@ -0,0 +1,170 @@
+package cecs277.telemetry;
+
+import cecs277.Simulation;
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+import cecs277.metrics.Histogram;
+
+/**
+ * An immutable picture of a running simulation at one moment: its clock and throughput, the state and load of each
+ * elevator, the passengers waiting on each floor, and the wait times so far. Taken on the simulation's thread by a
+ * TelemetryPublisher and read on any other.
+ */
+public class TelemetrySnapshot {
+	private final long mWallTime;
+	private final long mSimulatedTime;
+	private final long mEventsExecuted;
+	private final int mPendingEvents;
+	private final double mEventsPerSecond;
+	private final double mSpeed;
+
+	private final Elevator.ElevatorState[] mElevatorStates;
+	private final Elevator.Direction[] mElevatorDirections;
+	private final int[] mElevatorFloors;
+	private final int[] mElevatorPassengers;
+	private final int[] mElevatorCapacities;
+	private final int[] mWaitingUp;
+	private final int[] mWaitingDown;
+	private final Histogram mWaitTimes;
+
+	/**
+	 * Snapshots the given simulation, wallTime nanoseconds after the publisher started. The rates are worked out since
+	 * the previous snapshot, if there is one.
+	 */
+	TelemetrySnapshot(Simulation sim, long wallTime, TelemetrySnapshot previous) {
+		mWallTime = wallTime;
+		mSimulatedTime = sim.currentTime();
+		mEventsExecuted = sim.getEventsExecuted();
+		mPendingEvents = sim.getPendingEventCount();
+		if (previous != null && wallTime > previous.mWallTime) {
+			double seconds = (wallTime - previous.mWallTime) / 1e9;
+			mEventsPerSecond = (mEventsExecuted - previous.mEventsExecuted) / seconds;
+			mSpeed = (mSimulatedTime - previous.mSimulatedTime) / seconds;
+		}
+		else {
+			mEventsPerSecond = 0;
+			mSpeed = 0;
+		}
+
+		// The interactive simulation has no Building of its own to report on.
+		Building b = sim.getBuilding();
+		int elevators = b == null ? 0 : b.getElevatorCount();
+		mElevatorStates = new Elevator.ElevatorState[elevators];
+		mElevatorDirections = new Elevator.Direction[elevators];
+		mElevatorFloors = new int[elevators];
+		mElevatorPassengers = new int[elevators];
+		mElevatorCapacities = new int[elevators];
+		for (int i = 0; i < elevators; i++) {
+			Elevator e = b.getElevator(i + 1);
+			mElevatorStates[i] = e.getCurrentState();
+			mElevatorDirections[i] = e.getCurrentDirection();
+			mElevatorFloors[i] = e.getCurrentFloor().getNumber();
+			mElevatorPassengers[i] = e.getPassengerCount();
+			mElevatorCapacities[i] = e.getCapacity();
+		}
+
+		int floors = b == null ? 0 : b.getFloorCount();
+		mWaitingUp = new int[floors];
+		mWaitingDown = new int[floors];
+		for (int i = 0; i < floors; i++) {
+			Floor f = b.getFloor(i + 1);
+			mWaitingUp[i] = f.getWaitingQueue(Elevator.Direction.MOVING_UP).size();
+			mWaitingDown[i] = f.getWaitingQueue(Elevator.Direction.MOVING_DOWN).size();
+		}
+		mWaitTimes = new Histogram(sim.getMetrics().getWaitTimes());
+	}
+
+	/**
+	 * Gets the wall-clock nanoseconds between the publisher starting and this snapshot being taken.
+	 */
+	public long getWallTime() {
+		return mWallTime;
+	}
+
+	public long getSimulatedTime() {
+		return mSimulatedTime;
+	}
+
+	public long getEventsExecuted() {
+		return mEventsExecuted;
+	}
+
+	/**
+	 * Gets the number of events in the event queue.
+	 */
+	public int getPendingEvents() {
+		return mPendingEvents;
+	}
+
+	/**
+	 * Gets the events executed per wall-clock second since the previous snapshot.
+	 */
+	public double getEventsPerSecond() {
+		return mEventsPerSecond;
+	}
+
+	/**
+	 * Gets the simulated seconds that passed per wall-clock second since the previous snapshot.
+	 */
+	public double getSpeed() {
+		return mSpeed;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorStates.length;
+	}
+
+	/**
+	 * Gets the state of the given elevator, numbered from 1. The other elevator getters number them the same way.
+	 */
+	public Elevator.ElevatorState getElevatorState(int elevator) {
+		return mElevatorStates[elevator - 1];
+	}
+
+	public Elevator.Direction getElevatorDirection(int elevator) {
+		return mElevatorDirections[elevator - 1];
+	}
+
+	public int getElevatorFloor(int elevator) {
+		return mElevatorFloors[elevator - 1];
+	}
+
+	public int getElevatorPassengers(int elevator) {
+		return mElevatorPassengers[elevator - 1];
+	}
+
+	public int getElevatorCapacity(int elevator) {
+		return mElevatorCapacities[elevator - 1];
+	}
+
+	public int getFloorCount() {
+		return mWaitingUp.length;
+	}
+
+	/**
+	 * Gets the number of passengers waiting to go up on the given floor, numbered from 1.
+	 */
+	public int getWaitingUp(int floor) {
+		return mWaitingUp[floor - 1];
+	}
+
+	/**
+	 * Gets the number of passengers waiting to go down on the given floor, numbered from 1.
+	 */
+	public int getWaitingDown(int floor) {
+		return mWaitingDown[floor - 1];
+	}
+
+	/**
+	 * Gets a copy of the wait times recorded up to this snapshot, in seconds.
+	 */
+	public Histogram getWaitTimes() {
+		return new Histogram(mWaitTimes);
+	}
+
+	// The formatters read the histogram without copying it; nothing writes to it after construction.
+	Histogram waitTimes() {
+		return mWaitTimes;
+	}
+}
@@ -0,0 +1,216 @@
+package cecs277.trace;
+
+import cecs277.elevators.Elevator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the records of a file written by EventLogWriter. Call next() to move to each record in turn, then read its
+ * fields with the getters; a getter for a field the current record does not have returns -1 or null. Reading
+ * allocates nothing per record. A log that was never closed is read up to the last record written in full.
+ */
+public class EventLogReader implements AutoCloseable {
+	public enum RecordType {
+		ELEVATOR_STATE,
+		PASSENGER_SPAWNED,
+		PASSENGER_NEXT_DESTINATION
+	}
+
+	private static final RecordType[] TYPES = RecordType.values();
+	private static final Elevator.ElevatorState[] STATES = Elevator.ElevatorState.values();
+	private static final Elevator.Direction[] DIRECTIONS = Elevator.Direction.values();
+	// The file is mapped this many bytes at a time.
+	private static final int WINDOW_SIZE = 1 << 30;
+
+	private final FileChannel mChannel;
+	private final long mFileSize;
+	private final int mFloorCount;
+	private final int mElevatorCount;
+	private MappedByteBuffer mWindow;
+	// The file offset of the first byte of mWindow.
+	private long mWindowStart;
+
+	private long mRecordCount;
+	private RecordType mType;
+	private long mTime;
+	private int mElevator;
+	private Elevator.ElevatorState mState;
+	private Elevator.Direction mDirection;
+	private int mPassengerCount;
+	private boolean mWorker;
+	private int mPassenger;
+	// Passenger ids are stored relative to the id in the previous passenger record, not the previous record.
+	private int mLastPassenger;
+	private int mDestination;
+	private int mFloor;
+	private int mWaitingCount;
+
+	public EventLogReader(Path path) throws IOException {
+		mChannel = FileChannel.open(path, StandardOpenOption.READ);
+		mFileSize = mChannel.size();
+		if (mFileSize < EventLogWriter.HEADER_SIZE) {
+			mChannel.close();
+			throw new IOException(path + " is too short to be an event log");
+		}
+		map(0);
+		int magic = mWindow.getInt();
+		int version = mWindow.getInt();
+		if (magic != EventLogWriter.MAGIC || version != EventLogWriter.VERSION) {
+			mChannel.close();
+			throw new IOException(path + " is not a version " + EventLogWriter.VERSION + " event log");
+		}
+		mFloorCount = mWindow.getInt();
+		mElevatorCount = mWindow.getInt();
+	}
+
+	private void map(long start) throws IOException {
+		mWindowStart = start;
+		mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(mFileSize - start, WINDOW_SIZE));
+	}
+
+	public int getFloorCount() {
+		return mFloorCount;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	/**
+	 * Moves to the next record. Returns false at the end of the log.
+	 */
+	public boolean next() {
+		if (mWindow.remaining() < EventLogWriter.MAX_RECORD_SIZE && mWindowStart + mWindow.limit() < mFileSize) {
+			try {
+				map(mWindowStart + mWindow.position());
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		// A zero tag is the unwritten tail of a log that was never closed.
+		if (!mWindow.hasRemaining() || (mWindow.get(mWindow.position()) & EventLogWriter.TAG_FLAG) == 0) {
+			return false;
+		}
+
+		int tag = mWindow.get() & 0xFF;
+		mType = TYPES[tag & 3];
+		mTime += getVarLong();
+		mRecordCount++;
+		if (mType == RecordType.ELEVATOR_STATE) {
+			mState = STATES[tag >>> 2 & 7];
+			mDirection = DIRECTIONS[tag >>> 5 & 3];
+			mElevator = getVarint();
+			mFloor = getVarint();
+			mPassengerCount = getVarint();
+			mWaitingCount = getVarint();
+			mWorker = false;
+			mPassenger = -1;
+			mDestination = -1;
+		}
+		else {
+			mWorker = (tag & EventLogWriter.WORKER_FLAG) != 0;
+			int zigzag = getVarint();
+			mLastPassenger += (zigzag >>> 1) ^ -(zigzag & 1);
+			mPassenger = mLastPassenger;
+			mFloor = getVarint();
+			mDestination = getVarint();
+			mWaitingCount = getVarint();
+			mState = null;
+			mDirection = null;
+			mElevator = -1;
+			mPassengerCount = -1;
+		}
+		return true;
+	}
+
+	private int getVarint() {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = mWindow.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	private long getVarLong() {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = mWindow.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of records read so far, including the current one.
+	 */
+	public long getRecordCount() {
+		return mRecordCount;
+	}
+
+	// Fields of the current record.
+	public RecordType getType() {
+		return mType;
+	}
+
+	public long getTime() {
+		return mTime;
+	}
+
+	/**
+	 * Gets the floor of the elevator, or the floor the passenger joined.
+	 */
+	public int getFloor() {
+		return mFloor;
+	}
+
+	/**
+	 * Gets the number of passengers waiting on getFloor() after the event.
+	 */
+	public int getWaitingCount() {
+		return mWaitingCount;
+	}
+
+	public int getElevator() {
+		return mElevator;
+	}
+
+	public Elevator.ElevatorState getState() {
+		return mState;
+	}
+
+	public Elevator.Direction getDirection() {
+		return mDirection;
+	}
+
+	public int getPassengerCount() {
+		return mPassengerCount;
+	}
+
+	public int getPassenger() {
+		return mPassenger;
+	}
+
+	public int getDestination() {
+		return mDestination;
+	}
+
+	public boolean isWorker() {
+		return mWorker;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+}
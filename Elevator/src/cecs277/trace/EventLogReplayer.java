@@ -0,0 +1,157 @@
+package cecs277.trace;
+
+import cecs277.elevators.Elevator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Rebuilds the state of a building from an event log, without running the simulation. Call advanceTo() with any
+ * time to see the elevators and floors as they were at that time; moving backwards re-reads the log from the start.
+ *
+ * An elevator's state is the one recorded by its most recent state event. A direction chosen by the dispatcher in
+ * between (for example, when an idle elevator is sent to a floor) shows up with the elevator's next state event.
+ */
+public class EventLogReplayer implements AutoCloseable {
+	private final Path mPath;
+	private EventLogReader mReader;
+	private final int mFloorCount;
+	private final int mElevatorCount;
+
+	// Indexed by elevator number - 1.
+	private final int[] mElevatorFloors;
+	private final Elevator.ElevatorState[] mElevatorStates;
+	private final Elevator.Direction[] mElevatorDirections;
+	private final int[] mElevatorPassengerCounts;
+	// Indexed by floor number - 1.
+	private final int[] mWaitingCounts;
+	private long mTime;
+	private int mPassengersSpawned;
+	private long mRecordsApplied;
+	// True if the reader is on a record that has not been applied yet, because it is after the current time.
+	private boolean mPending;
+
+	public EventLogReplayer(Path path) throws IOException {
+		mPath = path;
+		mReader = new EventLogReader(path);
+		mFloorCount = mReader.getFloorCount();
+		mElevatorCount = mReader.getElevatorCount();
+		mElevatorFloors = new int[mElevatorCount];
+		mElevatorStates = new Elevator.ElevatorState[mElevatorCount];
+		mElevatorDirections = new Elevator.Direction[mElevatorCount];
+		mElevatorPassengerCounts = new int[mElevatorCount];
+		mWaitingCounts = new int[mFloorCount];
+		reset();
+	}
+
+	private void reset() {
+		for (int i = 0; i < mElevatorCount; i++) {
+			mElevatorFloors[i] = 1;
+			mElevatorStates[i] = Elevator.ElevatorState.IDLE_STATE;
+			mElevatorDirections[i] = Elevator.Direction.NOT_MOVING;
+			mElevatorPassengerCounts[i] = 0;
+		}
+		Arrays.fill(mWaitingCounts, 0);
+		mTime = 0;
+		mPassengersSpawned = 0;
+		mRecordsApplied = 0;
+		mPending = false;
+	}
+
+	/**
+	 * Applies every record at or before the given time.
+	 */
+	public void advanceTo(long time) throws IOException {
+		if (time < mTime) {
+			mReader.close();
+			mReader = new EventLogReader(mPath);
+			reset();
+		}
+		mTime = time;
+
+		EventLogReader r = mReader;
+		while (mPending || r.next()) {
+			if (r.getTime() > time) {
+				mPending = true;
+				return;
+			}
+			mPending = false;
+			apply(r);
+		}
+	}
+
+	private void apply(EventLogReader r) {
+		mRecordsApplied++;
+		mWaitingCounts[r.getFloor() - 1] = r.getWaitingCount();
+		switch (r.getType()) {
+			case ELEVATOR_STATE:
+				int e = r.getElevator() - 1;
+				mElevatorFloors[e] = r.getFloor();
+				mElevatorStates[e] = r.getState();
+				mElevatorDirections[e] = r.getDirection();
+				mElevatorPassengerCounts[e] = r.getPassengerCount();
+				break;
+			case PASSENGER_SPAWNED:
+				mPassengersSpawned++;
+				break;
+			case PASSENGER_NEXT_DESTINATION:
+				break;
+		}
+	}
+
+	/**
+	 * Gets the time the replay has advanced to.
+	 */
+	public long getTime() {
+		return mTime;
+	}
+
+	public int getFloorCount() {
+		return mFloorCount;
+	}
+
+	public int getElevatorCount() {
+		return mElevatorCount;
+	}
+
+	// State of the given elevator, numbered from 1.
+	public int getElevatorFloor(int elevator) {
+		return mElevatorFloors[elevator - 1];
+	}
+
+	public Elevator.ElevatorState getElevatorState(int elevator) {
+		return mElevatorStates[elevator - 1];
+	}
+
+	public Elevator.Direction getElevatorDirection(int elevator) {
+		return mElevatorDirections[elevator - 1];
+	}
+
+	public int getElevatorPassengerCount(int elevator) {
+		return mElevatorPassengerCounts[elevator - 1];
+	}
+
+	/**
+	 * Gets the number of passengers waiting on the given floor, numbered from 1.
+	 */
+	public int getWaitingCount(int floor) {
+		return mWaitingCounts[floor - 1];
+	}
+
+	public int getPassengersSpawned() {
+		return mPassengersSpawned;
+	}
+
+	/**
+	 * Gets the number of records applied since the start of the log.
+	 */
+	public long getRecordsApplied() {
+		return mRecordsApplied;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mReader.close();
+	}
+}
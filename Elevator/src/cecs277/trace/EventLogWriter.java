@@ -0,0 +1,212 @@
+package cecs277.trace;
+
+import cecs277.buildings.Building;
+import cecs277.buildings.Floor;
+import cecs277.elevators.Elevator;
+import cecs277.passengers.Passenger;
+import cecs277.passengers.WorkerPassenger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every event of a simulation to a compact binary file, to be read back by EventLogReader or
+ * EventLogReplayer. Give it to Simulation.setEventLog(); each event writes one record after it executes.
+ *
+ * The file starts with a 16-byte header: the magic number, the format version, the floor count and the elevator
+ * count, each a big-endian int. Records follow back to back. Each record starts with a tag byte, whose top bit is
+ * always set and whose low two bits are the record type, followed by the time since the previous record as an
+ * unsigned varint. Then:
+ *
+ * ELEVATOR_STATE: the tag holds the elevator's new state in bits 2-4 and its direction in bits 5-6. Followed by the
+ * elevator number, its floor, its passenger count and the number of passengers waiting on that floor, as varints.
+ *
+ * PASSENGER_SPAWNED and PASSENGER_NEXT_DESTINATION: bit 2 of the tag is set for workers. Followed by the passenger
+ * id as a zigzag varint relative to the previous passenger record, then the floor they joined, their destination
+ * and the number of passengers waiting on that floor, as varints.
+ *
+ * The file is written through memory-mapped regions of the FileChannel, and truncated to its real length on close.
+ * If the run dies before the log is closed, the file keeps the zero-filled rest of its last region; the first zero
+ * tag byte marks the end of the records. A record's tag byte is written after the rest of it, so a record that was
+ * cut short reads as the end as well.
+ */
+public class EventLogWriter implements AutoCloseable {
+	static final int MAGIC = 0x454C4F47;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	// A tag byte, a 10-byte time delta and four 5-byte varints, rounded up.
+	static final int MAX_RECORD_SIZE = 32;
+
+	static final int TYPE_ELEVATOR_STATE = 0;
+	static final int TYPE_PASSENGER_SPAWNED = 1;
+	static final int TYPE_PASSENGER_NEXT_DESTINATION = 2;
+	static final int WORKER_FLAG = 1 << 2;
+	// Set in every tag byte, so that a zero byte can only be the end of the records.
+	static final int TAG_FLAG = 1 << 7;
+
+	private static final int DEFAULT_REGION_SIZE = 1 << 24;
+
+	private final FileChannel mChannel;
+	private final int mRegionSize;
+	private MappedByteBuffer mRegion;
+	// The file offset of the first byte of mRegion.
+	private long mRegionStart;
+
+	private long mLastTime;
+	private int mLastPassenger;
+	private long mRecordCount;
+	private boolean mClosed;
+
+	/**
+	 * Creates or replaces the log file at the given path, for a simulation of the given building.
+	 */
+	public EventLogWriter(Path path, Building building) throws IOException {
+		this(path, building.getFloorCount(), building.getElevatorCount(), DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Creates or replaces the log file at the given path, mapping regionSize bytes of the file at a time.
+	 */
+	public EventLogWriter(Path path, int floorCount, int elevatorCount, int regionSize) throws IOException {
+		if (regionSize < HEADER_SIZE + MAX_RECORD_SIZE) {
+			throw new IllegalArgumentException("Region size must be at least " + (HEADER_SIZE + MAX_RECORD_SIZE)
+			 + " bytes, got " + regionSize);
+		}
+		mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+		 StandardOpenOption.READ, StandardOpenOption.WRITE);
+		mRegionSize = regionSize;
+		mRegion = mChannel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+		mRegion.putInt(MAGIC);
+		mRegion.putInt(VERSION);
+		mRegion.putInt(floorCount);
+		mRegion.putInt(elevatorCount);
+	}
+
+	/**
+	 * Records the state of an elevator after one of its state events has executed.
+	 */
+	public void elevatorState(long time, Elevator elevator) {
+		Floor floor = elevator.getCurrentFloor();
+		int tag = TYPE_ELEVATOR_STATE | elevator.getCurrentState().ordinal() << 2
+		 | elevator.getCurrentDirection().ordinal() << 5;
+		int start = beginRecord(time);
+		putVarint(elevator.getNumber());
+		putVarint(floor.getNumber());
+		putVarint(elevator.getPassengerCount());
+		putVarint(floor.getWaitingCount());
+		endRecord(start, tag);
+	}
+
+	/**
+	 * Records a new passenger entering the building on the given floor.
+	 */
+	public void passengerSpawned(long time, Passenger passenger, Floor floor) {
+		passengerRecord(TYPE_PASSENGER_SPAWNED, time, passenger, floor);
+	}
+
+	/**
+	 * Records an existing passenger starting to wait on the given floor for their next destination.
+	 */
+	public void passengerNextDestination(long time, Passenger passenger, Floor floor) {
+		passengerRecord(TYPE_PASSENGER_NEXT_DESTINATION, time, passenger, floor);
+	}
+
+	private void passengerRecord(int type, long time, Passenger passenger, Floor floor) {
+		int tag = type | (passenger instanceof WorkerPassenger ? WORKER_FLAG : 0);
+		int start = beginRecord(time);
+		int id = passenger.getId();
+		int delta = id - mLastPassenger;
+		putVarint((delta << 1) ^ (delta >> 31));
+		mLastPassenger = id;
+		putVarint(floor.getNumber());
+		putVarint(passenger.getDestination());
+		putVarint(floor.getWaitingCount());
+		endRecord(start, tag);
+	}
+
+	/**
+	 * Starts a record at the given time, leaving its tag byte zero for now. Returns the tag's position in the region.
+	 */
+	private int beginRecord(long time) {
+		if (mClosed) {
+			throw new IllegalStateException("The event log is closed");
+		}
+		if (time < mLastTime) {
+			throw new IllegalArgumentException("Records must be written in time order: " + time + "s after "
+			 + mLastTime + "s");
+		}
+		if (mRegion.remaining() < MAX_RECORD_SIZE) {
+			remap();
+		}
+		int start = mRegion.position();
+		mRegion.put((byte) 0);
+		putVarLong(time - mLastTime);
+		mLastTime = time;
+		return start;
+	}
+
+	/**
+	 * Completes the record started at the given position by writing its tag byte.
+	 */
+	private void endRecord(int start, int tag) {
+		mRegion.put(start, (byte) (tag | TAG_FLAG));
+		mRecordCount++;
+	}
+
+	private void remap() {
+		mRegionStart += mRegion.position();
+		try {
+			mRegion = mChannel.map(FileChannel.MapMode.READ_WRITE, mRegionStart, mRegionSize);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void putVarint(int value) {
+		while ((value & ~0x7F) != 0) {
+			mRegion.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		mRegion.put((byte) value);
+	}
+
+	private void putVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			mRegion.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		mRegion.put((byte) value);
+	}
+
+	/**
+	 * Gets the number of records written so far.
+	 */
+	public long getRecordCount() {
+		return mRecordCount;
+	}
+
+	/**
+	 * Gets the number of bytes written so far, header included.
+	 */
+	public long getSize() {
+		return mRegionStart + mRegion.position();
+	}
+
+	/**
+	 * Trims the file to the bytes actually written and closes it.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (mClosed) {
+			return;
+		}
+		mClosed = true;
+		mChannel.truncate(getSize());
+		mChannel.close();
+	}
+}
@@ -0,0 +1,243 @@
+package cecs277.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes trace records for a Simulation. Every record has a category and a level, and is only formatted if that
+ * category is enabled at that level; a disabled tracer costs one array lookup per call.
+ *
+ * Enabled records are handed to a background writer thread through a bounded ring buffer, so the simulation never
+ * waits on the terminal unless the buffer fills up. Only the simulation thread may call trace(); call flush() before
+ * writing anything else to the same stream, so the output stays in order.
+ */
+public class Tracer implements AutoCloseable {
+	public enum Category {
+		// Every event the simulation executes.
+		EVENT,
+		// Passengers entering and leaving the building.
+		PASSENGER,
+		// Drawings of the whole building.
+		BUILDING
+	}
+
+	public enum Level {
+		INFO,
+		DEBUG
+	}
+
+	/**
+	 * What trace() does when the ring buffer is full.
+	 */
+	public enum Overflow {
+		// Wait for the writer to catch up. Nothing is lost, but the simulation runs at the speed of the output.
+		BLOCK,
+		// Throw the record away and count it.
+		DROP
+	}
+
+	public static final int DEFAULT_CAPACITY = 8192;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	// The highest enabled level ordinal of each category, or -1 if the category is off.
+	private final int[] mThresholds = new int[Category.values().length];
+
+	private final String[] mBuffer;
+	private final int mMask;
+	private final Overflow mOverflow;
+	// mHead is only written by the writer thread, mTail only by the simulation thread.
+	private final AtomicLong mHead = new AtomicLong();
+	private final AtomicLong mTail = new AtomicLong();
+	// The number of records the writer has written and flushed to the stream.
+	private volatile long mFlushed;
+	private volatile boolean mClosed;
+	private long mDropped;
+
+	private final Writer mOut;
+	private final Thread mWriterThread;
+	private volatile IOException mError;
+
+	/**
+	 * Constructs a tracer with no output. All categories are off and cannot be enabled.
+	 */
+	public Tracer() {
+		mBuffer = null;
+		mMask = 0;
+		mOverflow = Overflow.DROP;
+		mOut = null;
+		mWriterThread = null;
+		Arrays.fill(mThresholds, -1);
+	}
+
+	/**
+	 * Constructs a tracer that writes to the given stream, with all categories off. Capacity is rounded up to a power
+	 * of two. The stream is flushed but never closed.
+	 */
+	public Tracer(OutputStream out, int capacity, Overflow overflow) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		mBuffer = new String[size];
+		mMask = size - 1;
+		mOverflow = overflow;
+		mOut = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+		Arrays.fill(mThresholds, -1);
+
+		mWriterThread = new Thread(this::writeLoop, "trace-writer");
+		mWriterThread.setDaemon(true);
+		mWriterThread.start();
+	}
+
+	/**
+	 * Enables the given category at the given level and every level below it.
+	 */
+	public void enable(Category category, Level level) {
+		if (mOut == null) {
+			throw new IllegalStateException("This tracer has no output");
+		}
+		mThresholds[category.ordinal()] = level.ordinal();
+	}
+
+	/**
+	 * Enables every category at the given level.
+	 */
+	public void enableAll(Level level) {
+		for (Category c : Category.values()) {
+			enable(c, level);
+		}
+	}
+
+	public void disable(Category category) {
+		mThresholds[category.ordinal()] = -1;
+	}
+
+	/**
+	 * Returns true if records of the given category and level are written. Check this before building an expensive
+	 * message.
+	 */
+	public boolean isEnabled(Category category, Level level) {
+		return level.ordinal() <= mThresholds[category.ordinal()];
+	}
+
+	/**
+	 * Writes the message as one line, if the category is enabled at the given level. The message's toString() is
+	 * called right away, on the calling thread.
+	 */
+	public void trace(Category category, Level level, Object message) {
+		if (level.ordinal() <= mThresholds[category.ordinal()]) {
+			publish(String.valueOf(message));
+		}
+	}
+
+	private void publish(String record) {
+		if (mClosed) {
+			throw new IllegalStateException("The tracer is closed");
+		}
+		long tail = mTail.get();
+		while (tail - mHead.get() == mBuffer.length) {
+			if (mOverflow == Overflow.DROP) {
+				mDropped++;
+				return;
+			}
+			checkError();
+			LockSupport.unpark(mWriterThread);
+			Thread.onSpinWait();
+		}
+		mBuffer[(int) tail & mMask] = record;
+		mTail.lazySet(tail + 1);
+		if (tail == mHead.get()) {
+			// The buffer was empty, so the writer may be parked.
+			LockSupport.unpark(mWriterThread);
+		}
+	}
+
+	/**
+	 * Waits until every record traced so far has been written and flushed to the stream.
+	 */
+	public void flush() {
+		if (mOut == null) {
+			return;
+		}
+		long tail = mTail.get();
+		while (mFlushed < tail) {
+			checkError();
+			LockSupport.unpark(mWriterThread);
+			LockSupport.parkNanos(50_000);
+		}
+		checkError();
+	}
+
+	/**
+	 * Flushes every traced record and stops the writer thread.
+	 */
+	@Override
+	public void close() {
+		if (mOut == null || mClosed) {
+			return;
+		}
+		flush();
+		mClosed = true;
+		LockSupport.unpark(mWriterThread);
+		try {
+			mWriterThread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets the number of records thrown away because the buffer was full.
+	 */
+	public long getDroppedCount() {
+		return mDropped;
+	}
+
+	private void checkError() {
+		if (mError != null) {
+			throw new IllegalStateException("The trace writer failed", mError);
+		}
+	}
+
+	private void writeLoop() {
+		try {
+			while (true) {
+				long head = mHead.get();
+				long tail = mTail.get();
+				if (head == tail) {
+					if (mFlushed < head) {
+						mOut.flush();
+						mFlushed = head;
+					}
+					if (mClosed) {
+						return;
+					}
+					LockSupport.parkNanos(1_000_000);
+					continue;
+				}
+
+				for (; head < tail; head++) {
+					int index = (int) head & mMask;
+					mOut.write(mBuffer[index]);
+					mOut.write(LINE_SEPARATOR);
+					mBuffer[index] = null;
+				}
+				mHead.lazySet(head);
+			}
+		}
+		catch (IOException e) {
+			mError = e;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package cecs277.arrivals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads small CSV traces, with buffers from the default size down to the length of the longest line, so that lines are
+ * split across refills of the buffer.
+ */
+public class CsvArrivalReaderTest {
+	private static final String TRACE = "time,origin,destination,group\n"
+	 + "# morning\n"
+	 + "0,1,5\n"
+	 + "\n"
+	 + "12.75, 1, 3, 2\r\n"
+	 + "  30,4,1\t\n"
+	 + "3599.5,2,1,1";
+
+	@TempDir
+	Path mDir;
+
+	@ParameterizedTest
+	@ValueSource(ints = {CsvArrivalReader.DEFAULT_BUFFER_SIZE, 64, 31, 30})
+	public void readsEveryArrival(int bufferSize) throws IOException {
+		Path path = write("trace.csv", TRACE);
+		try (CsvArrivalReader reader = new CsvArrivalReader(path, bufferSize)) {
+			// The header and comment are skipped, fractions of a second are dropped, and the last line has no newline.
+			assertEquals(List.of("0s 1->5 x1", "12s 1->3 x2", "30s 4->1 x1", "3599s 2->1 x1"), readAll(reader));
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	public void firstLineMayBeAnArrival() throws IOException {
+		Path path = write("bare.csv", "5,2,7\n9,7,2\n");
+		try (CsvArrivalReader reader = new CsvArrivalReader(path)) {
+			assertEquals(List.of("5s 2->7 x1", "9s 7->2 x1"), readAll(reader));
+		}
+	}
+
+	@Test
+	public void lineLongerThanTheBufferIsAnError() throws IOException {
+		Path path = write("long.csv", "1,2,3\n" + "2,3,4" + " ".repeat(40) + "\n");
+		try (CsvArrivalReader reader = new CsvArrivalReader(path, 16)) {
+			assertTrue(reader.next());
+			UncheckedIOException e = assertThrows(UncheckedIOException.class, reader::next);
+			assertTrue(e.getMessage().contains("long.csv:2: line is longer than 16 bytes"), e.getMessage());
+		}
+	}
+
+	@Test
+	public void malformedLineNamesItsLocation() throws IOException {
+		Path path = write("bad.csv", "time,origin,destination\n1,2,3\n4,x,5\n");
+		try (CsvArrivalReader reader = new CsvArrivalReader(path)) {
+			assertTrue(reader.next());
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+			assertEquals(path + ":3: field 2 is not a whole number", e.getMessage());
+		}
+
+		try (CsvArrivalReader reader = new CsvArrivalReader(write("short.csv", "1,2\n"))) {
+			assertThrows(IllegalArgumentException.class, reader::next);
+		}
+		try (CsvArrivalReader reader = new CsvArrivalReader(write("nobody.csv", "1,2,3,0\n"))) {
+			assertThrows(IllegalArgumentException.class, reader::next);
+		}
+	}
+
+	private Path write(String name, String contents) throws IOException {
+		Path path = mDir.resolve(name);
+		Files.writeString(path, contents, StandardCharsets.US_ASCII);
+		return path;
+	}
+
+	private static List<String> readAll(ArrivalRecordReader reader) {
+		List<String> arrivals = new ArrayList<>();
+		while (reader.next()) {
+			arrivals.add(reader.getTime() + "s " + reader.getOrigin() + "->" + reader.getDestination() + " x"
+			 + reader.getGroupSize());
+		}
+		return arrivals;
+	}
+}
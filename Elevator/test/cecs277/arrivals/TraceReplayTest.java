@@ -0,0 +1,160 @@
+package cecs277.arrivals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays short in-memory traces window by window, counting how far the reader is moved for each window.
+ */
+public class TraceReplayTest {
+	private static final Random RANDOM = new Random(0);
+
+	@Test
+	public void eachWindowReadsOnlyItsOwnRecordsAndTheNextOne() {
+		ArrayReader reader = new ArrayReader(0, 5, 10, 10, 25);
+		TraceReplay replay = new TraceReplay(reader, 10);
+		ArrivalBatch batch = new ArrivalBatch();
+
+		replay.generate(RANDOM, 0, 10, 5, batch);
+		assertEquals("0 5", times(batch));
+		// The record at 10s is read, and held for the next window.
+		assertEquals(3, reader.mRead);
+
+		batch.clear();
+		replay.generate(RANDOM, 10, 20, 5, batch);
+		assertEquals("10 10", times(batch));
+		assertEquals(5, reader.mRead);
+		assertFalse(replay.isEnded());
+
+		batch.clear();
+		replay.generate(RANDOM, 20, 30, 5, batch);
+		assertEquals("25", times(batch));
+		assertTrue(replay.isEnded());
+		assertTrue(reader.mClosed);
+		assertEquals(5, replay.getReplayedCount());
+		assertEquals(0, replay.getSkippedCount());
+
+		// After the end, later windows are simply empty.
+		batch.clear();
+		replay.generate(RANDOM, 30, 40, 5, batch);
+		assertEquals(0, batch.size());
+	}
+
+	@Test
+	public void firstWindowSkipsEarlierRecords() {
+		// As for a simulation restored from a snapshot taken at 10s.
+		TraceReplay replay = new TraceReplay(new ArrayReader(0, 5, 9, 10, 12, 20), 10);
+		ArrivalBatch batch = new ArrivalBatch();
+		replay.generate(RANDOM, 10, 20, 5, batch);
+		assertEquals("10 12", times(batch));
+		assertEquals(3, replay.getSkippedCount());
+		assertEquals(2, replay.getReplayedCount());
+		assertEquals(2, batch.getOrigin(0));
+		assertEquals(3, batch.getDestination(0));
+	}
+
+	@Test
+	public void emptyWindowsKeepTheHeldRecord() {
+		ArrayReader reader = new ArrayReader(100);
+		TraceReplay replay = new TraceReplay(reader, 10);
+		ArrivalBatch batch = new ArrivalBatch();
+		for (long from = 0; from < 100; from += 10) {
+			replay.generate(RANDOM, from, from + 10, 5, batch);
+		}
+		assertEquals(0, batch.size());
+		assertEquals(1, reader.mRead);
+		replay.generate(RANDOM, 100, 110, 5, batch);
+		assertEquals("100", times(batch));
+	}
+
+	@Test
+	public void rejectsReplayingBackwards() {
+		TraceReplay replay = new TraceReplay(new ArrayReader(0, 15), 10);
+		replay.generate(RANDOM, 0, 10, 5, new ArrivalBatch());
+		assertThrows(IllegalStateException.class, () -> replay.generate(RANDOM, 5, 15, 5, new ArrivalBatch()));
+	}
+
+	@Test
+	public void rejectsBadRecords() {
+		TraceReplay unordered = new TraceReplay(new ArrayReader(0, 8, 7), 10);
+		assertThrows(IllegalArgumentException.class, () -> unordered.generate(RANDOM, 0, 10, 5, new ArrivalBatch()));
+
+		// ArrayReader sends every arrival from floor 2 to floor 3.
+		TraceReplay shortBuilding = new TraceReplay(new ArrayReader(0), 10);
+		assertThrows(IllegalArgumentException.class, () -> shortBuilding.generate(RANDOM, 0, 10, 2, new ArrivalBatch()));
+	}
+
+	@Test
+	public void closedReplayCannotGoOn() {
+		ArrayReader reader = new ArrayReader(0, 15);
+		TraceReplay replay = new TraceReplay(reader, 10);
+		replay.generate(RANDOM, 0, 10, 5, new ArrivalBatch());
+		replay.close();
+		assertTrue(reader.mClosed);
+		assertThrows(IllegalStateException.class, () -> replay.generate(RANDOM, 10, 20, 5, new ArrivalBatch()));
+	}
+
+	private static String times(ArrivalBatch batch) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < batch.size(); i++) {
+			s.append(i == 0 ? "" : " ").append(batch.getTime(i));
+		}
+		return s.toString();
+	}
+
+	// Arrivals at the given times, each of one passenger from floor 2 to floor 3.
+	private static class ArrayReader implements ArrivalRecordReader {
+		private final long[] mTimes;
+		private int mRead;
+		private boolean mClosed;
+
+		ArrayReader(long... times) {
+			mTimes = times;
+		}
+
+		@Override
+		public boolean next() {
+			if (mRead == mTimes.length) {
+				return false;
+			}
+			mRead++;
+			return true;
+		}
+
+		@Override
+		public long getTime() {
+			return mTimes[mRead - 1];
+		}
+
+		@Override
+		public int getOrigin() {
+			return 2;
+		}
+
+		@Override
+		public int getDestination() {
+			return 3;
+		}
+
+		@Override
+		public int getGroupSize() {
+			return 1;
+		}
+
+		@Override
+		public String getLocation() {
+			return "record " + mRead;
+		}
+
+		@Override
+		public void close() {
+			mClosed = true;
+		}
+	}
+}
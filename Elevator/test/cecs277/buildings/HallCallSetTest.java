@@ -0,0 +1,100 @@
+package cecs277.buildings;
+
+import cecs277.elevators.Elevator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a HallCallSet keeps its pending calls oldest first through registrations, cancellations and
+ * re-registrations, and can be walked while the calls it reaches are being assigned.
+ */
+public class HallCallSetTest {
+	private static final Elevator.Direction UP = Elevator.Direction.MOVING_UP;
+	private static final Elevator.Direction DOWN = Elevator.Direction.MOVING_DOWN;
+
+	@Test
+	public void walksCallsOldestFirst() {
+		HallCallSet calls = new HallCallSet(5);
+		calls.add(3, UP, 10);
+		calls.add(1, DOWN, 12);
+		calls.add(5, DOWN, 12);
+		assertEquals("[3 up @10s, 1 down @12s, 5 down @12s]", calls.toString());
+
+		int s = calls.oldest();
+		assertEquals(3, calls.floorOf(s));
+		assertEquals(UP, calls.directionOf(s));
+		assertEquals(10, calls.registeredTimeOf(s));
+		s = calls.next(calls.next(s));
+		assertEquals(5, calls.floorOf(s));
+		assertEquals(DOWN, calls.directionOf(s));
+		assertEquals(-1, calls.next(s));
+	}
+
+	@Test
+	public void cancellingRelinksTheRemainingCalls() {
+		HallCallSet calls = new HallCallSet(10);
+		for (int f = 1; f <= 5; f++) {
+			calls.add(f, UP, f);
+		}
+		assertTrue(calls.remove(3, UP));
+		assertTrue(calls.remove(1, UP));
+		assertTrue(calls.remove(5, UP));
+		assertFalse(calls.remove(5, UP));
+		assertFalse(calls.remove(2, DOWN));
+		assertEquals("[2 up @2s, 4 up @4s]", calls.toString());
+		assertEquals(2, calls.size());
+		assertFalse(calls.contains(3, UP));
+		assertEquals(-1, calls.getRegisteredTime(3, UP));
+
+		// A cancelled call registered again is the newest, with its new time.
+		calls.add(1, UP, 9);
+		calls.add(6, DOWN, 9);
+		assertEquals("[2 up @2s, 4 up @4s, 1 up @9s, 6 down @9s]", calls.toString());
+		assertEquals(9, calls.getRegisteredTime(1, UP));
+	}
+
+	@Test
+	public void walkSurvivesAssigningEachCallItReaches() {
+		HallCallSet calls = new HallCallSet(4);
+		calls.add(2, DOWN, 0);
+		calls.add(4, DOWN, 1);
+		calls.add(1, UP, 2);
+		calls.add(3, UP, 3);
+		// What a dispatcher does with idle cars: read the next call, then take the current one off the set.
+		int s = calls.oldest();
+		while (s != -1) {
+			int next = calls.next(s);
+			if (calls.directionOf(s) == DOWN) {
+				calls.remove(calls.floorOf(s), DOWN);
+			}
+			s = next;
+		}
+		assertEquals("[1 up @2s, 3 up @3s]", calls.toString());
+
+		calls.remove(1, UP);
+		calls.remove(3, UP);
+		assertTrue(calls.isEmpty());
+		assertEquals(-1, calls.oldest());
+	}
+
+	@Test
+	public void keepsTheFirstRegistrationTime() {
+		HallCallSet calls = new HallCallSet(5);
+		calls.add(3, UP, 10);
+		assertFalse(calls.add(3, UP, 20));
+		assertEquals(10, calls.getRegisteredTime(3, UP));
+		assertEquals(1, calls.size());
+	}
+
+	@Test
+	public void rejectsRegistrationsOutOfTimeOrder() {
+		HallCallSet calls = new HallCallSet(5);
+		calls.add(3, UP, 10);
+		assertThrows(IllegalArgumentException.class, () -> calls.add(2, UP, 9));
+		assertThrows(IllegalArgumentException.class, () -> calls.add(2, Elevator.Direction.NOT_MOVING, 10));
+	}
+}
@@ -0,0 +1,105 @@
+package cecs277.dispatchers;
+
+import cecs277.Simulation;
+import cecs277.buildings.Building;
+import cecs277.elevators.Elevator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Presses hall buttons in an empty 10-floor building with two elevators, and checks which elevator EtaDispatcher
+ * sends, or that the call waits for a busy elevator that is passing the floor.
+ */
+public class EtaDispatcherTest {
+	private static final Elevator.Direction UP = Elevator.Direction.MOVING_UP;
+	private static final Elevator.Direction DOWN = Elevator.Direction.MOVING_DOWN;
+
+	private Simulation mSim;
+	private Building mBuilding;
+	private Elevator mFirst;
+	private Elevator mSecond;
+
+	@BeforeEach
+	public void buildEmptyBuilding() {
+		mSim = new Simulation(new Random(0));
+		mBuilding = new Building(10, 2, mSim, new EtaDispatcher());
+		mFirst = mBuilding.getElevator(1);
+		mSecond = mBuilding.getElevator(2);
+		mSim.run(1);
+	}
+
+	@Test
+	public void sendsTheCloserIdleElevator() {
+		press(8, DOWN);
+		runUntil(() -> mFirst.isIdle());
+		assertEquals(8, mFirst.getCurrentFloor().getNumber());
+
+		press(6, UP);
+		assertTrue(mFirst.getRequestedFloors().contains(6));
+		assertTrue(mSecond.isIdle());
+	}
+
+	@Test
+	public void callPastABusyElevatorsLastStopGoesToAnIdleElevator() {
+		press(8, DOWN);
+		runUntil(() -> mFirst.getCurrentFloor().getNumber() >= 3);
+
+		// The first elevator is going up, but only as far as 8; it would not come on to 9.
+		press(9, UP);
+		assertFalse(mSecond.isIdle());
+		assertTrue(mSecond.getRequestedFloors().contains(9));
+		assertTrue(mBuilding.getPendingCalls().isEmpty());
+	}
+
+	@Test
+	public void callAheadOfABusyElevatorWaitsForIt() {
+		press(8, DOWN);
+		runUntil(() -> mFirst.getCurrentFloor().getNumber() >= 3);
+
+		press(6, UP);
+		assertTrue(mBuilding.getPendingCalls().contains(6, UP));
+		assertTrue(mSecond.isIdle());
+
+		runUntil(() -> mFirst.getCurrentState() == Elevator.ElevatorState.DOORS_OPEN);
+		assertEquals(6, mFirst.getCurrentFloor().getNumber());
+		assertFalse(mBuilding.getPendingCalls().contains(6, UP));
+		assertTrue(mSecond.isIdle());
+	}
+
+	@Test
+	public void waitingCallGoesToTheFirstElevatorToGoIdle() {
+		press(8, DOWN);
+		press(9, DOWN);
+		assertFalse(mFirst.isIdle());
+		assertFalse(mSecond.isIdle());
+
+		// Neither elevator will pass 3 going down, so the call waits.
+		press(3, DOWN);
+		assertTrue(mBuilding.getPendingCalls().contains(3, DOWN));
+
+		runUntil(() -> mBuilding.getPendingCalls().isEmpty());
+		assertEquals(8, mFirst.getCurrentFloor().getNumber());
+		assertTrue(mFirst.getRequestedFloors().contains(3));
+		assertFalse(mSecond.getRequestedFloors().contains(3));
+	}
+
+	private void press(int floor, Elevator.Direction direction) {
+		mBuilding.getFloor(floor).requestDirection(direction);
+	}
+
+	// Runs the simulation a second at a time until the condition holds, giving up after ten simulated minutes.
+	private void runUntil(BooleanSupplier condition) {
+		long limit = mSim.currentTime() + 600;
+		while (!condition.getAsBoolean()) {
+			assertTrue(mSim.currentTime() < limit, "condition never held");
+			mSim.run(mSim.currentTime() + 1);
+		}
+	}
+}
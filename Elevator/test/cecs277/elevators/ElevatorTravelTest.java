@@ -0,0 +1,74 @@
+package cecs277.elevators;
+
+import cecs277.Simulation;
+import cecs277.buildings.Building;
+import cecs277.dispatchers.EtaDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the one elevator of an empty 20-floor building on a coalesced trip, and checks the floor it reports on the
+ * way, how few events the trip takes, and where a hall call pressed along the way ends it.
+ */
+public class ElevatorTravelTest {
+	private Simulation mSim;
+	private Building mBuilding;
+	private Elevator mCar;
+	private long mPerFloor;
+
+	@BeforeEach
+	public void startTripToFifteen() {
+		mSim = new Simulation(new Random(0));
+		mBuilding = new Building(20, 1, mSim, new EtaDispatcher());
+		mCar = mBuilding.getElevator(1);
+		mPerFloor = mCar.getSecondsPerFloor();
+		mSim.run(1);
+		mBuilding.getFloor(15).requestDirection(Elevator.Direction.MOVING_DOWN);
+		runUntil(() -> mCar.getCurrentState() == Elevator.ElevatorState.MOVING);
+		assertEquals(2, mCar.getCurrentFloor().getNumber());
+	}
+
+	@Test
+	public void oneEventCarriesTheLegWhileTheFloorAdvances() {
+		long start = mSim.currentTime();
+		long executed = mSim.getEventsExecuted();
+		while (mCar.getCurrentState() == Elevator.ElevatorState.MOVING) {
+			long floors = (mSim.currentTime() - start) / mPerFloor;
+			assertEquals(2 + Math.min(floors, 13), mCar.getCurrentFloor().getNumber());
+			mSim.run(mSim.currentTime() + 1);
+		}
+		assertEquals(Elevator.ElevatorState.DECELERATING, mCar.getCurrentState());
+		assertEquals(15, mCar.getCurrentFloor().getNumber());
+		assertEquals(start + 13 * mPerFloor + 2, mSim.currentTime());
+		// The MOVING event at 15 and the DECELERATING event after it.
+		assertEquals(2, mSim.getEventsExecuted() - executed);
+	}
+
+	@Test
+	public void callAheadEndsTheLegThereAndCallBehindDoesNot() {
+		long start = mSim.currentTime();
+		runUntil(() -> mCar.getCurrentFloor().getNumber() == 6);
+		mBuilding.getFloor(4).requestDirection(Elevator.Direction.MOVING_UP);
+		mBuilding.getFloor(9).requestDirection(Elevator.Direction.MOVING_UP);
+
+		runUntil(() -> mCar.getCurrentState() == Elevator.ElevatorState.DECELERATING);
+		assertEquals(9, mCar.getCurrentFloor().getNumber());
+		assertEquals(start + 7 * mPerFloor + 2, mSim.currentTime());
+		assertTrue(mCar.getRequestedFloors().contains(15));
+	}
+
+	// Runs the simulation a second at a time until the condition holds, giving up after ten simulated minutes.
+	private void runUntil(BooleanSupplier condition) {
+		long limit = mSim.currentTime() + 600;
+		while (!condition.getAsBoolean()) {
+			assertTrue(mSim.currentTime() < limit, "condition never held");
+			mSim.run(mSim.currentTime() + 1);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package cecs277.elevators;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks FloorSet's queries at and across the 64-bit word boundaries, and against a TreeSet after random updates.
+ */
+public class FloorSetTest {
+	@Test
+	public void queriesCrossWordBoundaries() {
+		FloorSet set = new FloorSet(200);
+		for (int f : new int[] {1, 64, 65, 128, 129, 200}) {
+			assertTrue(set.add(f));
+		}
+		assertFalse(set.add(65));
+		assertEquals(6, set.size());
+		assertEquals("[1, 64, 65, 128, 129, 200]", set.toString());
+
+		assertEquals(64, set.nextAbove(1));
+		assertEquals(65, set.nextAbove(64));
+		assertEquals(128, set.nextAbove(65));
+		assertEquals(200, set.nextAbove(129));
+		assertEquals(-1, set.nextAbove(200));
+		assertEquals(129, set.nextBelow(200));
+		assertEquals(65, set.nextBelow(128));
+		assertEquals(64, set.nextBelow(65));
+		assertEquals(1, set.nextBelow(64));
+		assertEquals(-1, set.nextBelow(1));
+
+		assertEquals(4, set.countBetween(1, 200));
+		assertEquals(6, set.countBetween(0, 201));
+		assertEquals(0, set.countBetween(65, 128));
+		assertEquals(0, set.countBetween(129, 64));
+	}
+
+	@Test
+	public void clearEmptiesEveryWord() {
+		FloorSet set = new FloorSet(130);
+		set.add(3);
+		set.add(70);
+		set.add(130);
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertEquals(-1, set.nextAbove(0));
+		assertEquals(-1, set.nextBelow(131));
+		assertEquals("[]", set.toString());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 10, 63, 64, 65, 127, 128, 129, 200})
+	public void agreesWithTreeSetAfterRandomUpdates(int floors) {
+		Random r = new Random(floors);
+		for (int round = 0; round < 200; round++) {
+			FloorSet set = new FloorSet(floors);
+			TreeSet<Integer> reference = new TreeSet<>();
+			int updates = r.nextInt(2 * floors + 1);
+			for (int i = 0; i < updates; i++) {
+				int floor = r.nextInt(floors) + 1;
+				if (r.nextInt(3) > 0) {
+					assertEquals(reference.add(floor), set.add(floor));
+				}
+				else {
+					assertEquals(reference.remove(floor), set.remove(floor));
+				}
+			}
+
+			assertEquals(reference.size(), set.size());
+			assertEquals(reference.toString(), set.toString());
+			// Queries may start from just outside the building.
+			for (int i = 0; i <= floors + 1; i++) {
+				int f = i;
+				Integer above = reference.higher(f);
+				Integer below = reference.lower(f);
+				assertEquals(above == null ? -1 : above, set.nextAbove(f), () -> "nextAbove(" + f + ") of " + reference);
+				assertEquals(below == null ? -1 : below, set.nextBelow(f), () -> "nextBelow(" + f + ") of " + reference);
+				if (f >= 1 && f <= floors) {
+					assertEquals(reference.contains(f), set.contains(f));
+				}
+			}
+			int low = r.nextInt(floors + 2);
+			int high = r.nextInt(floors + 2);
+			int between = low < high ? reference.subSet(low, false, high, false).size() : 0;
+			assertEquals(between, set.countBetween(low, high), () -> "countBetween(" + low + ", " + high + ") of "
+			 + reference);
+		}
+	}
+
+	@Test
+	public void rejectsFloorsOutsideTheBuilding() {
+		FloorSet set = new FloorSet(10);
+		assertThrows(IndexOutOfBoundsException.class, () -> set.add(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> set.add(11));
+		assertThrows(IndexOutOfBoundsException.class, () -> set.contains(11));
+	}
+}
@@ -0,0 +1,147 @@
+package cecs277.events;
+
+import cecs277.Simulation;
+import cecs277.snapshot.SnapshotOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a CalendarEventQueue hands out events in (time, order added) order, both for events in its window and
+ * for far-off events that wait in its heap until the window reaches them.
+ */
+public class CalendarEventQueueTest {
+	// An event that remembers the order it was added in, independently of the sequence number the queue stamps.
+	private static class TestEvent extends SimulationEvent {
+		private final long mOrder;
+
+		TestEvent(long scheduledTime, long order) {
+			super(scheduledTime);
+			mOrder = order;
+		}
+
+		@Override
+		public void execute(Simulation sim) {
+		}
+
+		@Override
+		public void writeSnapshot(SnapshotOutput out, long now) {
+			throw new UnsupportedOperationException("Cannot snapshot a test event");
+		}
+	}
+
+	@Test
+	public void sameSecondEventsComeOutInTheOrderAdded() {
+		CalendarEventQueue queue = new CalendarEventQueue(8);
+		TestEvent a = new TestEvent(5, 0);
+		TestEvent b = new TestEvent(3, 1);
+		TestEvent c = new TestEvent(5, 2);
+		TestEvent d = new TestEvent(5, 3);
+		queue.add(a);
+		queue.add(b);
+		queue.add(c);
+		queue.add(d);
+
+		assertSame(b, queue.poll());
+		assertSame(a, queue.poll());
+		assertSame(c, queue.poll());
+		assertSame(d, queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void farEventsJoinTheirBucketBehindEarlierArrivals() {
+		CalendarEventQueue queue = new CalendarEventQueue(4);
+		TestEvent far = new TestEvent(100, 0);
+		TestEvent near = new TestEvent(2, 1);
+		queue.add(far);
+		queue.add(near);
+		assertSame(near, queue.poll());
+
+		// Still beyond the window, so this one waits in the heap behind the first.
+		TestEvent alsoFar = new TestEvent(100, 2);
+		queue.add(alsoFar);
+		TestEvent next = new TestEvent(3, 3);
+		queue.add(next);
+		assertEquals(3, queue.size());
+
+		assertSame(next, queue.poll());
+		assertSame(far, queue.peek());
+		assertSame(far, queue.poll());
+		// The window now covers second 100, so a new event there goes straight into the bucket, after the others.
+		TestEvent late = new TestEvent(100, 4);
+		queue.add(late);
+		assertSame(alsoFar, queue.poll());
+		assertSame(late, queue.poll());
+		assertEquals(0, queue.size());
+	}
+
+	/**
+	 * Drives the queue like a simulation does: each polled event schedules a few follow-ups, mostly within seconds and
+	 * now and then hours away, and the polled events must never go back in time or out of order within a second.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 16, CalendarEventQueue.DEFAULT_BUCKET_COUNT})
+	public void eventLoopPollsInTimeThenInsertionOrder(int bucketCount) {
+		Random r = new Random(bucketCount);
+		CalendarEventQueue queue = new CalendarEventQueue(bucketCount);
+		long added = 0;
+		for (int i = 0; i < 20; i++) {
+			queue.add(new TestEvent(r.nextInt(50), added++));
+		}
+
+		TestEvent previous = null;
+		long polled = 0;
+		while (!queue.isEmpty()) {
+			TestEvent ev = (TestEvent) queue.peek();
+			assertSame(ev, queue.poll());
+			polled++;
+			if (previous != null) {
+				assertTrue(ev.getScheduledTime() >= previous.getScheduledTime(),
+				 "polled " + ev.getScheduledTime() + "s after " + previous.getScheduledTime() + "s");
+				if (ev.getScheduledTime() == previous.getScheduledTime()) {
+					assertTrue(ev.mOrder > previous.mOrder, "same-second events out of order");
+				}
+			}
+			previous = ev;
+
+			int followUps = added < 20_000 ? r.nextInt(3) : 0;
+			for (int k = 0; k < followUps; k++) {
+				long delay = r.nextInt(10) == 0 ? r.nextInt(20_000) : r.nextInt(5);
+				queue.add(new TestEvent(ev.getScheduledTime() + delay, added++));
+			}
+		}
+		assertEquals(added, polled);
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void emptyQueueReturnsNull() {
+		CalendarEventQueue queue = new CalendarEventQueue(8);
+		assertNull(queue.peek());
+		assertNull(queue.poll());
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void rejectsEventsBeforeTheWindow() {
+		CalendarEventQueue queue = new CalendarEventQueue(8);
+		queue.add(new TestEvent(100, 0));
+		queue.poll();
+		assertThrows(IllegalArgumentException.class, () -> queue.add(new TestEvent(99, 1)));
+	}
+
+	@Test
+	public void rejectsBucketCountsThatAreNotPowersOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new CalendarEventQueue(0));
+		assertThrows(IllegalArgumentException.class, () -> new CalendarEventQueue(12));
+	}
+}
@@ -0,0 +1,137 @@
+package cecs277.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks a Histogram against exact statistics of a sorted list of the same values. The count, sum, mean, minimum and
+ * maximum must be exact; a percentile may overstate the exact one by at most a bucket, which is 1/32 of the value.
+ */
+public class HistogramTest {
+	private static final double[] PERCENTS = {0, 0.1, 1, 10, 25, 50, 75, 90, 95, 99, 99.9, 100};
+
+	@Test
+	public void matchesSortedListOnRandomValues() {
+		for (long seed = 0; seed < 50; seed++) {
+			Random r = new Random(seed);
+			Histogram histogram = new Histogram();
+			List<Long> values = new ArrayList<>();
+			int count = r.nextInt(3000) + 1;
+			for (int i = 0; i < count; i++) {
+				long value = randomValue(r);
+				histogram.record(value);
+				values.add(value);
+				if (i % 100 == 0) {
+					assertMatches(values, histogram, r);
+				}
+			}
+			assertMatches(values, histogram, r);
+		}
+	}
+
+	@Test
+	public void addAndCopyMatchRecordingEverything() {
+		Random r = new Random(277);
+		Histogram first = new Histogram();
+		Histogram second = new Histogram();
+		List<Long> values = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			long value = randomValue(r);
+			(r.nextBoolean() ? first : second).record(value);
+			values.add(value);
+		}
+		Histogram merged = new Histogram(first);
+		merged.add(second);
+		assertMatches(values, merged, r);
+		// The copy is independent of the original.
+		first.record(1);
+		assertEquals(values.size(), merged.getCount());
+	}
+
+	@Test
+	public void emptyHistogram() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(50));
+		assertEquals(0.0, histogram.getMean());
+		histogram.record(5);
+		histogram.clear();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getCountAtOrBelow(5));
+	}
+
+	@Test
+	public void rejectsNegativeValuesAndPercentiles() {
+		Histogram histogram = new Histogram();
+		assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+		assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+		assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+	}
+
+	// Small values are counted exactly, so mix them with wait-like values and the occasional huge one.
+	private static long randomValue(Random r) {
+		switch (r.nextInt(4)) {
+			case 0:
+				return r.nextInt(64);
+			case 1:
+				return r.nextInt(5000);
+			case 2:
+				return (long) (-600 * Math.log(1 - r.nextDouble()));
+			default:
+				return r.nextLong() >>> (r.nextInt(40) + 20);
+		}
+	}
+
+	private static void assertMatches(List<Long> values, Histogram histogram, Random r) {
+		List<Long> sorted = new ArrayList<>(values);
+		Collections.sort(sorted);
+		long sum = 0;
+		for (long value : sorted) {
+			sum += value;
+		}
+		int n = sorted.size();
+		assertEquals(n, histogram.getCount());
+		assertEquals(sum, histogram.getSum());
+		assertEquals((double) sum / n, histogram.getMean(), 1e-9 * Math.max(1, (double) sum / n));
+		assertEquals(sorted.get(0), histogram.getMin());
+		assertEquals(sorted.get(n - 1), histogram.getMax());
+
+		for (double percent : PERCENTS) {
+			long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+			long exact = sorted.get((int) rank - 1);
+			long estimate = histogram.getPercentile(percent);
+			assertTrue(estimate >= exact && estimate <= exact + exact / 32,
+			 () -> "p" + percent + " of " + n + " values is " + exact + ", histogram says " + estimate);
+		}
+
+		for (int k = 0; k < 10; k++) {
+			long value = sorted.get(r.nextInt(n)) + r.nextInt(3) - 1;
+			// Values in the bucket holding the given value may be left out, and that bucket starts after this.
+			long surelyCounted = value < 64 ? value : value - value / 32 - 1;
+			long atOrBelow = histogram.getCountAtOrBelow(value);
+			assertTrue(atOrBelow <= countAtOrBelow(sorted, value) && atOrBelow >= countAtOrBelow(sorted, surelyCounted),
+			 () -> "count at or below " + value + " is " + countAtOrBelow(sorted, value) + ", histogram says "
+			 + atOrBelow);
+		}
+	}
+
+	private static long countAtOrBelow(List<Long> sorted, long value) {
+		long count = 0;
+		for (long v : sorted) {
+			if (v <= value) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,110 @@
+package cecs277.passengers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the linking of PassengerQueue: removal from the front, middle and back, moving a passenger between the up and
+ * down queues of a floor, and walking the queue while its passengers board.
+ */
+public class PassengerQueueTest {
+	private PassengerQueue mUp;
+	private PassengerQueue mDown;
+	private Passenger[] mPassengers;
+
+	@BeforeEach
+	public void fillUpQueue() {
+		mUp = new PassengerQueue();
+		mDown = new PassengerQueue();
+		mPassengers = new Passenger[5];
+		for (int i = 0; i < mPassengers.length; i++) {
+			mPassengers[i] = new VisitorPassenger(i, 2, 60);
+			mUp.add(mPassengers[i], i * 10);
+		}
+	}
+
+	@Test
+	public void keepsArrivalOrder() {
+		assertEquals(List.of(mPassengers), contents(mUp));
+		assertSame(mPassengers[0], mUp.peekFirst());
+		assertEquals(5, mUp.size());
+		assertEquals(30, mUp.arrivalOrder(mPassengers[3]));
+	}
+
+	@Test
+	public void removesFromAnyPosition() {
+		assertTrue(mUp.remove(mPassengers[2]));
+		assertTrue(mUp.remove(mPassengers[0]));
+		assertTrue(mUp.remove(mPassengers[4]));
+		assertEquals(List.of(mPassengers[1], mPassengers[3]), contents(mUp));
+		assertSame(mPassengers[1], mUp.peekFirst());
+		assertNull(mUp.next(mPassengers[3]));
+		assertFalse(mUp.contains(mPassengers[2]));
+		assertFalse(mUp.remove(mPassengers[2]));
+
+		// The queue links back up correctly at the back too.
+		Passenger late = new VisitorPassenger(5, 3, 60);
+		mUp.add(late, 100);
+		assertEquals(List.of(mPassengers[1], mPassengers[3], late), contents(mUp));
+	}
+
+	@Test
+	public void passengerMovesToTheOtherQueueWithANewOrder() {
+		Passenger p = mPassengers[1];
+		assertFalse(mDown.remove(p));
+		assertThrows(IllegalStateException.class, () -> mDown.add(p, 50));
+		assertThrows(IllegalStateException.class, () -> mUp.add(p, 50));
+
+		mUp.remove(p);
+		mDown.add(p, 50);
+		assertTrue(mDown.contains(p));
+		assertFalse(mUp.contains(p));
+		assertEquals(50, mDown.arrivalOrder(p));
+		assertEquals(4, mUp.size());
+		assertEquals(List.of(p), contents(mDown));
+	}
+
+	@Test
+	public void walkSurvivesRemovingEachPassengerItReaches() {
+		// What an elevator does as it offers the doors: read the next passenger, then let the current one board.
+		List<Passenger> boarded = new ArrayList<>();
+		Passenger p = mUp.peekFirst();
+		while (p != null) {
+			Passenger next = mUp.next(p);
+			if (p != mPassengers[3]) {
+				mUp.remove(p);
+				boarded.add(p);
+			}
+			p = next;
+		}
+		assertEquals(List.of(mPassengers[0], mPassengers[1], mPassengers[2], mPassengers[4]), boarded);
+		assertEquals(List.of(mPassengers[3]), contents(mUp));
+		assertEquals(1, mUp.size());
+	}
+
+	@Test
+	public void emptyQueue() {
+		assertNull(mDown.peekFirst());
+		assertEquals(0, mDown.size());
+		assertTrue(mDown.isEmpty());
+		assertFalse(mDown.iterator().hasNext());
+	}
+
+	private static List<Passenger> contents(PassengerQueue queue) {
+		List<Passenger> passengers = new ArrayList<>();
+		for (Passenger p : queue) {
+			passengers.add(p);
+		}
+		return passengers;
+	}
+}
@@ -0,0 +1,97 @@
+package cecs277.sizing;
+
+import cecs277.SimulationConfig;
+import cecs277.arrivals.PoissonArrivals;
+import cecs277.dispatchers.EtaDispatcher;
+import cecs277.replication.Statistic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sizes the fleet of an 8-floor building for an hour of busy traffic, from 1 to 4 of four kinds of car. On a pool of
+ * one thread the cars are searched in order, cheapest kind first, so which fleets are simulated is predictable.
+ */
+public class FleetOptimizerTest {
+	private static final SimulationConfig BUILDING = new SimulationConfig(8, 1, 3, 3600, new EtaDispatcher(),
+	 new PoissonArrivals(15));
+	// 8 or 20 passengers, at 2 or 1 seconds a floor: 170, 200, 230 and 260 a car.
+	private static final FleetSpace SPACE = new FleetSpace(1, 4, new int[] {8, 20}, new long[] {2, 1});
+	private static final FleetCost COST = new FleetCost(100, 5, 1);
+
+	private ForkJoinPool mPool;
+
+	@BeforeEach
+	public void startPool() {
+		mPool = new ForkJoinPool(1);
+	}
+
+	@AfterEach
+	public void stopPool() {
+		mPool.shutdown();
+	}
+
+	@Test
+	public void neverSimulatesAFleetDearerThanTheBestFound() {
+		FleetOptimizer optimizer = optimizer(200, mPool);
+		FleetEvaluation best = optimizer.run();
+		assertEquals("2 x 8 passengers at 2s a floor", best.getFleet().toString());
+		assertEquals(340, best.getCost());
+		assertTrue(best.isMet());
+
+		// Two of any other car cost more than 340, so the other searches only try one car.
+		List<FleetEvaluation> evaluations = optimizer.getEvaluations();
+		assertEquals(5, evaluations.size());
+		for (FleetEvaluation evaluation : evaluations) {
+			assertTrue(evaluation.getCost() <= best.getCost(), () -> "simulated " + evaluation);
+			if (evaluation != best) {
+				assertEquals(1, evaluation.getFleet().getElevatorCount());
+				assertFalse(evaluation.isMet());
+			}
+		}
+	}
+
+	@Test
+	public void fleetFarFromTheLimitStopsAfterOneRound() {
+		FleetOptimizer optimizer = optimizer(200, mPool);
+		optimizer.run();
+		int shortest = Integer.MAX_VALUE;
+		for (FleetEvaluation evaluation : optimizer.getEvaluations()) {
+			shortest = Math.min(shortest, evaluation.getReplications());
+		}
+		assertEquals(4, shortest);
+	}
+
+	@Test
+	public void unreachableTargetSearchesEveryCarToItsLargestFleet() {
+		FleetOptimizer optimizer = optimizer(1, mPool);
+		assertNull(optimizer.run());
+		// Each binary search over 1-4 tries 2, 3 and 4 elevators.
+		List<FleetEvaluation> evaluations = optimizer.getEvaluations();
+		assertEquals(4 * 3, evaluations.size());
+		for (FleetEvaluation evaluation : evaluations) {
+			assertFalse(evaluation.isMet());
+			assertTrue(evaluation.getFleet().getElevatorCount() >= 2);
+		}
+	}
+
+	@Test
+	public void parallelSearchFindsTheSameFleet() {
+		FleetEvaluation serial = optimizer(200, mPool).run();
+		FleetEvaluation parallel = optimizer(200, ForkJoinPool.commonPool()).run();
+		assertEquals(serial.toString(), parallel.toString());
+	}
+
+	private static FleetOptimizer optimizer(double p95WaitLimit, ForkJoinPool pool) {
+		ServiceLevel target = new ServiceLevel(Statistic.P95_WAIT, p95WaitLimit, 900);
+		return new FleetOptimizer(BUILDING, SPACE, target, COST, 8, pool);
+	}
+}
@@ -0,0 +1,76 @@
+package cecs277.snapshot;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import cecs277.SimulationResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Snapshots a 12-floor building part way through a run, and checks that a simulation restored from the snapshot ends
+ * in exactly the state the original does.
+ */
+public class SimulationSnapshotTest {
+	private static final SimulationConfig CONFIG = new SimulationConfig(12, 3, 5, 7200);
+
+	@TempDir
+	Path mDir;
+
+	@ParameterizedTest
+	@ValueSource(longs = {0, 1, 917, 3600})
+	public void restoredRunEndsWhereTheOriginalDoes(long warmup) throws IOException {
+		Simulation original = new Simulation(CONFIG);
+		original.run(warmup);
+		SimulationSnapshot snapshot = SimulationSnapshot.of(original);
+		assertEquals(warmup, snapshot.getTime());
+
+		// Through a file, as a warm start would be kept between runs.
+		Path path = mDir.resolve("warm.snap");
+		snapshot.write(path);
+		Simulation restored = SimulationSnapshot.read(path).restore(CONFIG);
+		assertArrayEquals(Files.readAllBytes(path), bytes(restored));
+
+		SimulationResult expected = original.run();
+		SimulationResult actual = restored.run();
+		assertEquals(expected.getEventsExecuted(), actual.getEventsExecuted());
+		assertEquals(expected.getPassengersSpawned(), actual.getPassengersSpawned());
+		assertEquals(expected.getPassengersDeparted(), actual.getPassengersDeparted());
+		assertArrayEquals(bytes(original), bytes(restored));
+	}
+
+	@Test
+	public void oneSnapshotRestoresAnyNumberOfTimes() throws IOException {
+		Simulation original = new Simulation(CONFIG);
+		original.run(1800);
+		SimulationSnapshot snapshot = SimulationSnapshot.of(original);
+
+		Simulation first = snapshot.restore(CONFIG);
+		first.run();
+		Simulation second = snapshot.restore(CONFIG);
+		second.run();
+		assertArrayEquals(bytes(first), bytes(second));
+		assertEquals(1800, SimulationSnapshot.of(original).getTime());
+	}
+
+	@Test
+	public void rejectsAnotherBuilding() {
+		SimulationSnapshot snapshot = SimulationSnapshot.of(new Simulation(CONFIG));
+		assertThrows(IllegalArgumentException.class, () -> snapshot.restore(new SimulationConfig(12, 4, 5, 7200)));
+	}
+
+	private byte[] bytes(Simulation sim) throws IOException {
+		Path path = Files.createTempFile(mDir, "state", ".snap");
+		SimulationSnapshot.of(sim).write(path);
+		return Files.readAllBytes(path);
+	}
+}
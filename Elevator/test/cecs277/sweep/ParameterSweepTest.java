@@ -0,0 +1,92 @@
+package cecs277.sweep;
+
+import cecs277.SimulationConfig;
+import cecs277.arrivals.PoissonArrivals;
+import cecs277.arrivals.UniformArrivals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs a four-cell sweep whole, then again from a copy of its output cut off in the middle of a row, as a killed sweep
+ * would leave it.
+ */
+public class ParameterSweepTest {
+	private static final SweepGrid GRID = new SweepGrid(new int[] {5}, new int[] {1, 2},
+	 List.of(new PoissonArrivals(30), new UniformArrivals(20, 40)));
+	private static final SimulationConfig BASE = new SimulationConfig(2, 1, 11, 900);
+
+	@TempDir
+	Path mDir;
+
+	@Test
+	public void resumeRunsOnlyTheUnfinishedCells() throws IOException {
+		Path whole = mDir.resolve("whole.csv");
+		assertEquals(4, sweep().run(whole));
+		List<String> rows = Files.readAllLines(whole, StandardCharsets.UTF_8);
+		assertEquals(5, rows.size());
+
+		// The header, two finished rows and half of a third.
+		Path killed = mDir.resolve("killed.csv");
+		String partial = rows.get(3).substring(0, rows.get(3).length() / 2);
+		Files.writeString(killed, rows.get(0) + "\n" + rows.get(1) + "\n" + rows.get(2) + "\n" + partial,
+		 StandardCharsets.UTF_8);
+
+		assertEquals(2, sweep().run(killed));
+		List<String> resumed = Files.readAllLines(killed, StandardCharsets.UTF_8);
+		assertEquals(rows.get(0), resumed.get(0));
+		assertEquals(rows.subList(1, 3), resumed.subList(1, 3));
+		// Every cell has the same seed, so a cell gives the same row whichever run it was in.
+		assertEquals(new HashSet<>(rows), new HashSet<>(resumed));
+		assertEquals(rows.size(), resumed.size());
+
+		assertEquals(0, sweep().run(killed));
+		assertEquals(resumed, Files.readAllLines(killed, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void refusesToResumeAnotherSweepsOutput() throws IOException {
+		Path path = mDir.resolve("other.csv");
+		sweep().run(path);
+		ParameterSweep moreReplications = new ParameterSweep(GRID, BASE, 3);
+		assertThrows(IOException.class, () -> moreReplications.run(path));
+	}
+
+	@Test
+	public void cellsHaveTheBaseConfigurationsCars() throws IOException {
+		SimulationConfig smallSlowCars = BASE.withCars(2, 4);
+		for (int cell = 0; cell < GRID.getCellCount(); cell++) {
+			SimulationConfig config = GRID.getConfig(cell, smallSlowCars);
+			assertEquals(2, config.getCarCapacity());
+			assertEquals(4, config.getSecondsPerFloor());
+		}
+
+		Path path = mDir.resolve("slow.csv");
+		new ParameterSweep(GRID, smallSlowCars, 2).run(path);
+		List<String> rows = Files.readAllLines(path, StandardCharsets.UTF_8);
+		List<String> columns = List.of(rows.get(0).split(","));
+		int capacity = columns.indexOf("capacity");
+		int secondsPerFloor = columns.indexOf("seconds_per_floor");
+		for (String row : rows.subList(1, rows.size())) {
+			// None of these parameter fields needs quoting.
+			String[] fields = row.split(",");
+			assertEquals("2", fields[capacity], row);
+			assertEquals("4", fields[secondsPerFloor], row);
+		}
+		// A sweep of the same grid with other cars is another sweep.
+		assertThrows(IOException.class, () -> sweep().run(path));
+	}
+
+	private static ParameterSweep sweep() {
+		return new ParameterSweep(GRID, BASE, 2);
+	}
+}
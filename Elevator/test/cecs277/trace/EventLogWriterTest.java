@@ -0,0 +1,99 @@
+package cecs277.trace;
+
+import cecs277.Simulation;
+import cecs277.SimulationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes the log of an hour-long run and reads it back, closed or as a crashed run would leave it, and with the file
+ * mapped in regions small enough that records straddle them.
+ */
+public class EventLogWriterTest {
+	private static final SimulationConfig CONFIG = new SimulationConfig(10, 2, 7, 3600);
+
+	@TempDir
+	Path mDir;
+
+	@Test
+	public void unclosedLogEndsAtTheLastRecordWritten() throws IOException {
+		Path path = mDir.resolve("crashed.elog");
+		Simulation sim = new Simulation(CONFIG);
+		EventLogWriter log = new EventLogWriter(path, sim.getBuilding());
+		sim.setEventLog(log);
+		sim.run();
+
+		// As if the run had died here: the rest of the mapped region is still zero-filled on disk.
+		assertTrue(Files.size(path) > log.getSize());
+		assertTrue(log.getRecordCount() > 0);
+		assertEquals(log.getRecordCount(), countRecords(path));
+
+		log.close();
+		assertEquals(log.getSize(), Files.size(path));
+		assertEquals(log.getRecordCount(), countRecords(path));
+	}
+
+	@Test
+	public void smallRegionsWriteTheSameRecords() throws IOException {
+		Path whole = writeRun("whole.elog", 1 << 24);
+		Path pieces = writeRun("pieces.elog", EventLogWriter.HEADER_SIZE + EventLogWriter.MAX_RECORD_SIZE);
+
+		try (EventLogReader expected = new EventLogReader(whole); EventLogReader actual = new EventLogReader(pieces)) {
+			// Passenger ids are numbered across runs, so the second run's ids are offset from the first's.
+			Integer idOffset = null;
+			int lastSpawned = -1;
+			while (expected.next()) {
+				// Each spawn makes the next passenger, whatever records came in between.
+				if (expected.getType() == EventLogReader.RecordType.PASSENGER_SPAWNED) {
+					if (lastSpawned != -1) {
+						assertEquals(lastSpawned + 1, expected.getPassenger());
+					}
+					lastSpawned = expected.getPassenger();
+				}
+				assertTrue(actual.next());
+				assertEquals(expected.getType(), actual.getType());
+				assertEquals(expected.getTime(), actual.getTime());
+				assertEquals(expected.getFloor(), actual.getFloor());
+				assertEquals(expected.getWaitingCount(), actual.getWaitingCount());
+				assertEquals(expected.getElevator(), actual.getElevator());
+				assertEquals(expected.getState(), actual.getState());
+				assertEquals(expected.getDirection(), actual.getDirection());
+				if (expected.getPassenger() != -1) {
+					if (idOffset == null) {
+						idOffset = actual.getPassenger() - expected.getPassenger();
+					}
+					assertEquals(expected.getPassenger() + idOffset, actual.getPassenger());
+				}
+				assertEquals(expected.getDestination(), actual.getDestination());
+			}
+			assertFalse(actual.next());
+		}
+	}
+
+	private Path writeRun(String name, int regionSize) throws IOException {
+		Path path = mDir.resolve(name);
+		Simulation sim = new Simulation(CONFIG);
+		try (EventLogWriter log = new EventLogWriter(path, CONFIG.getFloorCount(), CONFIG.getElevatorCount(),
+		 regionSize)) {
+			sim.setEventLog(log);
+			sim.run();
+		}
+		return path;
+	}
+
+	private static long countRecords(Path path) throws IOException {
+		try (EventLogReader reader = new EventLogReader(path)) {
+			while (reader.next()) {
+			}
+			return reader.getRecordCount();
+		}
+	}
+}